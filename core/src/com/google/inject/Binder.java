@@ -21,6 +21,7 @@ import com.google.inject.binder.AnnotatedConstantBindingBuilder;
 import com.google.inject.binder.LinkedBindingBuilder;
 import com.google.inject.matcher.Matcher;
 import com.google.inject.spi.Message;
+import com.google.inject.spi.ProvisionListener;
 import com.google.inject.spi.TypeConverter;
 import com.google.inject.spi.TypeListener;
 import java.lang.annotation.Annotation;
@@ -373,6 +374,18 @@ public interface Binder {
   void bindListener(Matcher<? super TypeLiteral<?>> typeMatcher,
       TypeListener listener);
 
+  /**
+   * Registers listeners for provisioned objects. Guice will notify the listeners each time a
+   * binding matched by the given binding matcher provisions an instance.
+   *
+   * @param bindingMatcher that matches bindings of provisioned objects the listeners should be
+   *     notified of
+   * @param listeners for provisioned objects matched by bindingMatcher
+   * @since 3.0
+   */
+  void bindListener(Matcher<? super Binding<?>> bindingMatcher,
+      ProvisionListener... listeners);
+
   /**
    * Returns a binder that uses {@code source} as the reference location for
    * configuration errors. This is typically a {@link StackTraceElement}
@@ -179,6 +179,21 @@ public interface Injector {
    */
   <T> Provider<T> getProvider(Class<T> type);
 
+  /**
+   * Returns a provider for the given injection key that's specialized for the key's current
+   * object graph. Rather than resolving each dependency as instances are created, the graph is
+   * resolved once: instances and singletons become constants, and unscoped types are constructed
+   * and have their fields injected directly. Use it for keys that are looked up very frequently.
+   *
+   * <p>Singletons in the graph are created when the key is compiled. Graphs that need anything
+   * else, such as other scopes, custom providers, method injection or injection listeners, get the
+   * same provider as {@link #getProvider(Key)}.
+   *
+   * @throws ConfigurationException if this injector cannot find or create the provider.
+   * @since 3.0
+   */
+  <T> Provider<T> compile(Key<T> key);
+
   /**
    * Returns the appropriate instance for the given injection key; equivalent to {@code
    * getProvider(key).get()}. When feasible, avoid using this method, in favor of having Guice
@@ -18,10 +18,12 @@ package com.google.inject;
 
 import com.google.inject.internal.Annotations;
 import com.google.inject.internal.MoreTypes;
+import com.google.inject.internal.util.MapMaker;
 import static com.google.inject.internal.util.Preconditions.checkArgument;
 import static com.google.inject.internal.util.Preconditions.checkNotNull;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.Map;
 
 /**
  * Binding key consisting of an injection type and an optional annotation.
@@ -48,6 +50,13 @@ import java.lang.reflect.Type;
  */
 public class Key<T> {
 
+  /**
+   * The unannotated keys of classes, which are looked up without creating one. Other keys aren't
+   * shared: finding an equal key to share would compare them as deeply as a binding map does.
+   */
+  private static final Map<Class<?>, Key<?>> classKeys
+      = new MapMaker().weakKeys().weakValues().makeMap();
+
   private final AnnotationStrategy annotationStrategy;
 
   private final TypeLiteral<T> typeLiteral;
@@ -209,7 +218,13 @@ public class Key<T> {
    * Gets a key for an injection type.
    */
   public static <T> Key<T> get(Class<T> type) {
-    return new Key<T>(type, NullAnnotationStrategy.INSTANCE);
+    @SuppressWarnings("unchecked") // we only map classes to their own keys
+    Key<T> result = (Key<T>) classKeys.get(type);
+    if (result == null) {
+      result = new Key<T>(type, NullAnnotationStrategy.INSTANCE);
+      classKeys.put(type, result);
+    }
+    return result;
   }
 
   /**
@@ -231,6 +246,9 @@ public class Key<T> {
    * Gets a key for an injection type.
    */
   public static Key<?> get(Type type) {
+    if (type instanceof Class) {
+      return get((Class<?>) type);
+    }
     return new Key<Object>(type, NullAnnotationStrategy.INSTANCE);
   }
 
@@ -23,6 +23,7 @@ import com.google.inject.binder.LinkedBindingBuilder;
 import static com.google.inject.internal.util.Preconditions.checkState;
 import com.google.inject.matcher.Matcher;
 import com.google.inject.spi.Message;
+import com.google.inject.spi.ProvisionListener;
 import com.google.inject.spi.TypeConverter;
 import com.google.inject.spi.TypeListener;
 import java.lang.annotation.Annotation;
@@ -290,4 +291,14 @@ public abstract class PrivateModule implements Module {
       TypeListener listener) {
     binder.bindListener(typeMatcher, listener);
   }
+
+  /**
+   * @see Binder#bindListener(com.google.inject.matcher.Matcher,
+   *  com.google.inject.spi.ProvisionListener[])
+   * @since 3.0
+   */
+  protected void bindListener(Matcher<? super Binding<?>> bindingMatcher,
+      ProvisionListener... listeners) {
+    binder.bindListener(bindingMatcher, listeners);
+  }
 }
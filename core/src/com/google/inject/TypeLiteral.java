@@ -19,6 +19,7 @@ package com.google.inject;
 import com.google.inject.internal.MoreTypes;
 import static com.google.inject.internal.MoreTypes.canonicalize;
 import com.google.inject.internal.util.ImmutableList;
+import com.google.inject.internal.util.MapMaker;
 import static com.google.inject.internal.util.Preconditions.checkArgument;
 import static com.google.inject.internal.util.Preconditions.checkNotNull;
 import com.google.inject.util.Types;
@@ -32,6 +33,7 @@ import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a generic type {@code T}. Java doesn't yet provide a way to
@@ -60,6 +62,10 @@ import java.util.List;
  */
 public class TypeLiteral<T> {
 
+  /** The canonical type literals of classes, which can be looked up without creating one. */
+  private static final Map<Class<?>, TypeLiteral<?>> classTypeLiterals
+      = new MapMaker().weakKeys().weakValues().makeMap();
+
   final Class<? super T> rawType;
   final Type type;
   final int hashCode;
@@ -106,7 +112,7 @@ public class TypeLiteral<T> {
    * Gets type literal from super class's type parameter.
    */
   static TypeLiteral<?> fromSuperclassTypeParameter(Class<?> subclass) {
-    return new TypeLiteral<Object>(getSuperclassTypeParameter(subclass));
+    return get(getSuperclassTypeParameter(subclass));
   }
 
   /**
@@ -140,7 +146,8 @@ public class TypeLiteral<T> {
   }
 
   @Override public final boolean equals(Object o) {
-    return o instanceof TypeLiteral<?>
+    return o == this
+        || o instanceof TypeLiteral<?>
         && MoreTypes.equals(type, ((TypeLiteral) o).type);
   }
 
@@ -152,6 +159,9 @@ public class TypeLiteral<T> {
    * Gets type literal for the given {@code Type} instance.
    */
   public static TypeLiteral<?> get(Type type) {
+    if (type instanceof Class) {
+      return get((Class<?>) type);
+    }
     return new TypeLiteral<Object>(type);
   }
 
@@ -159,7 +169,13 @@ public class TypeLiteral<T> {
    * Gets type literal for the given {@code Class} instance.
    */
   public static <T> TypeLiteral<T> get(Class<T> type) {
-    return new TypeLiteral<T>(type);
+    @SuppressWarnings("unchecked") // we only map classes to their own type literals
+    TypeLiteral<T> result = (TypeLiteral<T>) classTypeLiterals.get(type);
+    if (result == null) {
+      result = new TypeLiteral<T>(type);
+      classTypeLiterals.put(type, result);
+    }
+    return result;
   }
 
 
@@ -101,8 +101,8 @@ final class BindingProcessor extends AbstractBindingProcessor {
         Initializable<Provider<? extends T>> initializable = initializer
             .<Provider<? extends T>>requestInjection(injector, provider, source, injectionPoints);
         InternalFactory<T> factory = new InternalFactoryToProviderAdapter<T>(initializable, source);
-        InternalFactory<? extends T> scopedFactory
-            = Scoping.scope(key, injector, factory, source, scoping);
+        InternalFactory<? extends T> scopedFactory = Scoping.scope(key, injector,
+            ProvisionListenerFactory.wrap(injector, key, factory), source, scoping);
         putBinding(new ProviderInstanceBindingImpl<T>(injector, key, source, scopedFactory, scoping,
             provider, injectionPoints));
         return true;
@@ -114,8 +114,8 @@ final class BindingProcessor extends AbstractBindingProcessor {
         BoundProviderFactory<T> boundProviderFactory
             = new BoundProviderFactory<T>(injector, providerKey, source);
         bindingData.addCreationListener(boundProviderFactory);
-        InternalFactory<? extends T> scopedFactory = Scoping.scope(
-            key, injector, (InternalFactory<? extends T>) boundProviderFactory, source, scoping);
+        InternalFactory<? extends T> scopedFactory = Scoping.scope(key, injector,
+            ProvisionListenerFactory.wrap(injector, key, boundProviderFactory), source, scoping);
         putBinding(new LinkedProviderBindingImpl<T>(
             injector, key, source, scopedFactory, scoping, providerKey));
         return true;
@@ -0,0 +1,382 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.internal.util.Lists;
+import com.google.inject.internal.util.Sets;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Member;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import net.sf.cglib.core.AbstractClassGenerator;
+import net.sf.cglib.core.ClassGenerator;
+import net.sf.cglib.core.ClassNameReader;
+import net.sf.cglib.core.DefaultGeneratorStrategy;
+
+/**
+ * Saves the classes that cglib generates in a directory, so that later processes can define them
+ * without generating them again. This helps short-lived processes, which otherwise spend much of
+ * their startup generating the same classes as every process before them.
+ *
+ * <p>The cache is off unless the {@code guice.bytecode.cache} system property names a directory.
+ * Each class is saved under a hash of what it's generated from: the bytecode of the class it's
+ * for and of that class's supertypes, a description of how it was generated, such as which
+ * methods it intercepts, and the bytecode of the generators themselves. Changing any of these,
+ * including upgrading cglib or Guice, makes a new entry. Entries that can't be read,
+ * are corrupt, or name a class that its classloader has already defined are generated again.
+ */
+final class BytecodeCache {
+
+  private static final Logger logger = Logger.getLogger(BytecodeCache.class.getName());
+
+  /** Use "-Dguice.bytecode.cache=/path/to/dir" to cache generated classes in a directory. */
+  static final String BYTECODE_CACHE_PROPERTY = "guice.bytecode.cache";
+
+  /** Identifies the format of cache entries; change it when that format changes. */
+  private static final String FORMAT = "guice-bytecode-1";
+
+  /**
+   * The classes that generate the cached classes. Their class files, and those of their nested
+   * classes, are part of every entry's hash.
+   */
+  private static final Class<?>[] GENERATORS = {
+      net.sf.cglib.core.AbstractClassGenerator.class,
+      net.sf.cglib.core.ClassEmitter.class,
+      net.sf.cglib.proxy.Enhancer.class,
+      net.sf.cglib.reflect.FastClass.class,
+      org.objectweb.asm.ClassWriter.class,
+      BytecodeGen.class,
+      ProxyFactory.class };
+
+  private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+
+  static final BytecodeCache INSTANCE = forDirectory(System.getProperty(BYTECODE_CACHE_PROPERTY));
+
+  /** The cache directory, or null if the cache is disabled. */
+  private final File directory;
+
+  private final Class<?>[] generators;
+
+  /** A hash of the generators' class files, or null if it hasn't been computed yet. */
+  private volatile byte[] generatorsHash;
+
+  private final AtomicInteger hits = new AtomicInteger();
+
+  BytecodeCache(File directory) {
+    this(directory, GENERATORS);
+  }
+
+  BytecodeCache(File directory, Class<?>... generators) {
+    this.directory = directory;
+    this.generators = generators.clone();
+  }
+
+  private static BytecodeCache forDirectory(String directory) {
+    return new BytecodeCache(directory != null && directory.length() > 0
+        ? new File(directory)
+        : null);
+  }
+
+  /**
+   * Makes {@code generator} use this cache for the class it generates for {@code type}. {@code
+   * layout} must describe everything besides the type that the generated code depends on.
+   */
+  void apply(AbstractClassGenerator generator, Class<?> type, String layout) {
+    if (directory != null) {
+      generator.setStrategy(new CachingStrategy(generator, type, layout));
+    }
+  }
+
+  /** Returns the number of classes that have been read from this cache. */
+  int getHitCount() {
+    return hits.get();
+  }
+
+  private class CachingStrategy extends DefaultGeneratorStrategy {
+    final AbstractClassGenerator generator;
+    final Class<?> type;
+    final String layout;
+
+    CachingStrategy(AbstractClassGenerator generator, Class<?> type, String layout) {
+      this.generator = generator;
+      this.type = type;
+      this.layout = layout;
+    }
+
+    @Override public byte[] generate(ClassGenerator generator) throws Exception {
+      // cglib passes an enhancer's strategy on to the generators of its method proxies' fast
+      // classes. We don't know what those depend on, so they aren't cached.
+      if (generator != this.generator) {
+        return super.generate(generator);
+      }
+
+      String hash;
+      try {
+        hash = hash(type, layout);
+      } catch (IOException e) {
+        logger.log(Level.FINE, "Not caching the class generated for " + type, e);
+        return super.generate(generator);
+      }
+
+      ClassLoader classLoader = ((AbstractClassGenerator) generator).getClassLoader();
+      File file = new File(directory, hash + ".class");
+      byte[] bytecode = read(file, classLoader);
+      if (bytecode != null) {
+        hits.incrementAndGet();
+        return bytecode;
+      }
+
+      bytecode = super.generate(generator);
+      write(file, bytecode);
+      return bytecode;
+    }
+  }
+
+  /**
+   * Returns the cached bytecode in {@code file}, or null if there's none that {@code classLoader}
+   * can define.
+   */
+  private static byte[] read(File file, ClassLoader classLoader) {
+    if (!file.isFile()) {
+      return null;
+    }
+
+    String className;
+    byte[] bytecode;
+    try {
+      DataInputStream in = new DataInputStream(new FileInputStream(file));
+      try {
+        className = in.readUTF();
+        int length = in.readInt();
+        if (length <= 0 || length > file.length()) {
+          throw new IOException("Bad length " + length);
+        }
+        bytecode = new byte[length];
+        in.readFully(bytecode);
+        if (in.readLong() != checksum(bytecode) || in.read() != -1) {
+          throw new IOException("Bad checksum");
+        }
+      } finally {
+        in.close();
+      }
+    } catch (IOException e) {
+      logger.log(Level.FINE, "Ignoring unreadable cached class " + file, e);
+      return null;
+    }
+
+    if (bytecode.length < 4 || readInt(bytecode) != CLASS_FILE_MAGIC) {
+      logger.fine("Ignoring cached class " + file + " that isn't a class file");
+      return null;
+    }
+
+    // If this class was generated before, cglib chooses a new name this time
+    if (isDefined(className, classLoader)) {
+      return null;
+    }
+
+    return bytecode;
+  }
+
+  private static void write(File file, byte[] bytecode) {
+    try {
+      String className = ClassNameReader.getClassName(
+          new org.objectweb.asm.ClassReader(bytecode));
+      File directory = file.getParentFile();
+      directory.mkdirs();
+      // write a temporary file and rename it, so that readers only see complete files
+      File temporary = File.createTempFile("guice", ".tmp", directory);
+      try {
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(temporary));
+        try {
+          out.writeUTF(className);
+          out.writeInt(bytecode.length);
+          out.write(bytecode);
+          out.writeLong(checksum(bytecode));
+        } finally {
+          out.close();
+        }
+        file.delete();
+        if (!temporary.renameTo(file)) {
+          throw new IOException("Couldn't rename " + temporary + " to " + file);
+        }
+      } finally {
+        temporary.delete();
+      }
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Couldn't cache generated class in " + file, e);
+    }
+  }
+
+  private static boolean isDefined(String className, ClassLoader classLoader) {
+    try {
+      Class.forName(className, false, classLoader);
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    } catch (LinkageError e) {
+      return true;
+    }
+  }
+
+  private static long checksum(byte[] bytes) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes);
+    return crc.getValue();
+  }
+
+  private static int readInt(byte[] bytes) {
+    return (bytes[0] & 0xff) << 24 | (bytes[1] & 0xff) << 16
+        | (bytes[2] & 0xff) << 8 | (bytes[3] & 0xff);
+  }
+
+  /**
+   * Returns a hex hash of the bytecode of {@code type} and its supertypes, {@code layout}, and the
+   * bytecode of the generators.
+   */
+  String hash(Class<?> type, String layout) throws IOException {
+    MessageDigest digest = newDigest();
+    digest.update(utf8(FORMAT));
+    digest.update(getGeneratorsHash());
+    digest.update(utf8(layout));
+
+    Set<Class<?>> seen = Sets.newHashSet();
+    LinkedList<Class<?>> queue = new LinkedList<Class<?>>();
+    queue.add(type);
+    while (!queue.isEmpty()) {
+      Class<?> c = queue.removeFirst();
+      if (c == null || !seen.add(c)) {
+        continue;
+      }
+      digest.update(utf8(c.getName()));
+      if (!c.getName().startsWith("java.")) {
+        byte[] bytecode = classFile(c);
+        digest.update(bytecode != null ? bytecode : utf8(describeMembers(c)));
+      }
+      queue.add(c.getSuperclass());
+      for (Class<?> i : c.getInterfaces()) {
+        queue.add(i);
+      }
+    }
+
+    StringBuilder result = new StringBuilder();
+    for (byte b : digest.digest()) {
+      result.append(Character.forDigit((b >> 4) & 0xf, 16))
+          .append(Character.forDigit(b & 0xf, 16));
+    }
+    return result.toString();
+  }
+
+  /**
+   * Returns a hash of the class files of the generators and their nested classes. Generators whose
+   * class files can't be read can't be told apart from other versions of themselves, so nothing
+   * is cached for them.
+   */
+  private byte[] getGeneratorsHash() throws IOException {
+    byte[] result = generatorsHash;
+    if (result == null) {
+      MessageDigest digest = newDigest();
+      LinkedList<Class<?>> queue = new LinkedList<Class<?>>(Arrays.asList(generators));
+      while (!queue.isEmpty()) {
+        Class<?> generator = queue.removeFirst();
+        byte[] bytecode = classFile(generator);
+        if (bytecode == null) {
+          throw new IOException("Couldn't read the class file of " + generator);
+        }
+        digest.update(utf8(generator.getName()));
+        digest.update(bytecode);
+        queue.addAll(Arrays.asList(generator.getDeclaredClasses()));
+      }
+      generatorsHash = result = digest.digest();
+    }
+    return result;
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Describes the members of a class that was generated at runtime. Generated classes of the same
+   * name may differ between classloaders and processes, but what's generated for them only depends
+   * on their members.
+   */
+  private static String describeMembers(Class<?> type) {
+    List<String> members = Lists.newArrayList();
+    for (Member member : type.getDeclaredConstructors()) {
+      members.add(member.toString());
+    }
+    for (Member member : type.getDeclaredMethods()) {
+      members.add(member.toString());
+    }
+    for (Member member : type.getDeclaredFields()) {
+      members.add(member.toString());
+    }
+    Collections.sort(members);
+    return members.toString();
+  }
+
+  /** Returns the class file of {@code type}, or null if it was generated at runtime. */
+  private static byte[] classFile(Class<?> type) throws IOException {
+    String resource = type.getName().replace('.', '/') + ".class";
+    ClassLoader classLoader = type.getClassLoader();
+    InputStream in = classLoader != null
+        ? classLoader.getResourceAsStream(resource)
+        : ClassLoader.getSystemResourceAsStream(resource);
+    if (in == null) {
+      return null;
+    }
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      for (int n; (n = in.read(buffer)) != -1; ) {
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+
+  private static byte[] utf8(String s) {
+    try {
+      return s.getBytes("UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new AssertionError(e);
+    }
+  }
+}
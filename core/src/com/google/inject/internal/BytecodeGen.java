@@ -18,22 +18,27 @@ package com.google.inject.internal;
 
 import com.google.inject.internal.util.Function;
 import com.google.inject.internal.util.ImmutableMap;
+import com.google.inject.internal.util.Lists;
 import com.google.inject.internal.util.MapMaker;
 import com.google.inject.internal.util.Nullable;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
 /**
  * Utility methods for runtime code generation and class loading. We use this stuff for {@link
- * net.sf.cglib.reflect.FastClass faster reflection}, {@link net.sf.cglib.proxy.Enhancer method
- * interceptors} and to proxy circular dependencies.
+ * net.sf.cglib.reflect.FastClass faster reflection}, {@link #newFieldSetter setting fields}, {@link
+ * net.sf.cglib.proxy.Enhancer method interceptors} and to proxy circular dependencies.
  *
  * <p>When loading classes, we need to be careful of:
  * <ul>
@@ -113,6 +118,20 @@ public final class BytecodeGen {
       return super.getClassName(prefix, "Enhancer", key, names);
     }
   };
+
+  static final net.sf.cglib.core.NamingPolicy FAST_FIELDS_NAMING_POLICY
+      = new net.sf.cglib.core.DefaultNamingPolicy() {
+    @Override
+    protected String getTag() {
+      return "ByGuice";
+    }
+
+    @Override
+    public String getClassName(String prefix, String source, Object key,
+        net.sf.cglib.core.Predicate names) {
+      return super.getClassName(prefix, "FastFields", key, names);
+    }
+  };
   /*end[AOP]*/
   /*if[NO_AOP]
   private static final String CGLIB_PACKAGE = " "; // any string that's illegal in a package name
@@ -203,6 +222,7 @@ public final class BytecodeGen {
       generator.setClassLoader(getClassLoader(type));
     }
     generator.setNamingPolicy(FASTCLASS_NAMING_POLICY);
+    BytecodeCache.INSTANCE.apply(generator, type, "FastClass " + visibility);
     logger.fine("Loading " + type + " FastClass with " + generator.getClassLoader());
     return generator.create();
   }
@@ -218,8 +238,157 @@ public final class BytecodeGen {
     logger.fine("Loading " + type + " Enhancer with " + enhancer.getClassLoader());
     return enhancer;
   }
+
+  /**
+   * Returns a setter that assigns {@code field} directly rather than through reflection, or null if
+   * the field can't be set that way. Like {@link net.sf.cglib.reflect.FastClass}, there's one
+   * generated class per type, shared by all of that type's fields.
+   */
+  public static FieldSetter newFieldSetter(Field field) {
+    Class<?> type = field.getDeclaringClass();
+    if (type.getName().startsWith("java.")) {
+      return null; // we can't define classes in java.* packages
+    }
+
+    List<Field> fields = getFastSettableFields(type);
+    int index = fields.indexOf(field);
+    if (index == -1) {
+      return null;
+    }
+
+    FastFieldsGenerator generator = new FastFieldsGenerator(type, fields);
+    Visibility visibility = Visibility.forType(type);
+    for (Field f : fields) {
+      // protected fields aren't visible from the bridge class loader's package
+      visibility = visibility.and(Modifier.isPublic(f.getModifiers())
+          ? Visibility.forType(f.getType())
+          : Visibility.SAME_PACKAGE);
+    }
+    if (visibility == Visibility.PUBLIC) {
+      generator.setClassLoader(getClassLoader(type));
+    }
+    BytecodeCache.INSTANCE.apply(generator, type, "FastFields " + visibility);
+    logger.fine("Loading " + type + " FastFields with " + generator.getClassLoader());
+    return new FieldSetter(generator.create(), index);
+  }
+
+  /** Returns the fields that generated code can set, ordered by name. */
+  private static List<Field> getFastSettableFields(Class<?> type) {
+    List<Field> fields = Lists.newArrayList();
+    for (Field field : type.getDeclaredFields()) {
+      int modifiers = field.getModifiers();
+      // final fields can only be assigned by their own class
+      if ((modifiers & (Modifier.PRIVATE | Modifier.FINAL | Modifier.STATIC)) == 0
+          && !field.isSynthetic()) {
+        fields.add(field);
+      }
+    }
+    Collections.sort(fields, new Comparator<Field>() {
+      public int compare(Field a, Field b) {
+        return a.getName().compareTo(b.getName());
+      }
+    });
+    return fields;
+  }
+
+  /** Generates a {@link FastFields} implementation that sets the given fields of a type. */
+  private static class FastFieldsGenerator extends net.sf.cglib.core.AbstractClassGenerator {
+    private static final Source SOURCE = new Source(FastFields.class.getName());
+    private static final net.sf.cglib.core.Signature SET
+        = net.sf.cglib.core.TypeUtils.parseSignature("void set(int, Object, Object)");
+
+    private final Class<?> type;
+    private final List<Field> fields;
+
+    FastFieldsGenerator(Class<?> type, List<Field> fields) {
+      super(SOURCE);
+      this.type = type;
+      this.fields = fields;
+      setNamePrefix(type.getName());
+      setNamingPolicy(FAST_FIELDS_NAMING_POLICY);
+    }
+
+    FastFields create() {
+      return (FastFields) super.create(type.getName());
+    }
+
+    @Override protected ClassLoader getDefaultClassLoader() {
+      return type.getClassLoader();
+    }
+
+    @SuppressWarnings("rawtypes") // cglib declares the parameter as a raw Class
+    @Override protected Object firstInstance(Class generated) {
+      return net.sf.cglib.core.ReflectUtils.newInstance(generated);
+    }
+
+    @Override protected Object nextInstance(Object instance) {
+      return instance;
+    }
+
+    public void generateClass(org.objectweb.asm.ClassVisitor visitor) {
+      net.sf.cglib.core.ClassEmitter ce = new net.sf.cglib.core.ClassEmitter(visitor);
+      ce.begin_class(net.sf.cglib.core.Constants.V1_2, net.sf.cglib.core.Constants.ACC_PUBLIC,
+          getClassName(), net.sf.cglib.core.Constants.TYPE_OBJECT,
+          new org.objectweb.asm.Type[] { org.objectweb.asm.Type.getType(FastFields.class) },
+          net.sf.cglib.core.Constants.SOURCE_FILE);
+      net.sf.cglib.core.EmitUtils.null_constructor(ce);
+
+      // switch (index) { case 0: ((Type) target).field0 = (Field0Type) value; return; ... }
+      final net.sf.cglib.core.CodeEmitter e
+          = ce.begin_method(net.sf.cglib.core.Constants.ACC_PUBLIC, SET, null);
+      final org.objectweb.asm.Type owner = org.objectweb.asm.Type.getType(type);
+      int[] indices = new int[fields.size()];
+      for (int i = 0; i < indices.length; i++) {
+        indices[i] = i;
+      }
+      e.load_arg(0);
+      e.process_switch(indices, new net.sf.cglib.core.ProcessSwitchCallback() {
+        public void processCase(int index, org.objectweb.asm.Label end) {
+          Field field = fields.get(index);
+          org.objectweb.asm.Type fieldType = org.objectweb.asm.Type.getType(field.getType());
+          e.load_arg(1);
+          e.checkcast(owner);
+          e.load_arg(2);
+          e.unbox(fieldType);
+          e.putfield(owner, field.getName(), fieldType);
+          e.return_value();
+        }
+
+        public void processDefault() {
+          e.throw_exception(org.objectweb.asm.Type.getType(IllegalArgumentException.class),
+              "Cannot find matching field");
+        }
+      });
+      e.end_method();
+      ce.end_class();
+    }
+  }
   /*end[AOP]*/
 
+  /**
+   * Sets the fields of one type. Implementations are generated; this is public so that they can be
+   * loaded by the bridge class loader.
+   */
+  public interface FastFields {
+    /** Assigns {@code value} to the field with the given index on {@code target}. */
+    void set(int index, Object target, Object value);
+  }
+
+  /** Sets a single field using its type's generated {@link FastFields}. */
+  public static final class FieldSetter {
+    private final FastFields fastFields;
+    private final int index;
+
+    FieldSetter(FastFields fastFields, int index) {
+      this.fastFields = fastFields;
+      this.index = index;
+    }
+
+    public void set(Object target, Object value) {
+      fastFields.set(index, target, value);
+    }
+  }
+
   /**
    * The required visibility of a user's class from a Guice-generated class. Visibility of
    * package-private members depends on the loading classloader: only if two classes were loaded by
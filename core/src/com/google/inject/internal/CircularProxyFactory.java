@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+/**
+ * Creates the proxies that stand in for objects under construction when there's a circular
+ * dependency. There's one proxy class per interface and classloader. When metadata is shared
+ * between injectors (see {@link MetadataCache}), so is each interface's factory, which saves
+ * looking up its proxy class for every proxy.
+ *
+ * <p>Proxies are {@link Proxy reflective proxies}, which call their object through reflection
+ * for as long as they're in use. Set the {@code guice.generate.circular.proxies} system property
+ * to {@code true} to generate proxy classes that call their object directly instead. Builds without
+ * AOP support always use reflective proxies.
+ */
+abstract class CircularProxyFactory {
+
+  /** Use "-Dguice.generate.circular.proxies=true" to generate circular proxy classes. */
+  private static final boolean GENERATE
+      = Boolean.parseBoolean(System.getProperty("guice.generate.circular.proxies"));
+
+  /** Returns a proxy that implements {@code type} and delegates to {@code handler}'s object. */
+  static Object newProxy(Class<?> type, DelegatingInvocationHandler<?> handler) {
+    return MetadataCache.INSTANCE.getCircularProxyFactory(type, GENERATE).newProxy(handler);
+  }
+
+  /** Returns a new factory for proxies of {@code type}, which generates their class if asked. */
+  static CircularProxyFactory newFactory(Class<?> type, boolean generate) {
+    /*if[AOP]*/
+    if (generate) {
+      return new GeneratedProxyFactory(type);
+    }
+    /*end[AOP]*/
+    return new ReflectiveProxyFactory(type);
+  }
+
+  abstract Object newProxy(DelegatingInvocationHandler<?> handler);
+
+  /** Returns a new instance with {@code constructor}, which mustn't throw. */
+  static Object newInstance(Constructor<?> constructor, Object... arguments) {
+    try {
+      return constructor.newInstance(arguments);
+    } catch (InstantiationException e) {
+      throw new RuntimeException(e);
+    } catch (IllegalAccessException e) {
+      throw new RuntimeException(e);
+    } catch (InvocationTargetException e) {
+      throw new RuntimeException(e.getTargetException());
+    }
+  }
+
+  private static class ReflectiveProxyFactory extends CircularProxyFactory {
+    final Constructor<?> constructor;
+
+    ReflectiveProxyFactory(Class<?> type) {
+      ClassLoader classLoader = BytecodeGen.getClassLoader(type);
+      try {
+        constructor = Proxy.getProxyClass(classLoader, type, CircularDependencyProxy.class)
+            .getConstructor(InvocationHandler.class);
+      } catch (NoSuchMethodException e) {
+        throw new AssertionError(e);
+      }
+      // proxies of non-public interfaces are non-public too
+      constructor.setAccessible(true);
+    }
+
+    Object newProxy(DelegatingInvocationHandler<?> handler) {
+      return newInstance(constructor, handler);
+    }
+  }
+
+  /*if[AOP]*/
+  /**
+   * Creates instances of a generated class that looks up its object once per call, and then calls
+   * it directly.
+   */
+  private static class GeneratedProxyFactory extends CircularProxyFactory {
+    final Class<?> proxyClass;
+    final Constructor<?> constructor;
+
+    GeneratedProxyFactory(Class<?> type) {
+      net.sf.cglib.proxy.Enhancer enhancer
+          = BytecodeGen.newEnhancer(type, BytecodeGen.Visibility.forType(type));
+      enhancer.setInterfaces(new Class<?>[] { type, CircularDependencyProxy.class });
+      enhancer.setCallbackType(net.sf.cglib.proxy.Dispatcher.class);
+      proxyClass = enhancer.createClass();
+      try {
+        constructor = proxyClass.getConstructor();
+      } catch (NoSuchMethodException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    Object newProxy(final DelegatingInvocationHandler<?> handler) {
+      net.sf.cglib.proxy.Dispatcher dispatcher = new net.sf.cglib.proxy.Dispatcher() {
+        public Object loadObject() {
+          return handler.getConstructedDelegate();
+        }
+      };
+      net.sf.cglib.proxy.Enhancer.registerCallbacks(proxyClass,
+          new net.sf.cglib.proxy.Callback[] { dispatcher });
+      try {
+        return newInstance(constructor);
+      } finally {
+        net.sf.cglib.proxy.Enhancer.registerCallbacks(proxyClass, null);
+      }
+    }
+  }
+  /*end[AOP]*/
+}
@@ -0,0 +1,295 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.ProvisionException;
+import com.google.inject.Scopes;
+import com.google.inject.internal.InjectorImpl.JitLimitation;
+import com.google.inject.internal.util.ImmutableList;
+import com.google.inject.internal.util.Lists;
+import com.google.inject.internal.util.Sets;
+import com.google.inject.internal.util.ToStringBuilder;
+import com.google.inject.spi.ConvertedConstantBinding;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.InstanceBinding;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds an object graph without walking the injector's chain of internal factories. When a key is
+ * compiled its dependencies are resolved up front: instances and singletons become constants, and
+ * unscoped constructor bindings become nodes that call their constructor and set their fields
+ * directly. Linked bindings, scoping wrappers and per-dependency context bookkeeping are skipped.
+ *
+ * <p>Only graphs that can be built this way are compiled. Other scopes, provider bindings, method
+ * injection, user members injectors, injection and provision listeners, and circular dependencies
+ * all need the regular provider, which is returned instead when any of them is reachable from the
+ * key.
+ *
+ * <p>Errors are reported with the same messages and sources as the regular provider's.
+ */
+final class CompiledProvider<T> implements Provider<T> {
+
+  /** Each path through the graph gets its own nodes, so wide, deep graphs aren't compiled. */
+  private static final int MAX_NODES = 1000;
+
+  private static final Object[] NO_ARGUMENTS = {};
+
+  private final InjectorImpl injector;
+  private final Dependency<T> dependency;
+  private final Node root;
+
+  private CompiledProvider(InjectorImpl injector, Dependency<T> dependency, Node root) {
+    this.injector = injector;
+    this.dependency = dependency;
+    this.root = root;
+  }
+
+  /**
+   * Returns a compiled provider for {@code key}, or the injector's regular provider if the key's
+   * graph can't be compiled.
+   */
+  static <T> Provider<T> compile(InjectorImpl injector, Key<T> key) {
+    Provider<T> provider = injector.getProvider(key);
+    Dependency<T> dependency = Dependency.get(key);
+    Node root = new Compiler(injector).compile(dependency, ImmutableList.of());
+    return root != null ? new CompiledProvider<T>(injector, dependency, root) : provider;
+  }
+
+  public T get() {
+    // enter the context so that constructors calling back into the injector get their own errors
+    InternalContext context = injector.enterContext();
+    Errors errors = context.getErrorsForProvision();
+    try {
+      @SuppressWarnings("unchecked") // the root node provides instances of the compiled key
+      T t = (T) root.get(errors);
+      errors.throwIfNewErrors(0);
+      return t;
+    } catch (ErrorsException e) {
+      throw new ProvisionException(
+          new Errors(dependency).merge(errors.merge(e.getErrors())).getMessages());
+    } finally {
+      context.exit();
+    }
+  }
+
+  @Override public String toString() {
+    return new ToStringBuilder(CompiledProvider.class)
+        .add("key", dependency.getKey())
+        .toString();
+  }
+
+  /** Resolves the graph for a key into nodes. */
+  private static class Compiler {
+    private final InjectorImpl injector;
+    private final Set<Key<?>> keysBeingCompiled = Sets.newHashSet();
+    private int nodeCount;
+
+    Compiler(InjectorImpl injector) {
+      this.injector = injector;
+    }
+
+    /**
+     * Returns a node that provides {@code dependency}, or null if it can't be compiled. The
+     * sources are those the regular provider would have added to its errors by this point.
+     */
+    Node compile(Dependency<?> dependency, List<Object> sources) {
+      if (++nodeCount > MAX_NODES) {
+        return null;
+      }
+
+      Key<?> key = dependency.getKey();
+      boolean linked = false;
+      while (true) {
+        BindingImpl<?> binding;
+        try {
+          binding = injector.getBindingOrThrow(key, new Errors(), JitLimitation.NO_JIT);
+        } catch (ErrorsException e) {
+          return null;
+        }
+
+        if (binding.getScoping().getScopeInstance() == Scopes.SINGLETON
+            || binding instanceof InstanceBinding
+            || binding instanceof ConvertedConstantBinding) {
+          Object value;
+          try {
+            value = injector.getInstance(key);
+          } catch (ProvisionException e) {
+            return null; // let the regular provider report the failure when it's used
+          }
+          return value != null || dependency.isNullable() ? new ConstantNode(value) : null;
+        }
+
+        if (!binding.getScoping().isNoScope()) {
+          return null;
+        }
+
+        if (binding instanceof LinkedBindingImpl) {
+          // follow the link, as FactoryProxy does
+          key = ((LinkedBindingImpl<?>) binding).getLinkedKey();
+          sources = append(sources, key);
+          linked = true;
+          continue;
+        }
+
+        if (binding instanceof ConstructorBindingImpl) {
+          return compileConstructor((ConstructorBindingImpl<?>) binding, linked, sources);
+        }
+
+        return null;
+      }
+    }
+
+    private Node compileConstructor(
+        ConstructorBindingImpl<?> binding, boolean linked, List<Object> sources) {
+      ConstructorInjector<?> constructorInjector = binding.getConstructorInjector();
+      if (constructorInjector == null || (binding.isFailIfNotLinked() && !linked)
+          || binding.getInternalFactory() instanceof ProvisionListenerFactory) {
+        return null;
+      }
+
+      MembersInjectorImpl<?> membersInjector = constructorInjector.getMembersInjector();
+      if (!membersInjector.getUserMembersInjectors().isEmpty()
+          || !membersInjector.getInjectionListeners().isEmpty()) {
+        return null;
+      }
+
+      Key<?> key = binding.getKey();
+      if (!keysBeingCompiled.add(key)) {
+        return null; // circular dependencies need proxies from the construction context
+      }
+      try {
+        ConstructionProxy<?> constructionProxy = constructorInjector.getConstructionProxy();
+        List<Dependency<?>> parameterDependencies
+            = constructionProxy.getInjectionPoint().getDependencies();
+        Node[] parameters = new Node[parameterDependencies.size()];
+        for (int i = 0; i < parameters.length; i++) {
+          Dependency<?> parameterDependency = parameterDependencies.get(i);
+          parameters[i] = compile(parameterDependency, append(sources, parameterDependency));
+          if (parameters[i] == null) {
+            return null;
+          }
+        }
+
+        ImmutableList<SingleMemberInjector> members = membersInjector.getMemberInjectors();
+        SingleFieldInjector[] fields = new SingleFieldInjector[members.size()];
+        Node[] fieldValues = new Node[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+          if (!(members.get(i) instanceof SingleFieldInjector)) {
+            return null;
+          }
+          fields[i] = (SingleFieldInjector) members.get(i);
+          fieldValues[i] = compile(fields[i].dependency, append(sources, fields[i].dependency));
+          if (fieldValues[i] == null) {
+            return null;
+          }
+        }
+
+        return new ConstructorNode(constructionProxy, parameters, fields, fieldValues,
+            sources.toArray());
+      } finally {
+        keysBeingCompiled.remove(key);
+      }
+    }
+
+    private static List<Object> append(List<Object> sources, Object source) {
+      List<Object> result = Lists.newArrayList(sources);
+      result.add(source);
+      return result;
+    }
+  }
+
+  private abstract static class Node {
+    abstract Object get(Errors errors) throws ErrorsException;
+  }
+
+  private static class ConstantNode extends Node {
+    private final Object value;
+
+    ConstantNode(Object value) {
+      this.value = value;
+    }
+
+    Object get(Errors errors) {
+      return value;
+    }
+  }
+
+  /** Mirrors {@link ConstructorInjector#construct} for a type without circular dependencies. */
+  private static class ConstructorNode extends Node {
+    private final ConstructionProxy<?> constructionProxy;
+    private final Node[] parameters;
+    private final SingleFieldInjector[] fields;
+    private final Node[] fieldValues;
+    private final Object[] sources;
+
+    ConstructorNode(ConstructionProxy<?> constructionProxy, Node[] parameters,
+        SingleFieldInjector[] fields, Node[] fieldValues, Object[] sources) {
+      this.constructionProxy = constructionProxy;
+      this.parameters = parameters;
+      this.fields = fields;
+      this.fieldValues = fieldValues;
+      this.sources = sources;
+    }
+
+    Object get(Errors errors) throws ErrorsException {
+      Object[] arguments = parameters.length == 0 ? NO_ARGUMENTS : new Object[parameters.length];
+      int numErrorsBefore = errors.size();
+      for (int i = 0; i < parameters.length; i++) {
+        try {
+          arguments[i] = parameters[i].get(errors);
+        } catch (ErrorsException e) {
+          errors.merge(e.getErrors());
+        }
+      }
+      errors.throwIfNewErrors(numErrorsBefore);
+
+      Object t;
+      try {
+        t = constructionProxy.newInstance(arguments);
+      } catch (InvocationTargetException userException) {
+        Throwable cause = userException.getCause() != null
+            ? userException.getCause()
+            : userException;
+        throw withSources(errors).withSource(constructionProxy.getInjectionPoint())
+            .errorInjectingConstructor(cause).toException();
+      }
+
+      for (int i = 0; i < fields.length; i++) {
+        try {
+          fields[i].set(t, fieldValues[i].get(errors));
+        } catch (ErrorsException e) {
+          errors.merge(e.getErrors());
+        } catch (IllegalAccessException e) {
+          throw new AssertionError(e); // a security manager is blocking us, we're hosed
+        }
+      }
+      return t;
+    }
+
+    /** Returns errors with the sources the regular provider would have added by now. */
+    private Errors withSources(Errors errors) {
+      for (Object source : sources) {
+        errors = errors.withSource(source);
+      }
+      return errors;
+    }
+  }
+}
@@ -16,9 +16,8 @@
 
 package com.google.inject.internal;
 
-import java.lang.reflect.Proxy;
-import java.util.ArrayList;
-import java.util.List;
+import com.google.inject.internal.util.Maps;
+import java.util.Map;
 
 /**
  * Context of a dependency construction. Used to manage circular references.
@@ -30,7 +29,11 @@ final class ConstructionContext<T> {
   T currentReference;
   boolean constructing;
 
-  List<DelegatingInvocationHandler<T>> invocationHandlers;
+  /** Delegates the proxies of this construction to the constructed object. */
+  DelegatingInvocationHandler<T> invocationHandler;
+
+  /** The proxies of this construction, which are shared by callers expecting the same type. */
+  Map<Class<?>, Object> proxies;
 
   public T getCurrentReference() {
     return currentReference;
@@ -54,35 +57,31 @@ final class ConstructionContext<T> {
 
   public void finishConstruction() {
     this.constructing = false;
-    invocationHandlers = null;
+    invocationHandler = null;
+    proxies = null;
   }
 
   public Object createProxy(Errors errors, Class<?> expectedType) throws ErrorsException {
-    // TODO: if I create a proxy which implements all the interfaces of
-    // the implementation type, I'll be able to get away with one proxy
-    // instance (as opposed to one per caller).
-
     if (!expectedType.isInterface()) {
       throw errors.cannotSatisfyCircularDependency(expectedType).toException();
     }
 
-    if (invocationHandlers == null) {
-      invocationHandlers = new ArrayList<DelegatingInvocationHandler<T>>();
+    if (proxies == null) {
+      invocationHandler = new DelegatingInvocationHandler<T>();
+      proxies = Maps.newHashMap();
     }
 
-    DelegatingInvocationHandler<T> invocationHandler = new DelegatingInvocationHandler<T>();
-    invocationHandlers.add(invocationHandler);
-
-    ClassLoader classLoader = BytecodeGen.getClassLoader(expectedType);
-    return expectedType.cast(Proxy.newProxyInstance(classLoader,
-        new Class[] { expectedType, CircularDependencyProxy.class }, invocationHandler));
+    Object proxy = proxies.get(expectedType);
+    if (proxy == null) {
+      proxy = CircularProxyFactory.newProxy(expectedType, invocationHandler);
+      proxies.put(expectedType, proxy);
+    }
+    return expectedType.cast(proxy);
   }
 
   public void setProxyDelegates(T delegate) {
-    if (invocationHandlers != null) {
-      for (DelegatingInvocationHandler<T> handler : invocationHandlers) {
-        handler.setDelegate(delegate);
-      }
+    if (invocationHandler != null) {
+      invocationHandler.setDelegate(delegate);
     }
   }
 }
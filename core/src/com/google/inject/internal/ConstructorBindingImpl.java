@@ -58,8 +58,9 @@ final class ConstructorBindingImpl<T> extends BindingImpl<T> implements Construc
     ConstructionProxy<T> constructionProxy
         = new DefaultConstructionProxyFactory<T>(constructorInjectionPoint).create();
     this.constructorInjectionPoint = constructorInjectionPoint;
+    // this binding is never injected, so its constructor doesn't need an id
     factory.constructorInjector = new ConstructorInjector<T>(
-        injectionPoints, constructionProxy, null, null);
+        -1, injectionPoints, constructionProxy, null, null);
   }
 
   /**
@@ -93,7 +94,7 @@ final class ConstructorBindingImpl<T> extends BindingImpl<T> implements Construc
     // Find a constructor annotated @Inject
     if (constructorInjector == null) {
       try {
-        constructorInjector = InjectionPoint.forConstructorOf(key.getTypeLiteral());
+        constructorInjector = MetadataCache.INSTANCE.forConstructorOf(key.getTypeLiteral());
       } catch (ConfigurationException e) {
         throw errors.merge(e.getErrorMessages()).toException();
       }
@@ -112,8 +113,8 @@ final class ConstructorBindingImpl<T> extends BindingImpl<T> implements Construc
     errors.throwIfNewErrors(numErrors);
 
     Factory<T> factoryFactory = new Factory<T>(failIfNotLinked, key);
-    InternalFactory<? extends T> scopedFactory
-        = Scoping.scope(key, injector, factoryFactory, source, scoping);
+    InternalFactory<? extends T> scopedFactory = Scoping.scope(key, injector,
+        ProvisionListenerFactory.wrap(injector, key, factoryFactory), source, scoping);
 
     return new ConstructorBindingImpl<T>(
         injector, key, source, scopedFactory, scoping, factoryFactory, constructorInjector);
@@ -131,6 +132,16 @@ final class ConstructorBindingImpl<T> extends BindingImpl<T> implements Construc
     return factory.constructorInjector != null;
   }
 
+  /** Returns the constructor used to create instances, or null if it isn't initialized yet. */
+  ConstructorInjector<T> getConstructorInjector() {
+    return factory.constructorInjector;
+  }
+
+  /** True if this binding may only be used as the target of a linked binding. */
+  boolean isFailIfNotLinked() {
+    return factory.failIfNotLinked;
+  }
+
   /** Returns an injection point that can be used to clean up the constructor store. */
   InjectionPoint getInternalConstructor() {
     if(factory.constructorInjector != null) {
@@ -148,7 +159,8 @@ final class ConstructorBindingImpl<T> extends BindingImpl<T> implements Construc
       // If the below throws, it's OK -- we just ignore those dependencies, because no one
       // could have used them anyway.
       try {
-        builder.addAll(InjectionPoint.forInstanceMethodsAndFields(constructorInjectionPoint.getDeclaringType()));
+        builder.addAll(MetadataCache.INSTANCE.forInstanceMethodsAndFields(
+            constructorInjectionPoint.getDeclaringType()));
       } catch(ConfigurationException ignored) {}
     } else {
       builder.add(getConstructor())
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.internal.util.Sets;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.BitSet;
+import java.util.Set;
+
+/**
+ * Hands out dense ids to the constructors of an injector and its children, which share contexts.
+ * See {@link InternalContext#getConstructionContext}. Once an injector is garbage collected, its
+ * ids are handed out again, so that each thread's contexts don't grow as child injectors come and
+ * go. An injector's constructors refer to it through their members injectors, so its ids aren't
+ * reused while any of its constructors can still run.
+ */
+final class ConstructorIds {
+
+  /** Shared by an injector and its children. */
+  private final Pool pool;
+
+  /** The ids of this injector, or null if it has none. Guarded by the pool. */
+  private Ids ids;
+
+  ConstructorIds() {
+    this.pool = new Pool();
+  }
+
+  private ConstructorIds(Pool pool) {
+    this.pool = pool;
+  }
+
+  /** Returns the ids of a child injector. */
+  ConstructorIds newChild() {
+    return new ConstructorIds(pool);
+  }
+
+  /** Returns the lowest id that isn't in use. */
+  int next() {
+    synchronized (pool) {
+      pool.releaseCollectedIds();
+      if (ids == null) {
+        ids = new Ids(this, pool.collected);
+        pool.live.add(ids);
+      }
+      int id = pool.used.nextClearBit(0);
+      pool.used.set(id);
+      ids.bits.set(id);
+      return id;
+    }
+  }
+
+  private static class Pool {
+    final BitSet used = new BitSet();
+    final ReferenceQueue<ConstructorIds> collected = new ReferenceQueue<ConstructorIds>();
+    /** Holds the ids of injectors until they're collected. */
+    final Set<Ids> live = Sets.newHashSet();
+
+    void releaseCollectedIds() {
+      for (Ids ids; (ids = (Ids) collected.poll()) != null; ) {
+        live.remove(ids);
+        used.andNot(ids.bits);
+      }
+    }
+  }
+
+  /** The ids of an injector, which are enqueued once it's collected. */
+  private static class Ids extends WeakReference<ConstructorIds> {
+    final BitSet bits = new BitSet();
+
+    Ids(ConstructorIds constructorIds, ReferenceQueue<ConstructorIds> queue) {
+      super(constructorIds, queue);
+    }
+  }
+}
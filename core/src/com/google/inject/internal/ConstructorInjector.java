@@ -29,15 +29,21 @@ import java.util.Set;
  */
 final class ConstructorInjector<T> {
 
+  private final int id;
   private final ImmutableSet<InjectionPoint> injectableMembers;
   private final SingleParameterInjector<?>[] parameterInjectors;
   private final ConstructionProxy<T> constructionProxy;
   private final MembersInjectorImpl<T> membersInjector;
 
-  ConstructorInjector(Set<InjectionPoint> injectableMembers,
+  /**
+   * @param id indexes this constructor's state in an {@link InternalContext}; unique among the
+   *     constructors of an injector and its parents and children.
+   */
+  ConstructorInjector(int id, Set<InjectionPoint> injectableMembers,
       ConstructionProxy<T> constructionProxy,
       SingleParameterInjector<?>[] parameterInjectors,
       MembersInjectorImpl<T> membersInjector) {
+    this.id = id;
     this.injectableMembers = ImmutableSet.copyOf(injectableMembers);
     this.constructionProxy = constructionProxy;
     this.parameterInjectors = parameterInjectors;
@@ -52,13 +58,17 @@ final class ConstructorInjector<T> {
     return constructionProxy;
   }
 
+  MembersInjectorImpl<T> getMembersInjector() {
+    return membersInjector;
+  }
+
   /**
    * Construct an instance. Returns {@code Object} instead of {@code T} because
    * it may return a proxy.
    */
   Object construct(Errors errors, InternalContext context, Class<?> expectedType, boolean allowProxy)
       throws ErrorsException {
-    ConstructionContext<T> constructionContext = context.getConstructionContext(this);
+    ConstructionContext<T> constructionContext = context.getConstructionContext(id);
 
     // We have a circular reference between constructors. Return a proxy.
     if (constructionContext.isConstructing()) {
@@ -86,7 +86,8 @@ final class ConstructorInjectorStore {
 
     errors.throwIfNewErrors(numErrorsBefore);
 
-    return new ConstructorInjector<T>(membersInjector.getInjectionPoints(), factory.create(),
-        constructorParameterInjectors, membersInjector);
+    return new ConstructorInjector<T>(injector.constructorIds.next(),
+        membersInjector.getInjectionPoints(), factory.create(), constructorParameterInjectors,
+        membersInjector);
   }
 }
@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.internal.util.Maps;
+import com.google.inject.internal.util.Stopwatch;
+import com.google.inject.spi.InjectorCreationStats;
+import java.util.Map;
+
+/**
+ * Times the creation of an injector. Phases are always logged by {@link Stopwatch}. When enabled,
+ * the profiler also collects {@link InjectorCreationStats}, and is {@link #current() current}
+ * on the threads creating the injector so that the code doing the work can report it.
+ */
+public final class CreationProfiler {
+
+  /** Use "-Dguice.creation.stats=true" to collect {@link InjectorCreationStats}. */
+  static final String CREATION_STATS_PROPERTY = "guice.creation.stats";
+
+  private static final ThreadLocal<CreationProfiler> current = new ThreadLocal<CreationProfiler>();
+
+  private final Stopwatch stopwatch = new Stopwatch();
+  private final boolean enabled;
+  private long phaseStart = System.nanoTime();
+
+  /** The timed work in progress on each thread. */
+  private final ThreadLocal<Frame> frames = new ThreadLocal<Frame>();
+
+  private final Map<String, Long> phases = Maps.newLinkedHashMap();
+  private final Map<Class<? extends Module>, Long> modules = Maps.newLinkedHashMap();
+  private final Map<Key<?>, Long> bindings = Maps.newLinkedHashMap();
+  private final Map<Key<?>, Long> singletons = Maps.newLinkedHashMap();
+  private long reflectionNanos;
+  private long bytecodeGenerationNanos;
+
+  CreationProfiler(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /** Returns the profiler collecting stats on this thread, or null if stats aren't collected. */
+  public static CreationProfiler current() {
+    return current.get();
+  }
+
+  /** Makes {@code profiler} current on this thread, and returns the previously current one. */
+  static CreationProfiler setCurrent(CreationProfiler profiler) {
+    CreationProfiler previous = current.get();
+    if (profiler != null && profiler.enabled) {
+      current.set(profiler);
+    } else {
+      current.remove();
+    }
+    return previous;
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Ends the phase named {@code label}, which started when the previous phase ended. */
+  void phase(String label) {
+    stopwatch.resetAndLog(label);
+    if (enabled) {
+      long now = System.nanoTime();
+      synchronized (this) {
+        add(phases, label, now - phaseStart);
+        phaseStart = now;
+      }
+    }
+  }
+
+  /**
+   * Starts timing work, which must be stopped on the same thread with the returned start time.
+   * Work that's started before this is stopped is nested in it.
+   */
+  public long start() {
+    frames.set(new Frame(frames.get()));
+    return System.nanoTime();
+  }
+
+  public void stopModule(Module module, long start) {
+    long nanos = stop(start);
+    synchronized (this) {
+      add(modules, module.getClass(), nanos);
+    }
+  }
+
+  void stopBinding(Key<?> key, long start) {
+    long nanos = stop(start);
+    synchronized (this) {
+      add(bindings, key, nanos);
+    }
+  }
+
+  void stopEagerSingleton(Key<?> key, long start) {
+    long nanos = stop(start);
+    synchronized (this) {
+      add(singletons, key, nanos);
+    }
+  }
+
+  /** Records reflection that started at {@code start}. */
+  synchronized void addReflection(long start) {
+    reflectionNanos += System.nanoTime() - start;
+  }
+
+  /** Records bytecode generation that started at {@code start}. */
+  synchronized void addBytecodeGeneration(long start) {
+    bytecodeGenerationNanos += System.nanoTime() - start;
+  }
+
+  /** Returns the time since {@code start}, less the time of the work nested in it. */
+  private long stop(long start) {
+    long elapsed = System.nanoTime() - start;
+    Frame frame = frames.get();
+    Frame parent = frame.parent;
+    if (parent != null) {
+      parent.nestedNanos += elapsed;
+      frames.set(parent);
+    } else {
+      frames.remove();
+    }
+    return elapsed - frame.nestedNanos;
+  }
+
+  private static <K> void add(Map<K, Long> map, K key, long nanos) {
+    Long total = map.get(key);
+    map.put(key, total != null ? total + nanos : nanos);
+  }
+
+  synchronized InjectorCreationStats getStats() {
+    return new InjectorCreationStats(phases, modules, bindings, singletons,
+        reflectionNanos, bytecodeGenerationNanos);
+  }
+
+  private static class Frame {
+    final Frame parent;
+    long nestedNanos;
+
+    Frame(Frame parent) {
+      this.parent = parent;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.internal.util.ImmutableList;
+import com.google.inject.internal.util.Lists;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A re-entrant lock that refuses to block when doing so would deadlock. Before a thread waits on a
+ * lock held by another thread, it follows the chain of owners and the locks they are waiting on.
+ * If that chain leads back to the waiting thread, the lock is not acquired and the cycle is
+ * returned to the caller instead.
+ *
+ * <p>Acquiring an uncontended lock touches no shared state.
+ */
+final class CycleDetectingLock {
+
+  /** The lock each blocked thread is waiting on. Only contended acquisitions are recorded. */
+  private static final Map<Thread, CycleDetectingLock> lockThreadIsWaitingOn
+      = new ConcurrentHashMap<Thread, CycleDetectingLock>();
+
+  private final Object id;
+  private final OwnerAwareLock lock = new OwnerAwareLock();
+
+  /**
+   * @param id identifies this lock in reported cycles; typically the key of the guarded binding.
+   */
+  CycleDetectingLock(Object id) {
+    this.id = id;
+  }
+
+  /**
+   * Acquires the lock and returns an empty list, or returns the locks that form a cycle with
+   * the current thread without acquiring it. The returned list describes each lock in the cycle,
+   * along with the thread that holds it, starting with this lock.
+   */
+  List<String> lockOrDetectPotentialLocksCycle() {
+    if (lock.tryLock()) {
+      return ImmutableList.of();
+    }
+
+    Thread currentThread = Thread.currentThread();
+    lockThreadIsWaitingOn.put(currentThread, this);
+    try {
+      List<String> cycle = detectCycle(currentThread);
+      if (!cycle.isEmpty()) {
+        return cycle;
+      }
+      lock.lock();
+      return ImmutableList.of();
+    } finally {
+      lockThreadIsWaitingOn.remove(currentThread);
+    }
+  }
+
+  void unlock() {
+    lock.unlock();
+  }
+
+  /**
+   * Walks from this lock to its owner, the lock that owner is waiting on, and so on. Returns an
+   * empty list if the walk doesn't lead back to {@code currentThread}. Each thread registers itself
+   * as waiting before walking, so of two threads that close a cycle at least one will see it.
+   */
+  private List<String> detectCycle(Thread currentThread) {
+    List<String> cycle = Lists.newArrayList();
+    CycleDetectingLock waitingOn = this;
+    // a chain longer than the number of blocked threads cannot be a cycle through this thread
+    for (int i = 0, max = lockThreadIsWaitingOn.size() + 1; i < max && waitingOn != null; i++) {
+      Thread owner = waitingOn.lock.getOwner();
+      if (owner == null) {
+        break;
+      }
+      cycle.add(waitingOn.id + " (held by " + owner.getName() + ")");
+      if (owner == currentThread) {
+        return cycle;
+      }
+      waitingOn = lockThreadIsWaitingOn.get(owner);
+    }
+    return ImmutableList.of();
+  }
+
+  @Override public String toString() {
+    return "CycleDetectingLock[" + id + "]";
+  }
+
+  /** Exposes the owning thread, which {@link ReentrantLock} only offers to subclasses. */
+  private static class OwnerAwareLock extends ReentrantLock {
+    private static final long serialVersionUID = 0;
+
+    @Override protected Thread getOwner() {
+      return super.getOwner();
+    }
+  }
+}
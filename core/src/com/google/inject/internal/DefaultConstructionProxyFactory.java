@@ -16,7 +16,6 @@
 
 package com.google.inject.internal;
 
-import com.google.inject.internal.BytecodeGen.Visibility;
 import com.google.inject.internal.util.ImmutableMap;
 import com.google.inject.spi.InjectionPoint;
 import java.lang.reflect.Constructor;
@@ -45,14 +44,14 @@ final class DefaultConstructionProxyFactory<T> implements ConstructionProxyFacto
     @SuppressWarnings("unchecked") // the injection point is for a constructor of T
     final Constructor<T> constructor = (Constructor<T>) injectionPoint.getMember();
 
-    // Use FastConstructor if the constructor is public.
-    if (Modifier.isPublic(constructor.getModifiers())) {
-      Class<T> classToConstruct = constructor.getDeclaringClass();
+    // We can't use FastConstructor if the constructor is private or protected.
+    int modifiers = constructor.getModifiers();
+    Class<T> classToConstruct = constructor.getDeclaringClass();
+    if (!Modifier.isPrivate(modifiers) && !Modifier.isProtected(modifiers)) {
       /*if[AOP]*/
       try {
         final net.sf.cglib.reflect.FastConstructor fastConstructor
-            = BytecodeGen.newFastClass(classToConstruct, Visibility.forMember(constructor))
-                .getConstructor(constructor);
+            = MetadataCache.INSTANCE.getFastConstructor(constructor);
 
       return new ConstructionProxy<T>() {
         @SuppressWarnings("unchecked")
@@ -72,10 +71,9 @@ final class DefaultConstructionProxyFactory<T> implements ConstructionProxyFacto
       };
       } catch (net.sf.cglib.core.CodeGenerationException e) {/* fall-through */}
       /*end[AOP]*/
-      if (!Modifier.isPublic(classToConstruct.getModifiers())) {
-        constructor.setAccessible(true);
-      }
-    } else {
+    }
+
+    if (!Modifier.isPublic(modifiers) || !Modifier.isPublic(classToConstruct.getModifiers())) {
       constructor.setAccessible(true);
     }
 
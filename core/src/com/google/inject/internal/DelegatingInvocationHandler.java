@@ -26,15 +26,8 @@ class DelegatingInvocationHandler<T> implements InvocationHandler {
 
   public Object invoke(Object proxy, Method method, Object[] args)
       throws Throwable {
-    if (delegate == null) {
-      throw new IllegalStateException("This is a proxy used to support"
-          + " circular references involving constructors. The object we're"
-          + " proxying is not constructed yet. Please wait until after"
-          + " injection has completed to use this object.");
-    }
-
     try {
-      return method.invoke(delegate, args);
+      return method.invoke(getConstructedDelegate(), args);
     } catch (IllegalAccessException e) {
       throw new RuntimeException(e);
     } catch (IllegalArgumentException e) {
@@ -44,6 +37,17 @@ class DelegatingInvocationHandler<T> implements InvocationHandler {
     }
   }
 
+  /** Returns the delegate, or throws if it hasn't been constructed yet. */
+  T getConstructedDelegate() {
+    if (delegate == null) {
+      throw new IllegalStateException("This is a proxy used to support"
+          + " circular references involving constructors. The object we're"
+          + " proxying is not constructed yet. Please wait until after"
+          + " injection has completed to use this object.");
+    }
+    return delegate;
+  }
+
   public T getDelegate() {
     return delegate;
   }
@@ -34,6 +34,7 @@ import com.google.inject.spi.Dependency;
 import com.google.inject.spi.InjectionListener;
 import com.google.inject.spi.InjectionPoint;
 import com.google.inject.spi.Message;
+import com.google.inject.spi.ProvisionListener;
 import com.google.inject.spi.TypeConverterBinding;
 import com.google.inject.spi.TypeListenerBinding;
 import java.io.PrintWriter;
@@ -357,6 +358,12 @@ public final class Errors implements Serializable {
         + " Reason: %s", listener, type, cause);
   }
 
+  public Errors errorNotifyingProvisionListener(
+      ProvisionListener listener, Key<?> key, RuntimeException cause) {
+    return errorInUserCode(cause, "Error notifying ProvisionListener %s of %s.%n"
+        + " Reason: %s", listener, convert(key), cause);
+  }
+
   public Errors exposedButNotBound(Key<?> key) {
     return addMessage("Could not expose() %s, it must be explicitly bound.", key);
   }
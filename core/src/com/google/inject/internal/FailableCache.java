@@ -30,7 +30,12 @@ import java.util.Map;
  */
 public abstract class FailableCache<K, V> {
   
-  private final Map<K, Object> delegate = new MapMaker().makeComputingMap(
+  /**
+   * Values are created outside of the map's locks, which are only held briefly to add entries, so
+   * a single segment is enough. Each injector has two of these caches, and short-lived child
+   * injectors would otherwise spend much of their creation allocating segments.
+   */
+  private final Map<K, Object> delegate = new MapMaker().concurrencyLevel(1).makeComputingMap(
       new Function<K, Object>() {
         public Object apply(@Nullable K key) {
           Errors errors = new Errors();
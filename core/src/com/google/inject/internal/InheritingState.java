@@ -24,6 +24,7 @@ import com.google.inject.internal.util.ImmutableList;
 import com.google.inject.internal.util.Lists;
 import com.google.inject.internal.util.Maps;
 import static com.google.inject.internal.util.Preconditions.checkNotNull;
+import com.google.inject.spi.ProvisionListenerBinding;
 import com.google.inject.spi.TypeConverterBinding;
 import com.google.inject.spi.TypeListenerBinding;
 import java.lang.annotation.Annotation;
@@ -46,10 +47,19 @@ final class InheritingState implements State {
       = Collections.unmodifiableMap(explicitBindingsMutable);
   private final Map<Class<? extends Annotation>, Scope> scopes = Maps.newHashMap();
   private final List<TypeConverterBinding> converters = Lists.newArrayList();
+  /**
+   * The converters that match each type, from this level up, in the order they're searched.
+   * Matchers only see the type, so converters are matched against each type only once. They may
+   * look at more than the raw type, so this is keyed by the full type literal; type literals hash
+   * cheaply since they compute their hash code when they're created.
+   */
+  private final Map<TypeLiteral<?>, List<TypeConverterBinding>> convertersByType
+      = Maps.newHashMap();
   /*if[AOP]*/
   private final List<MethodAspect> methodAspects = Lists.newArrayList();
   /*end[AOP]*/
   private final List<TypeListenerBinding> listenerBindings = Lists.newArrayList();
+  private final List<ProvisionListenerBinding> provisionListenerBindings = Lists.newArrayList();
   private final WeakKeySet blacklistedKeys = new WeakKeySet();
   private final Object lock;
 
@@ -91,22 +101,36 @@ final class InheritingState implements State {
 
   public void addConverter(TypeConverterBinding typeConverterBinding) {
     converters.add(typeConverterBinding);
+    convertersByType.clear();
   }
 
   public TypeConverterBinding getConverter(
       String stringValue, TypeLiteral<?> type, Errors errors, Object source) {
     TypeConverterBinding matchingConverter = null;
-    for (State s = this; s != State.NONE; s = s.parent()) {
-      for (TypeConverterBinding converter : s.getConvertersThisLevel()) {
-        if (converter.getTypeMatcher().matches(type)) {
-          if (matchingConverter != null) {
-            errors.ambiguousTypeConversion(stringValue, source, type, matchingConverter, converter);
+    for (TypeConverterBinding converter : getMatchingConverters(type)) {
+      if (matchingConverter != null) {
+        errors.ambiguousTypeConversion(stringValue, source, type, matchingConverter, converter);
+      }
+      matchingConverter = converter;
+    }
+    return matchingConverter;
+  }
+
+  private List<TypeConverterBinding> getMatchingConverters(TypeLiteral<?> type) {
+    List<TypeConverterBinding> result = convertersByType.get(type);
+    if (result == null) {
+      List<TypeConverterBinding> matching = Lists.newArrayList();
+      for (State s = this; s != State.NONE; s = s.parent()) {
+        for (TypeConverterBinding converter : s.getConvertersThisLevel()) {
+          if (converter.getTypeMatcher().matches(type)) {
+            matching.add(converter);
           }
-          matchingConverter = converter;
         }
       }
+      result = ImmutableList.copyOf(matching);
+      convertersByType.put(type, result);
     }
-    return matchingConverter;
+    return result;
   }
 
   /*if[AOP]*/
@@ -115,6 +139,9 @@ final class InheritingState implements State {
   }
 
   public ImmutableList<MethodAspect> getMethodAspects() {
+    if (methodAspects.isEmpty()) {
+      return parent.getMethodAspects();
+    }
     return new ImmutableList.Builder<MethodAspect>()
         .addAll(parent.getMethodAspects())
         .addAll(methodAspects)
@@ -128,16 +155,35 @@ final class InheritingState implements State {
 
   public List<TypeListenerBinding> getTypeListenerBindings() {
     List<TypeListenerBinding> parentBindings = parent.getTypeListenerBindings();
-    List<TypeListenerBinding> result
-        = new ArrayList<TypeListenerBinding>(parentBindings.size() + 1);
+    if (listenerBindings.isEmpty()) {
+      return parentBindings;
+    }
+    List<TypeListenerBinding> result = new ArrayList<TypeListenerBinding>(
+        parentBindings.size() + listenerBindings.size());
     result.addAll(parentBindings);
     result.addAll(listenerBindings);
     return result;
   }
 
-  public void blacklist(Key<?> key, Object source) {
-    parent.blacklist(key, source);
-    blacklistedKeys.add(key, source);
+  public void addProvisionListener(ProvisionListenerBinding provisionListenerBinding) {
+    provisionListenerBindings.add(provisionListenerBinding);
+  }
+
+  public List<ProvisionListenerBinding> getProvisionListenerBindings() {
+    List<ProvisionListenerBinding> parentBindings = parent.getProvisionListenerBindings();
+    if (provisionListenerBindings.isEmpty()) {
+      return parentBindings;
+    }
+    List<ProvisionListenerBinding> result = new ArrayList<ProvisionListenerBinding>(
+        parentBindings.size() + provisionListenerBindings.size());
+    result.addAll(parentBindings);
+    result.addAll(provisionListenerBindings);
+    return result;
+  }
+
+  public void blacklist(Key<?> key, State state, Object source) {
+    parent.blacklist(key, state, source);
+    blacklistedKeys.add(key, state, source);
   }
 
   public boolean isBlacklisted(Key<?> key) {
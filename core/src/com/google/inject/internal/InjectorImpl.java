@@ -57,6 +57,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Default {@link Injector} implementation.
@@ -103,11 +104,20 @@ final class InjectorImpl implements Injector, Lookups {
   final BindingsMultimap bindingsMultimap = new BindingsMultimap();
   final InjectorOptions options;
 
-  /** Just-in-time binding cache. Guarded by state.lock() */
-  final Map<Key<?>, BindingImpl<?>> jitBindings = Maps.newHashMap();
+  /**
+   * Just-in-time binding cache. Writes are guarded by state.lock(). Reads without the lock must
+   * skip {@link #pendingJitBindings}.
+   */
+  final Map<Key<?>, BindingImpl<?>> jitBindings = new ConcurrentHashMap<Key<?>, BindingImpl<?>>();
+
+  /** Shared with the parent injector, as is the lock that guards changes to JIT bindings. */
+  final PendingJitBindings pendingJitBindings;
 
   Lookups lookups = new DeferredLookups(this);
 
+  /** Locks guarding the creation of this injector's singletons. */
+  final SingletonLocks singletonLocks = new SingletonLocks(this);
+
   InjectorImpl(@Nullable InjectorImpl parent, State state, InjectorOptions injectorOptions) {
     this.parent = parent;
     this.state = state;
@@ -115,12 +125,16 @@ final class InjectorImpl implements Injector, Lookups {
 
     if (parent != null) {
       localContext = parent.localContext;
+      constructorIds = parent.constructorIds.newChild();
+      pendingJitBindings = parent.pendingJitBindings;
     } else {
       localContext = new ThreadLocal<Object[]>() {
         protected Object[] initialValue() {
           return new Object[1];
         }
       };
+      constructorIds = new ConstructorIds();
+      pendingJitBindings = new PendingJitBindings();
     }
   }
 
@@ -157,14 +171,15 @@ final class InjectorImpl implements Injector, Lookups {
     if (explicitBinding != null) {
       return explicitBinding;
     }
+    // See if any jit bindings have been created for this key.
+    BindingImpl<T> jitBinding = getExistingJitBindingWithoutLocking(key);
+    if (jitBinding != null) {
+      return jitBinding;
+    }
     synchronized (state.lock()) {
-      // See if any jit bindings have been created for this key.
-      for (InjectorImpl injector = this; injector != null; injector = injector.parent) {
-        @SuppressWarnings("unchecked")
-        BindingImpl<T> jitBinding = (BindingImpl<T>) injector.jitBindings.get(key);
-        if(jitBinding != null) {
-          return jitBinding;
-        }
+      jitBinding = getExistingJitBinding(key);
+      if (jitBinding != null) {
+        return jitBinding;
       }
     }
     
@@ -233,27 +248,100 @@ final class InjectorImpl implements Injector, Lookups {
       throws ErrorsException {
 
     boolean jitOverride = isProvider(key) || isTypeLiteral(key) || isMembersInjector(key);    
-    synchronized (state.lock()) {
-      // first try to find a JIT binding that we've already created
-      for (InjectorImpl injector = this; injector != null; injector = injector.parent) {
-        @SuppressWarnings("unchecked") // we only store bindings that match their key
-        BindingImpl<T> binding = (BindingImpl<T>) injector.jitBindings.get(key);
 
+    // first try to find a JIT binding that we've already created, which usually needs no lock
+    BindingImpl<T> binding = getExistingJitBindingWithoutLocking(key);
+    if (binding != null) {
+      return checkJitAllowed(binding, errors, jitType, jitOverride);
+    }
+
+    synchronized (state.lock()) {
+      pendingJitBindings.begin();
+      try {
+        binding = getExistingJitBinding(key);
         if (binding != null) {
-          // If we found a JIT binding and we don't allow them,
-          // fail.  (But allow bindings created through TypeConverters.)
-          if (options.jitDisabled
-              && jitType == JitLimitation.NO_JIT
-              && !jitOverride
-              && !(binding instanceof ConvertedConstantBindingImpl)) {
-            throw errors.jitDisabled(key).toException();
-          } else {
-            return binding;
-          }
+          return checkJitAllowed(binding, errors, jitType, jitOverride);
         }
+
+        return createJustInTimeBindingRecursive(key, errors, options.jitDisabled, jitType);
+      } finally {
+        pendingJitBindings.end();
+      }
+    }
+  }
+
+  private <T> BindingImpl<T> checkJitAllowed(BindingImpl<T> binding, Errors errors,
+      JitLimitation jitType, boolean jitOverride) throws ErrorsException {
+    // If we found a JIT binding and we don't allow them,
+    // fail.  (But allow bindings created through TypeConverters.)
+    if (options.jitDisabled
+        && jitType == JitLimitation.NO_JIT
+        && !jitOverride
+        && !(binding instanceof ConvertedConstantBindingImpl)) {
+      throw errors.jitDisabled(binding.getKey()).toException();
+    }
+    return binding;
+  }
+
+  /**
+   * Returns the JIT binding for {@code key} in this injector or its ancestors, or null if none
+   * exists. Guarded by state.lock().
+   */
+  private <T> BindingImpl<T> getExistingJitBinding(Key<T> key) {
+    for (InjectorImpl injector = this; injector != null; injector = injector.parent) {
+      @SuppressWarnings("unchecked") // we only store bindings that match their key
+      BindingImpl<T> binding = (BindingImpl<T>) injector.jitBindings.get(key);
+      if (binding != null) {
+        return binding;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the complete JIT binding for {@code key} in this injector or its ancestors, or null if
+   * there's none. Callers should retry with the lock held.
+   */
+  private <T> BindingImpl<T> getExistingJitBindingWithoutLocking(Key<T> key) {
+    BindingImpl<T> binding = getExistingJitBinding(key);
+    if (binding == null || pendingJitBindings.contains(key)) {
+      return null;
+    }
+    // it may have been pending when we found it, and removed since because it failed
+    return getExistingJitBinding(key) == binding ? binding : null;
+  }
+
+  /**
+   * Keys of the JIT bindings that the thread holding state.lock() is creating. These bindings are
+   * added to {@link #jitBindings} before they're initialized, so that circular dependencies can
+   * find them, and are removed again if they fail. Other threads must wait for the lock before
+   * using them.
+   */
+  static final class PendingJitBindings {
+    private final Map<Key<?>, Boolean> keys = new ConcurrentHashMap<Key<?>, Boolean>();
+
+    /** The lock holder's reentrant calls to {@link #begin}. Guarded by state.lock(). */
+    private int depth;
+
+    boolean contains(Key<?> key) {
+      return keys.containsKey(key);
+    }
+
+    /** Called with state.lock() held before adding {@code key} to the JIT bindings. */
+    void add(Key<?> key) {
+      keys.put(key, Boolean.TRUE);
+    }
+
+    /** Called with state.lock() held before JIT bindings are created. */
+    void begin() {
+      depth++;
+    }
+
+    /** Called once the bindings are complete, or have been removed. */
+    void end() {
+      if (--depth == 0) {
+        keys.clear();
       }
-      
-      return createJustInTimeBindingRecursive(key, errors, options.jitDisabled, jitType);
     }
   }
 
@@ -504,7 +592,24 @@ final class InjectorImpl implements Injector, Lookups {
 
   <T> void initializeBinding(BindingImpl<T> binding, Errors errors) throws ErrorsException {
     if (binding instanceof ConstructorBindingImpl<?>) {
-      ((ConstructorBindingImpl) binding).initialize(this, errors);
+      initialize((ConstructorBindingImpl<?>) binding, errors);
+    }
+  }
+
+  /** Initializes {@code binding}, timing it if this injector's creation is being profiled. */
+  private void initialize(ConstructorBindingImpl<?> binding, Errors errors)
+      throws ErrorsException {
+    CreationProfiler profiler = CreationProfiler.current();
+    if (profiler == null) {
+      binding.initialize(this, errors);
+      return;
+    }
+
+    long start = profiler.start();
+    try {
+      binding.initialize(this, errors);
+    } finally {
+      profiler.stopBinding(binding.getKey(), start);
     }
   }
 
@@ -514,11 +619,12 @@ final class InjectorImpl implements Injector, Lookups {
     // Note: We don't need to synchronize on state.lock() during injector creation.
     if (binding instanceof ConstructorBindingImpl<?>) {
       Key<T> key = binding.getKey();
+      pendingJitBindings.add(key);
       jitBindings.put(key, binding);
       boolean successful = false;
       ConstructorBindingImpl cb = (ConstructorBindingImpl)binding;
       try {
-        cb.initialize(this, errors);
+        initialize(cb, errors);
         successful = true;
       } finally {
         if (!successful) {
@@ -580,7 +686,7 @@ final class InjectorImpl implements Injector, Lookups {
   
   /** Safely gets the dependencies of possibly not initialized bindings. */
   @SuppressWarnings("unchecked")
-  private Set<Dependency<?>> getInternalDependencies(BindingImpl<?> binding) {
+  Set<Dependency<?>> getInternalDependencies(BindingImpl<?> binding) {
     if(binding instanceof ConstructorBindingImpl) {
       return ((ConstructorBindingImpl)binding).getInternalDependencies();
     } else if(binding instanceof HasDependencies) {
@@ -702,7 +808,8 @@ final class InjectorImpl implements Injector, Lookups {
         this,
         key,
         source,
-        Scoping.<T>scope(key, this, internalFactory, source, scoping),
+        Scoping.<T>scope(key, this, ProvisionListenerFactory.wrap(this, key, internalFactory),
+            source, scoping),
         scoping,
         providerKey);
   }
@@ -755,8 +862,9 @@ final class InjectorImpl implements Injector, Lookups {
    */
   private <T> BindingImpl<T> createJustInTimeBindingRecursive(Key<T> key, Errors errors,
       boolean jitDisabled, JitLimitation jitType) throws ErrorsException {
-    // ask the parent to create the JIT binding
-    if (parent != null) {
+    // ask the parent to create the JIT binding. If the key is blacklisted in the parent, so are its
+    // ancestors, and they'd all fail.
+    if (parent != null && !parent.state.isBlacklisted(key)) {
       try {
         return parent.createJustInTimeBindingRecursive(key, new Errors(), jitDisabled,
             parent.options.jitDisabled ? JitLimitation.NO_JIT : jitType);
@@ -770,7 +878,8 @@ final class InjectorImpl implements Injector, Lookups {
     }
 
     BindingImpl<T> binding = createJustInTimeBinding(key, errors, jitDisabled, jitType);
-    state.parent().blacklist(key, binding.getSource());
+    state.parent().blacklist(key, state, binding.getSource());
+    pendingJitBindings.add(key);
     jitBindings.put(key, binding);
     return binding;
   }
@@ -969,22 +1078,20 @@ final class InjectorImpl implements Injector, Lookups {
 
     return new Provider<T>() {
       public T get() {
-        final Errors errors = new Errors(dependency);
+        // this is the hot path for getInstance(); avoid allocating anything unless it fails
+        InternalContext context = enterContext();
+        Errors errors = context.getErrorsForProvision();
+        Dependency previous = context.setDependency(dependency);
         try {
-          T t = callInContext(new ContextualCallable<T>() {
-            public T call(InternalContext context) throws ErrorsException {
-              Dependency previous = context.setDependency(dependency);
-              try {
-                return factory.get(errors, context, dependency, false);
-              } finally {
-                context.setDependency(previous);
-              }
-            }
-          });
+          T t = factory.get(errors, context, dependency, false);
           errors.throwIfNewErrors(0);
           return t;
         } catch (ErrorsException e) {
-          throw new ProvisionException(errors.merge(e.getErrors()).getMessages());
+          throw new ProvisionException(
+              new Errors(dependency).merge(errors.merge(e.getErrors())).getMessages());
+        } finally {
+          context.setDependency(previous);
+          context.exit();
         }
       }
 
@@ -1005,6 +1112,10 @@ final class InjectorImpl implements Injector, Lookups {
     }
   }
 
+  public <T> Provider<T> compile(Key<T> key) {
+    return CompiledProvider.compile(this, key);
+  }
+
   public <T> T getInstance(Key<T> key) {
     return getProvider(key).get();
   }
@@ -1015,20 +1126,30 @@ final class InjectorImpl implements Injector, Lookups {
 
   final ThreadLocal<Object[]> localContext;
 
-  /** Looks up thread local context. Creates (and removes) a new context if necessary. */
-  <T> T callInContext(ContextualCallable<T> callable) throws ErrorsException {
+  /** Hands out ids to this injector's constructors. */
+  final ConstructorIds constructorIds;
+
+  /**
+   * Returns this thread's context after entering it. Each call must be paired with a call to
+   * {@link InternalContext#exit}.
+   */
+  InternalContext enterContext() {
     Object[] reference = localContext.get();
-    if (reference[0] == null) {
-      reference[0] = new InternalContext();
-      try {
-        return callable.call((InternalContext)reference[0]);
-      } finally {
-        // Only clear the context if this call created it.
-        reference[0] = null;
-      }
-    } else {
-      // Someone else will clean up this context.
-      return callable.call((InternalContext)reference[0]);
+    InternalContext context = (InternalContext) reference[0];
+    if (context == null) {
+      reference[0] = context = new InternalContext();
+    }
+    context.enter();
+    return context;
+  }
+
+  /** Calls {@code callable} with this thread's context. */
+  <T> T callInContext(ContextualCallable<T> callable) throws ErrorsException {
+    InternalContext context = enterContext();
+    try {
+      return callable.call(context);
+    } finally {
+      context.exit();
     }
   }
 
@@ -30,11 +30,11 @@ import com.google.inject.internal.util.Lists;
 import static com.google.inject.internal.util.Preconditions.checkNotNull;
 import static com.google.inject.internal.util.Preconditions.checkState;
 import com.google.inject.internal.util.SourceProvider;
-import com.google.inject.internal.util.Stopwatch;
 import com.google.inject.spi.Dependency;
 import com.google.inject.spi.Element;
 import com.google.inject.spi.Elements;
 import com.google.inject.spi.InjectionPoint;
+import com.google.inject.spi.InjectorCreationStats;
 import com.google.inject.spi.PrivateElements;
 import com.google.inject.spi.TypeListenerBinding;
 import java.util.List;
@@ -120,7 +120,7 @@ final class InjectorShell {
     List<InjectorShell> build(
         Initializer initializer,
         ProcessedBindingData bindingData,
-        Stopwatch stopwatch,
+        CreationProfiler profiler,
         Errors errors) {
       checkState(stage != null, "Stage not initialized");
       checkState(privateElements == null || parent != null, "PrivateElements with no parent");
@@ -147,36 +147,40 @@ final class InjectorShell {
         new TypeConverterBindingProcessor(errors).prepareBuiltInConverters(injector);
       }
 
-      stopwatch.resetAndLog("Module execution");
+      profiler.phase("Module execution");
 
       new MessageProcessor(errors).process(injector, elements);
 
       /*if[AOP]*/
       InterceptorBindingProcessor interceptors = new InterceptorBindingProcessor(errors);
       interceptors.process(injector, elements);
-      stopwatch.resetAndLog("Interceptors creation");
+      profiler.phase("Interceptors creation");
       /*end[AOP]*/
 
       new TypeListenerBindingProcessor(errors).process(injector, elements);
       List<TypeListenerBinding> listenerBindings = injector.state.getTypeListenerBindings();
       injector.membersInjectorStore = new MembersInjectorStore(injector, listenerBindings);
-      stopwatch.resetAndLog("TypeListeners creation");
+      new ProvisionListenerBindingProcessor(errors).process(injector, elements);
+      profiler.phase("TypeListeners creation");
 
       new ScopeBindingProcessor(errors).process(injector, elements);
-      stopwatch.resetAndLog("Scopes creation");
+      profiler.phase("Scopes creation");
 
       new TypeConverterBindingProcessor(errors).process(injector, elements);
-      stopwatch.resetAndLog("Converters creation");
+      profiler.phase("Converters creation");
 
       bindInjector(injector);
       bindLogger(injector);
+      if (profiler.isEnabled()) {
+        bindCreationStats(injector, profiler);
+      }
       
       // Process all normal bindings, then UntargettedBindings.
       // This is necessary because UntargettedBindings can create JIT bindings
       // and need all their other dependencies set up ahead of time.
       new BindingProcessor(errors, initializer, bindingData).process(injector, elements);
       new UntargettedBindingProcessor(errors, bindingData).process(injector, elements);
-      stopwatch.resetAndLog("Binding creation");
+      profiler.phase("Binding creation");
 
       List<InjectorShell> injectorShells = Lists.newArrayList();
       injectorShells.add(new InjectorShell(this, elements, injector));
@@ -185,9 +189,9 @@ final class InjectorShell {
       PrivateElementProcessor processor = new PrivateElementProcessor(errors);
       processor.process(injector, elements);
       for (Builder builder : processor.getInjectorShellBuilders()) {
-        injectorShells.addAll(builder.build(initializer, bindingData, stopwatch, errors));
+        injectorShells.addAll(builder.build(initializer, bindingData, profiler, errors));
       }
-      stopwatch.resetAndLog("Private environment creation");
+      profiler.phase("Private environment creation");
 
       return injectorShells;
     }
@@ -247,6 +251,41 @@ final class InjectorShell {
             loggerFactory, ImmutableSet.<InjectionPoint>of()));
   }
 
+  /**
+   * The injector's creation stats are a built-in binding when they're collected. The stats of
+   * an injector and its private environments are the same.
+   */
+  private static void bindCreationStats(InjectorImpl injector, CreationProfiler profiler) {
+    Key<InjectorCreationStats> key = Key.get(InjectorCreationStats.class);
+    CreationStatsFactory creationStatsFactory = new CreationStatsFactory(profiler);
+    injector.state.putBinding(key,
+        new ProviderInstanceBindingImpl<InjectorCreationStats>(injector, key,
+            SourceProvider.UNKNOWN_SOURCE, creationStatsFactory, Scoping.UNSCOPED,
+            creationStatsFactory, ImmutableSet.<InjectionPoint>of()));
+  }
+
+  private static class CreationStatsFactory
+      implements InternalFactory<InjectorCreationStats>, Provider<InjectorCreationStats> {
+    private final CreationProfiler profiler;
+
+    private CreationStatsFactory(CreationProfiler profiler) {
+      this.profiler = profiler;
+    }
+
+    public InjectorCreationStats get(Errors errors, InternalContext context,
+        Dependency<?> dependency, boolean linked) {
+      return profiler.getStats();
+    }
+
+    public InjectorCreationStats get() {
+      return profiler.getStats();
+    }
+
+    public String toString() {
+      return "Provider<InjectorCreationStats>";
+    }
+  }
+
   private static class LoggerFactory implements InternalFactory<Logger>, Provider<Logger> {
     public Logger get(Errors errors, InternalContext context, Dependency<?> dependency, boolean linked) {
       InjectionPoint injectionPoint = dependency.getInjectionPoint();
@@ -30,73 +30,127 @@ import org.aopalliance.intercept.MethodInvocation;
 /**
  * Intercepts a method with a stack of interceptors.
  *
+ * <p>Each call allocates one {@link MethodInvocation}, which is shared by all of the call's
+ * interceptors. Invocations aren't reused between calls because interceptors may hold on to them,
+ * for example to proceed later on another thread. Methods with a single interceptor, which are the
+ * most common, use an invocation that proceeds directly to the intercepted method.
+ *
  * @author crazybob@google.com (Bob Lee)
  */
 final class InterceptorStackCallback implements net.sf.cglib.proxy.MethodInterceptor {
   private static final Set<String> AOP_INTERNAL_CLASSES = new HashSet<String>(Arrays.asList(
       InterceptorStackCallback.class.getName(),
       InterceptedMethodInvocation.class.getName(),
+      SingleInterceptorInvocation.class.getName(),
       MethodProxy.class.getName()));
 
   final MethodInterceptor[] interceptors;
   final Method method;
 
+  /** The only interceptor, or null if there are several. */
+  private final MethodInterceptor interceptor;
+
   public InterceptorStackCallback(Method method,
       List<MethodInterceptor> interceptors) {
     this.method = method;
     this.interceptors = interceptors.toArray(new MethodInterceptor[interceptors.size()]);
+    this.interceptor = this.interceptors.length == 1 ? this.interceptors[0] : null;
   }
 
   public Object intercept(Object proxy, Method method, Object[] arguments,
       MethodProxy methodProxy) throws Throwable {
-    return new InterceptedMethodInvocation(proxy, methodProxy, arguments).proceed();
+    if (interceptor == null) {
+      return new InterceptedMethodInvocation(this, proxy, methodProxy, arguments).proceed();
+    }
+
+    try {
+      return interceptor.invoke(
+          new SingleInterceptorInvocation(this, proxy, methodProxy, arguments));
+    } catch (Throwable t) {
+      pruneStacktrace(t);
+      throw t;
+    }
   }
 
-  private class InterceptedMethodInvocation implements MethodInvocation {
+  /**
+   * The state of one call. This is a static class so that subclasses don't each keep their own
+   * reference to the callback, which would make every invocation larger.
+   */
+  private abstract static class AbstractMethodInvocation implements MethodInvocation {
 
+    final InterceptorStackCallback callback;
     final Object proxy;
     final Object[] arguments;
     final MethodProxy methodProxy;
-    int index = -1;
 
-    public InterceptedMethodInvocation(Object proxy, MethodProxy methodProxy,
-        Object[] arguments) {
+    AbstractMethodInvocation(InterceptorStackCallback callback, Object proxy,
+        MethodProxy methodProxy, Object[] arguments) {
+      this.callback = callback;
       this.proxy = proxy;
       this.methodProxy = methodProxy;
       this.arguments = arguments;
     }
 
+    public Method getMethod() {
+      return callback.method;
+    }
+
+    public Object[] getArguments() {
+      return arguments;
+    }
+
+    public Object getThis() {
+      return proxy;
+    }
+
+    public AccessibleObject getStaticPart() {
+      return getMethod();
+    }
+  }
+
+  /** Proceeds through the interceptors in order, and then to the intercepted method. */
+  private static class InterceptedMethodInvocation extends AbstractMethodInvocation {
+
+    int index = -1;
+
+    public InterceptedMethodInvocation(InterceptorStackCallback callback, Object proxy,
+        MethodProxy methodProxy, Object[] arguments) {
+      super(callback, proxy, methodProxy, arguments);
+    }
+
     public Object proceed() throws Throwable {
+      MethodInterceptor[] interceptors = callback.interceptors;
       try {
         index++;
         return index == interceptors.length
             ? methodProxy.invokeSuper(proxy, arguments)
             : interceptors[index].invoke(this);
       } catch (Throwable t) {
-        pruneStacktrace(t);
+        callback.pruneStacktrace(t);
         throw t;
       } finally {
         index--;
       }
     }
+  }
 
-    public Method getMethod() {
-      return method;
-    }
+  /** Proceeds to the intercepted method; the only interceptor is invoked by the callback. */
+  private static class SingleInterceptorInvocation extends AbstractMethodInvocation {
 
-    public Object[] getArguments() {
-      return arguments;
+    SingleInterceptorInvocation(InterceptorStackCallback callback, Object proxy,
+        MethodProxy methodProxy, Object[] arguments) {
+      super(callback, proxy, methodProxy, arguments);
     }
 
-    public Object getThis() {
-      return proxy;
-    }
-
-    public AccessibleObject getStaticPart() {
-      return getMethod();
+    public Object proceed() throws Throwable {
+      try {
+        return methodProxy.invokeSuper(proxy, arguments);
+      } catch (Throwable t) {
+        callback.pruneStacktrace(t);
+        throw t;
+      }
     }
   }
-
   /**
    * Removes stacktrace elements related to AOP internal mechanics from the
    * throwable's stack trace and any causes it may have.
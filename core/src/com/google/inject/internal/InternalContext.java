@@ -16,28 +16,75 @@
 
 package com.google.inject.internal;
 
-import com.google.inject.internal.util.Maps;
 import com.google.inject.spi.Dependency;
-import java.util.Map;
 
 /**
  * Internal context. Used to coordinate injections and support circular
  * dependencies.
  *
+ * <p>Each thread reuses a single context for every injection it performs, so
+ * provisioning doesn't allocate one per call. Callers {@link #enter} the context
+ * before using it and {@link #exit} when they're done.
+ *
  * @author crazybob@google.com (Bob Lee)
  */
 final class InternalContext {
 
-  private Map<Object, ConstructionContext<?>> constructionContexts = Maps.newHashMap();
+  /**
+   * Indexed by constructor id. Slots are created on first use and kept for reuse; a construction
+   * context holds nothing once its construction has finished.
+   */
+  private ConstructionContext<?>[] constructionContexts = new ConstructionContext<?>[16];
   private Dependency dependency;
 
+  /** The number of calls currently using this context. */
+  private int depth;
+
+  /** Lazily created, and reused by outermost provisions for as long as it stays empty. */
+  private Errors errors;
+
+  void enter() {
+    depth++;
+  }
+
+  void exit() {
+    if (--depth == 0) {
+      // don't retain failures once the outermost call is done
+      if (errors != null && errors.hasErrors()) {
+        errors = null;
+      }
+    }
+  }
+
+  /**
+   * Returns an empty errors collection for a provision. Outermost provisions share one instance,
+   * which is replaced on exit if any errors were added to it; nested provisions get their own, since
+   * an outer provision may still be reporting to the shared one.
+   */
+  Errors getErrorsForProvision() {
+    if (depth > 1) {
+      return new Errors();
+    }
+    if (errors == null) {
+      errors = new Errors();
+    }
+    return errors;
+  }
+
+  /** Returns the construction context for the constructor with the given id. */
   @SuppressWarnings("unchecked")
-  public <T> ConstructionContext<T> getConstructionContext(Object key) {
+  public <T> ConstructionContext<T> getConstructionContext(int constructorId) {
+    if (constructorId >= constructionContexts.length) {
+      ConstructionContext<?>[] grown
+          = new ConstructionContext<?>[Math.max(constructorId + 1, constructionContexts.length * 2)];
+      System.arraycopy(constructionContexts, 0, grown, 0, constructionContexts.length);
+      constructionContexts = grown;
+    }
     ConstructionContext<T> constructionContext
-        = (ConstructionContext<T>) constructionContexts.get(key);
+        = (ConstructionContext<T>) constructionContexts[constructorId];
     if (constructionContext == null) {
       constructionContext = new ConstructionContext<T>();
-      constructionContexts.put(key, constructionContext);
+      constructionContexts[constructorId] = constructionContext;
     }
     return constructionContext;
   }
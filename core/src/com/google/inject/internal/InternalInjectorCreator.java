@@ -27,7 +27,7 @@ import com.google.inject.Stage;
 import com.google.inject.TypeLiteral;
 import com.google.inject.internal.util.ImmutableList;
 import com.google.inject.internal.util.Iterables;
-import com.google.inject.internal.util.Stopwatch;
+import com.google.inject.internal.util.Lists;
 import com.google.inject.spi.Dependency;
 import com.google.inject.spi.TypeConverterBinding;
 import java.lang.annotation.Annotation;
@@ -57,7 +57,14 @@ import java.util.Set;
  */
 public final class InternalInjectorCreator {
 
-  private final Stopwatch stopwatch = new Stopwatch();
+  /**
+   * Use "-Dguice.eager.singleton.threads=N" to create eager singletons on N threads. Singletons
+   * are created one at a time by default.
+   */
+  static final String EAGER_SINGLETON_THREADS_PROPERTY = "guice.eager.singleton.threads";
+
+  private final CreationProfiler profiler
+      = new CreationProfiler(Boolean.getBoolean(CreationProfiler.CREATION_STATS_PROPERTY));
   private final Errors errors = new Errors();
 
   private final Initializer initializer = new Initializer();
@@ -97,16 +104,21 @@ public final class InternalInjectorCreator {
       throw new AssertionError("Already built, builders are not reusable.");
     }
 
-    // Synchronize while we're building up the bindings and other injector state. This ensures that
-    // the JIT bindings in the parent injector don't change while we're being built
-    synchronized (shellBuilder.lock()) {
-      shells = shellBuilder.build(initializer, bindingData, stopwatch, errors);
-      stopwatch.resetAndLog("Injector construction");
+    CreationProfiler previousProfiler = CreationProfiler.setCurrent(profiler);
+    try {
+      // Synchronize while we're building up the bindings and other injector state. This ensures
+      // that the JIT bindings in the parent injector don't change while we're being built
+      synchronized (shellBuilder.lock()) {
+        shells = shellBuilder.build(initializer, bindingData, profiler, errors);
+        profiler.phase("Injector construction");
 
-      initializeStatically();
-    }
+        initializeStatically();
+      }
 
-    injectDynamically();
+      injectDynamically();
+    } finally {
+      CreationProfiler.setCurrent(previousProfiler);
+    }
 
     if (shellBuilder.getStage() == Stage.TOOL) {
       // wrap the primaryInjector in a ToolStageInjector
@@ -120,30 +132,30 @@ public final class InternalInjectorCreator {
   /** Initialize and validate everything. */
   private void initializeStatically() {
     bindingData.initializeBindings();
-    stopwatch.resetAndLog("Binding initialization");
+    profiler.phase("Binding initialization");
 
     for (InjectorShell shell : shells) {
       shell.getInjector().index();
     }
-    stopwatch.resetAndLog("Binding indexing");
+    profiler.phase("Binding indexing");
 
     injectionRequestProcessor.process(shells);
-    stopwatch.resetAndLog("Collecting injection requests");
+    profiler.phase("Collecting injection requests");
 
     bindingData.runCreationListeners(errors);
-    stopwatch.resetAndLog("Binding validation");
+    profiler.phase("Binding validation");
 
     injectionRequestProcessor.validate();
-    stopwatch.resetAndLog("Static validation");
+    profiler.phase("Static validation");
 
     initializer.validateOustandingInjections(errors);
-    stopwatch.resetAndLog("Instance member validation");
+    profiler.phase("Instance member validation");
 
     new LookupProcessor(errors).process(shells);
     for (InjectorShell shell : shells) {
       ((DeferredLookups) shell.getInjector().lookups).initialize(errors);
     }
-    stopwatch.resetAndLog("Provider verification");
+    profiler.phase("Provider verification");
 
     for (InjectorShell shell : shells) {
       if (!shell.getElements().isEmpty()) {
@@ -168,17 +180,17 @@ public final class InternalInjectorCreator {
    */
   private void injectDynamically() {
     injectionRequestProcessor.injectMembers();
-    stopwatch.resetAndLog("Static member injection");
+    profiler.phase("Static member injection");
 
     initializer.injectAll(errors);
-    stopwatch.resetAndLog("Instance injection");
+    profiler.phase("Instance injection");
     errors.throwCreationExceptionIfErrorsExist();
 
     if(shellBuilder.getStage() != Stage.TOOL) {
       for (InjectorShell shell : shells) {
         loadEagerSingletons(shell.getInjector(), shellBuilder.getStage(), errors);
       }
-      stopwatch.resetAndLog("Preloading singletons");
+      profiler.phase("Preloading singletons");
     }
     errors.throwCreationExceptionIfErrorsExist();
   }
@@ -192,28 +204,51 @@ public final class InternalInjectorCreator {
     Iterable<BindingImpl<?>> candidateBindings = ImmutableList.copyOf(Iterables.concat(
         (Collection) injector.state.getExplicitBindingsThisLevel().values(),
         injector.jitBindings.values()));
-    for (final BindingImpl<?> binding : candidateBindings) {
+    List<BindingImpl<?>> eagerSingletons = Lists.newArrayList();
+    for (BindingImpl<?> binding : candidateBindings) {
       if (isEagerSingleton(injector, binding, stage)) {
-        try {
-          injector.callInContext(new ContextualCallable<Void>() {
-            Dependency<?> dependency = Dependency.get(binding.getKey());
-            public Void call(InternalContext context) {
-              Dependency previous = context.setDependency(dependency);
-              Errors errorsForBinding = errors.withSource(dependency);
-              try {
-                binding.getInternalFactory().get(errorsForBinding, context, dependency, false);
-              } catch (ErrorsException e) {
-                errorsForBinding.merge(e.getErrors());
-              } finally {
-                context.setDependency(previous);
-              }
-
-              return null;
-            }
-          });
-        } catch (ErrorsException e) {
-          throw new AssertionError();
+        eagerSingletons.add(binding);
+      }
+    }
+
+    int threadCount = Integer.getInteger(EAGER_SINGLETON_THREADS_PROPERTY, 1);
+    if (threadCount > 1) {
+      new ParallelSingletonLoader(injector, threadCount).load(eagerSingletons, errors);
+      return;
+    }
+
+    for (BindingImpl<?> binding : eagerSingletons) {
+      loadEagerSingleton(injector, binding, errors);
+    }
+  }
+
+  /** Creates the instance for an eager singleton binding, adding failures to {@code errors}. */
+  static void loadEagerSingleton(InjectorImpl injector, final BindingImpl<?> binding,
+      final Errors errors) {
+    CreationProfiler profiler = CreationProfiler.current();
+    long start = profiler != null ? profiler.start() : 0;
+    try {
+      injector.callInContext(new ContextualCallable<Void>() {
+        Dependency<?> dependency = Dependency.get(binding.getKey());
+        public Void call(InternalContext context) {
+          Dependency previous = context.setDependency(dependency);
+          Errors errorsForBinding = errors.withSource(dependency);
+          try {
+            binding.getInternalFactory().get(errorsForBinding, context, dependency, false);
+          } catch (ErrorsException e) {
+            errorsForBinding.merge(e.getErrors());
+          } finally {
+            context.setDependency(previous);
+          }
+
+          return null;
         }
+      });
+    } catch (ErrorsException e) {
+      throw new AssertionError();
+    } finally {
+      if (profiler != null) {
+        profiler.stopEagerSingleton(binding.getKey(), start);
       }
     }
   }
@@ -286,6 +321,10 @@ public final class InternalInjectorCreator {
       throw new UnsupportedOperationException(
         "Injector.getProvider(Class<T>) is not supported in Stage.TOOL");
     }
+    public <T> Provider<T> compile(Key<T> key) {
+      throw new UnsupportedOperationException(
+        "Injector.compile(Key<T>) is not supported in Stage.TOOL");
+    }
     public <T> MembersInjector<T> getMembersInjector(TypeLiteral<T> typeLiteral) {
       throw new UnsupportedOperationException(
         "Injector.getMembersInjector(TypeLiteral<T>) is not supported in Stage.TOOL");
@@ -54,6 +54,14 @@ final class MembersInjectorImpl<T> implements MembersInjector<T> {
     return memberInjectors;
   }
 
+  ImmutableList<MembersInjector<? super T>> getUserMembersInjectors() {
+    return userMembersInjectors;
+  }
+
+  ImmutableList<InjectionListener<? super T>> getInjectionListeners() {
+    return injectionListeners;
+  }
+
   public void injectMembers(T instance) {
     Errors errors = new Errors(typeLiteral);
     try {
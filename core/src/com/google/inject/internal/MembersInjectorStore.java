@@ -87,7 +87,7 @@ final class MembersInjectorStore {
 
     Set<InjectionPoint> injectionPoints;
     try {
-      injectionPoints = InjectionPoint.forInstanceMethodsAndFields(type);
+      injectionPoints = MetadataCache.INSTANCE.forInstanceMethodsAndFields(type);
     } catch (ConfigurationException e) {
       errors.merge(e.getErrorMessages());
       injectionPoints = e.getPartialValue();
@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.ConfigurationException;
+import com.google.inject.Provides;
+import com.google.inject.TypeLiteral;
+import com.google.inject.internal.util.Function;
+import com.google.inject.internal.util.ImmutableList;
+import com.google.inject.internal.util.MapMaker;
+import com.google.inject.internal.util.Nullable;
+import com.google.inject.spi.InjectionPoint;
+import com.google.inject.spi.Message;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Injection points and generated accessors that depend only on a class, so that every injector in
+ * the process can share them rather than reflecting over and generating code for the same classes
+ * again. Anything configured by an injector's modules, such as type listeners and method
+ * interceptors, stays with the injector.
+ *
+ * <p>Sharing is off unless the {@code guice.share.metadata} system property is {@code true}.
+ * Classes are weakly referenced, but their metadata refers to them and is only softly referenced,
+ * so the classes of discarded injectors are unloaded once their memory is needed.
+ */
+final class MetadataCache {
+
+  /** Use "-Dguice.share.metadata=true" to share metadata between injectors. */
+  static final MetadataCache INSTANCE
+      = new MetadataCache(Boolean.parseBoolean(System.getProperty("guice.share.metadata")));
+
+  private final boolean enabled;
+
+  private final Map<Class<?>, ClassMetadata> classes = new MapMaker().weakKeys().softValues()
+      .makeComputingMap(new Function<Class<?>, ClassMetadata>() {
+        public ClassMetadata apply(@Nullable Class<?> type) {
+          return new ClassMetadata();
+        }
+      });
+
+  MetadataCache(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /** Like {@link InjectionPoint#forConstructorOf(TypeLiteral)}. */
+  InjectionPoint forConstructorOf(TypeLiteral<?> type) {
+    if (!enabled) {
+      return newConstructorInjectionPoint(type);
+    }
+
+    Map<TypeLiteral<?>, Object> constructors = classes.get(type.getRawType()).constructors;
+    Object result = constructors.get(type);
+    if (result == null) {
+      try {
+        result = newConstructorInjectionPoint(type);
+      } catch (ConfigurationException e) {
+        result = new Failure(e);
+      }
+      constructors.put(type, result);
+    }
+    return (InjectionPoint) checkFailure(result);
+  }
+
+  /** Like {@link InjectionPoint#forInstanceMethodsAndFields(TypeLiteral)}. */
+  Set<InjectionPoint> forInstanceMethodsAndFields(TypeLiteral<?> type) {
+    if (!enabled) {
+      return newMemberInjectionPoints(type);
+    }
+
+    Map<TypeLiteral<?>, Object> members = classes.get(type.getRawType()).members;
+    Object result = members.get(type);
+    if (result == null) {
+      try {
+        result = newMemberInjectionPoints(type);
+      } catch (ConfigurationException e) {
+        result = new Failure(e);
+      }
+      members.put(type, result);
+    }
+    @SuppressWarnings("unchecked") // we only store sets of injection points for members
+    Set<InjectionPoint> injectionPoints = (Set<InjectionPoint>) checkFailure(result);
+    return injectionPoints;
+  }
+
+  private static InjectionPoint newConstructorInjectionPoint(TypeLiteral<?> type) {
+    CreationProfiler profiler = CreationProfiler.current();
+    long start = profiler != null ? System.nanoTime() : 0;
+    try {
+      return InjectionPoint.forConstructorOf(type);
+    } finally {
+      if (profiler != null) {
+        profiler.addReflection(start);
+      }
+    }
+  }
+
+  private static Set<InjectionPoint> newMemberInjectionPoints(TypeLiteral<?> type) {
+    CreationProfiler profiler = CreationProfiler.current();
+    long start = profiler != null ? System.nanoTime() : 0;
+    try {
+      return InjectionPoint.forInstanceMethodsAndFields(type);
+    } finally {
+      if (profiler != null) {
+        profiler.addReflection(start);
+      }
+    }
+  }
+
+  /*if[AOP]*/
+  /** Like {@link BytecodeGen#newFastClass}, for a constructor. */
+  net.sf.cglib.reflect.FastConstructor getFastConstructor(java.lang.reflect.Constructor<?> c) {
+    net.sf.cglib.reflect.FastConstructor result = (net.sf.cglib.reflect.FastConstructor)
+        getAccessor(c);
+    if (result == null) {
+      CreationProfiler profiler = CreationProfiler.current();
+      long start = profiler != null ? System.nanoTime() : 0;
+      result = BytecodeGen.newFastClass(c.getDeclaringClass(), BytecodeGen.Visibility.forMember(c))
+          .getConstructor(c);
+      if (profiler != null) {
+        profiler.addBytecodeGeneration(start);
+      }
+      putAccessor(c, result);
+    }
+    return result;
+  }
+
+  /** Like {@link BytecodeGen#newFastClass}, for a method. */
+  net.sf.cglib.reflect.FastMethod getFastMethod(java.lang.reflect.Method method) {
+    net.sf.cglib.reflect.FastMethod result = (net.sf.cglib.reflect.FastMethod) getAccessor(method);
+    if (result == null) {
+      CreationProfiler profiler = CreationProfiler.current();
+      long start = profiler != null ? System.nanoTime() : 0;
+      result = BytecodeGen.newFastClass(method.getDeclaringClass(),
+          BytecodeGen.Visibility.forMember(method)).getMethod(method);
+      if (profiler != null) {
+        profiler.addBytecodeGeneration(start);
+      }
+      putAccessor(method, result);
+    }
+    return result;
+  }
+
+  /** Like {@link BytecodeGen#newFieldSetter}, except that this never returns null. */
+  BytecodeGen.FieldSetter getFieldSetter(java.lang.reflect.Field field) {
+    Object result = getAccessor(field);
+    if (result == null) {
+      CreationProfiler profiler = CreationProfiler.current();
+      long start = profiler != null ? System.nanoTime() : 0;
+      BytecodeGen.FieldSetter fieldSetter = BytecodeGen.newFieldSetter(field);
+      if (profiler != null) {
+        profiler.addBytecodeGeneration(start);
+      }
+      result = fieldSetter != null ? fieldSetter : NO_FIELD_SETTER;
+      putAccessor(field, result);
+    }
+    return result != NO_FIELD_SETTER ? (BytecodeGen.FieldSetter) result : null;
+  }
+
+  private static final Object NO_FIELD_SETTER = new Object();
+
+  private Object getAccessor(Member member) {
+    return enabled ? classes.get(member.getDeclaringClass()).accessors.get(member) : null;
+  }
+
+  private void putAccessor(Member member, Object accessor) {
+    if (enabled) {
+      classes.get(member.getDeclaringClass()).accessors.put(member, accessor);
+    }
+  }
+  /*end[AOP]*/
+
+  /**
+   * Returns the methods of {@code type} and its superclasses that are annotated with {@literal
+   * @}{@link Provides}. Modules are often installed many times, as when each child injector
+   * installs the same modules.
+   */
+  List<Method> getProvidesMethods(Class<?> type) {
+    if (!enabled) {
+      return findProvidesMethods(type);
+    }
+
+    ClassMetadata metadata = classes.get(type);
+    List<Method> result = metadata.providesMethods;
+    if (result == null) {
+      result = findProvidesMethods(type);
+      metadata.providesMethods = result;
+    }
+    return result;
+  }
+
+  private static List<Method> findProvidesMethods(Class<?> type) {
+    ImmutableList.Builder<Method> result = ImmutableList.builder();
+    for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+      for (Method method : c.getDeclaredMethods()) {
+        if (method.isAnnotationPresent(Provides.class)) {
+          result.add(method);
+        }
+      }
+    }
+    return result.build();
+  }
+
+  /** Like {@link CircularProxyFactory#newFactory}. */
+  CircularProxyFactory getCircularProxyFactory(Class<?> type, boolean generate) {
+    if (!enabled) {
+      return CircularProxyFactory.newFactory(type, generate);
+    }
+
+    ClassMetadata metadata = classes.get(type);
+    CircularProxyFactory result = metadata.circularProxyFactory;
+    if (result == null) {
+      result = CircularProxyFactory.newFactory(type, generate);
+      metadata.circularProxyFactory = result;
+    }
+    return result;
+  }
+
+  private static Object checkFailure(Object result) {
+    if (result instanceof Failure) {
+      Failure failure = (Failure) result;
+      ConfigurationException exception = new ConfigurationException(failure.messages);
+      throw failure.partialValue != null
+          ? exception.withPartialValue(failure.partialValue)
+          : exception;
+    }
+    return result;
+  }
+
+  /** The metadata of one class. Races to create metadata are harmless. */
+  private static class ClassMetadata {
+    final Map<TypeLiteral<?>, Object> constructors
+        = new ConcurrentHashMap<TypeLiteral<?>, Object>();
+    final Map<TypeLiteral<?>, Object> members = new ConcurrentHashMap<TypeLiteral<?>, Object>();
+    final Map<Member, Object> accessors = new ConcurrentHashMap<Member, Object>();
+    volatile List<Method> providesMethods;
+    volatile CircularProxyFactory circularProxyFactory;
+  }
+
+  /** A configuration exception, which is thrown anew each time it's looked up. */
+  private static class Failure {
+    final Collection<Message> messages;
+    final Object partialValue;
+
+    Failure(ConfigurationException e) {
+      this.messages = e.getErrorMessages();
+      this.partialValue = e.getPartialValue();
+    }
+  }
+}
@@ -0,0 +1,317 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.Binding;
+import com.google.inject.Key;
+import com.google.inject.internal.util.Join;
+import com.google.inject.internal.util.Lists;
+import com.google.inject.internal.util.Maps;
+import com.google.inject.internal.util.Sets;
+import com.google.inject.spi.Dependency;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates eager singletons on a pool of threads. Singletons are grouped by the component of the
+ * dependency graph they belong to (see {@link SingletonLocks}); a component is only created once
+ * every component it depends upon has been created, so singletons never wait on one another.
+ * Errors are reported in the same order as if the singletons were created one at a time.
+ *
+ * <p>Dependencies that singletons look up at runtime, rather than have injected, aren't visible
+ * when planning. They still work, but may wait for other threads to finish creating them.
+ *
+ * <p>Once loading is complete, the longest chain of dependent components is logged at {@code
+ * FINE}. That chain bounds how fast startup can be, no matter how many threads are used.
+ */
+final class ParallelSingletonLoader {
+
+  private static final Logger logger = Logger.getLogger(ParallelSingletonLoader.class.getName());
+
+  private final InjectorImpl injector;
+  private final int threadCount;
+  private final CreationProfiler profiler = CreationProfiler.current();
+
+  ParallelSingletonLoader(InjectorImpl injector, int threadCount) {
+    this.injector = injector;
+    this.threadCount = threadCount;
+  }
+
+  /** Creates {@code singletons}, which must be bound in this loader's injector. */
+  void load(List<BindingImpl<?>> singletons, Errors errors) {
+    List<Task> tasks = plan(singletons);
+    if (tasks.isEmpty()) {
+      return;
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(
+        Math.min(threadCount, tasks.size()), new LoaderThreadFactory());
+    final Progress progress = new Progress();
+    try {
+      for (final Task task : tasks) {
+        task.runner = new Runnable() {
+          public void run() {
+            Throwable failure = null;
+            try {
+              if (!progress.hasFailed()) {
+                task.run();
+              }
+            } catch (Throwable t) {
+              failure = t;
+            }
+            synchronized (progress) {
+              if (failure != null && progress.unexpected == null) {
+                progress.unexpected = failure;
+              }
+              // once something has failed, let the running tasks finish but don't start any more
+              if (progress.unexpected == null) {
+                for (Task dependent : task.dependents) {
+                  if (dependent.remainingDependencies.decrementAndGet() == 0) {
+                    progress.execute(executor, dependent);
+                  }
+                }
+              }
+              progress.running--;
+              progress.notifyAll();
+            }
+          }
+        };
+      }
+
+      synchronized (progress) {
+        for (Task task : tasks) {
+          if (task.remainingDependencies.get() == 0) {
+            progress.execute(executor, task);
+          }
+        }
+        // wait for the tasks that are already running, even if interrupted, so none of them
+        // schedules another after the executor is shut down
+        boolean interrupted = false;
+        while (progress.running > 0) {
+          try {
+            progress.wait();
+          } catch (InterruptedException e) {
+            interrupted = true;
+            if (progress.unexpected == null) {
+              progress.unexpected =
+                  new RuntimeException("Interrupted while creating eager singletons", e);
+            }
+          }
+        }
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    synchronized (progress) {
+      if (progress.unexpected instanceof RuntimeException) {
+        throw (RuntimeException) progress.unexpected;
+      } else if (progress.unexpected instanceof Error) {
+        throw (Error) progress.unexpected;
+      }
+    }
+
+    // merge errors in creation order so the reported messages don't depend on thread timing
+    Map<BindingImpl<?>, Errors> errorsByBinding = Maps.newIdentityHashMap();
+    for (Task task : tasks) {
+      errorsByBinding.putAll(task.errors);
+    }
+    for (BindingImpl<?> singleton : singletons) {
+      Errors errorsForBinding = errorsByBinding.get(singleton);
+      if (errorsForBinding != null) {
+        errors.merge(errorsForBinding);
+      }
+    }
+
+    logCriticalPath(tasks);
+  }
+
+  /**
+   * Returns a task for each component that contains a singleton, with dependencies linked. Tasks
+   * are returned in the order that their first singleton appears in {@code singletons}.
+   */
+  private List<Task> plan(List<BindingImpl<?>> singletons) {
+    Map<CycleDetectingLock, Task> tasksByComponent = Maps.newIdentityHashMap();
+    List<Task> tasks = Lists.newArrayList();
+    for (BindingImpl<?> singleton : singletons) {
+      CycleDetectingLock component = injector.singletonLocks.get(singleton.getKey());
+      Task task = tasksByComponent.get(component);
+      if (task == null) {
+        task = new Task();
+        tasksByComponent.put(component, task);
+        tasks.add(task);
+      }
+      task.singletons.add(singleton);
+    }
+
+    // find the nearest tasks each task depends on, looking through bindings that aren't eager
+    for (Task task : tasks) {
+      Set<Key<?>> visited = Sets.newHashSet();
+      List<Key<?>> toVisit = Lists.newArrayList();
+      for (BindingImpl<?> singleton : task.singletons) {
+        toVisit.add(singleton.getKey());
+      }
+      while (!toVisit.isEmpty()) {
+        Key<?> key = toVisit.remove(toVisit.size() - 1);
+        if (!visited.add(key)) {
+          continue;
+        }
+        BindingImpl<?> binding = getBindingThisLevel(key);
+        if (binding == null) {
+          continue; // bound in a parent injector, whose singletons are already loaded
+        }
+        Task dependency = tasksByComponent.get(injector.singletonLocks.get(key));
+        if (dependency != null && dependency != task) {
+          if (dependency.dependents.add(task)) {
+            task.remainingDependencies.incrementAndGet();
+            task.dependencies.add(dependency);
+          }
+          continue;
+        }
+        for (Dependency<?> d : injector.getInternalDependencies(binding)) {
+          toVisit.add(d.getKey());
+        }
+      }
+    }
+
+    return tasks;
+  }
+
+  private BindingImpl<?> getBindingThisLevel(Key<?> key) {
+    Binding<?> binding = injector.state.getExplicitBindingsThisLevel().get(key);
+    return binding != null ? (BindingImpl<?>) binding : injector.jitBindings.get(key);
+  }
+
+  /**
+   * Logs the slowest chain of tasks at {@code FINE}. That chain is the minimum time to create
+   * every singleton.
+   */
+  private void logCriticalPath(List<Task> tasks) {
+    if (!logger.isLoggable(Level.FINE)) {
+      return;
+    }
+
+    // tasks are ordered by discovery, not dependency order, so resolve finish times recursively
+    Map<Task, Long> finishTimes = Maps.newIdentityHashMap();
+    Task last = null;
+    for (Task task : tasks) {
+      if (last == null || finishTime(task, finishTimes) > finishTime(last, finishTimes)) {
+        last = task;
+      }
+    }
+
+    List<String> path = Lists.newArrayList();
+    for (Task task = last; task != null; task = task.slowestDependency(finishTimes)) {
+      path.add(String.format("%s (%sms)", task.singletons.get(0).getKey(),
+          task.nanos / 1000000));
+    }
+    Collections.reverse(path);
+    logger.fine(String.format("Eager singletons critical path: %sms over %s task(s)%n  %s",
+        finishTime(last, finishTimes) / 1000000, tasks.size(),
+        Join.join(String.format("%n  "), path)));
+  }
+
+  private static long finishTime(Task task, Map<Task, Long> finishTimes) {
+    Long finishTime = finishTimes.get(task);
+    if (finishTime == null) {
+      long startTime = 0;
+      for (Task dependency : task.dependencies) {
+        startTime = Math.max(startTime, finishTime(dependency, finishTimes));
+      }
+      finishTime = startTime + task.nanos;
+      finishTimes.put(task, finishTime);
+    }
+    return finishTime;
+  }
+
+  /** The eager singletons in one component of the dependency graph. */
+  private class Task {
+    final List<BindingImpl<?>> singletons = Lists.newArrayList();
+    final List<Task> dependencies = Lists.newArrayList();
+    final Set<Task> dependents = Sets.newLinkedHashSet();
+    final AtomicInteger remainingDependencies = new AtomicInteger();
+    final Map<BindingImpl<?>, Errors> errors = Maps.newIdentityHashMap();
+    Runnable runner;
+    long nanos;
+
+    void run() {
+      long start = System.nanoTime();
+      CreationProfiler previousProfiler = CreationProfiler.setCurrent(profiler);
+      try {
+        for (BindingImpl<?> singleton : singletons) {
+          Errors errorsForBinding = new Errors();
+          InternalInjectorCreator.loadEagerSingleton(injector, singleton, errorsForBinding);
+          if (errorsForBinding.hasErrors()) {
+            errors.put(singleton, errorsForBinding);
+          }
+        }
+      } finally {
+        CreationProfiler.setCurrent(previousProfiler);
+      }
+      nanos = System.nanoTime() - start;
+    }
+
+    Task slowestDependency(Map<Task, Long> finishTimes) {
+      Task slowest = null;
+      for (Task dependency : dependencies) {
+        if (slowest == null
+            || finishTime(dependency, finishTimes) > finishTime(slowest, finishTimes)) {
+          slowest = dependency;
+        }
+      }
+      return slowest;
+    }
+  }
+
+  /** Tracks the tasks that are running or queued, and the first unexpected failure of any. */
+  private static class Progress {
+    int running;
+    Throwable unexpected;
+
+    synchronized boolean hasFailed() {
+      return unexpected != null;
+    }
+
+    /** Queues {@code task}. Callers must hold this object's monitor. */
+    void execute(ExecutorService executor, Task task) {
+      executor.execute(task.runner);
+      running++;
+    }
+  }
+
+  private static class LoaderThreadFactory implements ThreadFactory {
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable,
+          "Guice eager singleton loader #" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -42,6 +42,7 @@ import java.util.logging.Logger;
  * @author jessewilson@google.com (Jesse Wilson)
  */
 public final class ProviderMethodsModule implements Module {
+
   private final Object delegate;
   private final TypeLiteral<?> typeLiteral;
 
@@ -77,12 +78,8 @@ public final class ProviderMethodsModule implements Module {
 
   public List<ProviderMethod<?>> getProviderMethods(Binder binder) {
     List<ProviderMethod<?>> result = Lists.newArrayList();
-    for (Class<?> c = delegate.getClass(); c != Object.class; c = c.getSuperclass()) {
-      for (Method method : c.getDeclaredMethods()) {
-        if (method.isAnnotationPresent(Provides.class)) {
-          result.add(createProviderMethod(binder, method));
-        }
-      }
+    for (Method method : MetadataCache.INSTANCE.getProvidesMethods(delegate.getClass())) {
+      result.add(createProviderMethod(binder, method));
     }
     return result;
   }
@@ -18,7 +18,6 @@ package com.google.inject.internal;
 
 import com.google.inject.Provider;
 import com.google.inject.ProvisionException;
-import com.google.inject.spi.Dependency;
 
 /**
  * @author crazybob@google.com (Bob Lee)
@@ -34,22 +33,25 @@ final class ProviderToInternalFactoryAdapter<T> implements Provider<T> {
     this.internalFactory = internalFactory;
   }
 
+  /** Returns the injector that owns the adapted factory. */
+  InjectorImpl getInjector() {
+    return injector;
+  }
+
   public T get() {
-    final Errors errors = new Errors();
+    InternalContext context = injector.enterContext();
+    Errors errors = context.getErrorsForProvision();
     try {
-      T t = injector.callInContext(new ContextualCallable<T>() {
-        public T call(InternalContext context) throws ErrorsException {
-          Dependency dependency = context.getDependency();
-          // Always pretend that we are a linked binding, to support
-          // scoping implicit bindings.  If we are not actually a linked
-          // binding, we'll fail properly elsewhere in the chain.
-          return internalFactory.get(errors, context, dependency, true);
-        }
-      });
+      // Always pretend that we are a linked binding, to support
+      // scoping implicit bindings.  If we are not actually a linked
+      // binding, we'll fail properly elsewhere in the chain.
+      T t = internalFactory.get(errors, context, context.getDependency(), true);
       errors.throwIfNewErrors(0);
       return t;
     } catch (ErrorsException e) {
       throw new ProvisionException(errors.merge(e.getErrors()).getMessages());
+    } finally {
+      context.exit();
     }
   }
 
@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.Key;
+import com.google.inject.internal.util.Lists;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.ProvisionListener;
+import com.google.inject.spi.ProvisionListenerBinding;
+import java.util.List;
+
+/**
+ * Times the instances provisioned by a binding's unscoped factory and notifies the provision
+ * listeners that match the binding. The binding doesn't exist yet when its factory is created, so
+ * the matching listeners are found when it first provisions an instance.
+ */
+final class ProvisionListenerFactory<T> implements InternalFactory<T> {
+
+  private static final ProvisionListener[] NO_LISTENERS = {};
+
+  private final InjectorImpl injector;
+  private final Key<T> key;
+  private final InternalFactory<? extends T> delegate;
+
+  private volatile BindingImpl<T> binding; // lazy
+  private volatile ProvisionListener[] listeners; // lazy
+
+  private ProvisionListenerFactory(
+      InjectorImpl injector, Key<T> key, InternalFactory<? extends T> delegate) {
+    this.injector = injector;
+    this.key = key;
+    this.delegate = delegate;
+  }
+
+  /**
+   * Returns a factory that notifies provision listeners of the instances provisioned by {@code
+   * factory}. This returns {@code factory} itself if {@code injector} has no provision listeners.
+   */
+  static <T> InternalFactory<? extends T> wrap(
+      InjectorImpl injector, Key<T> key, InternalFactory<? extends T> factory) {
+    return injector.state.getProvisionListenerBindings().isEmpty()
+        ? factory
+        : new ProvisionListenerFactory<T>(injector, key, factory);
+  }
+
+  public T get(Errors errors, InternalContext context, Dependency<?> dependency, boolean linked)
+      throws ErrorsException {
+    ProvisionListener[] listeners = getListeners();
+    if (listeners.length == 0) {
+      return delegate.get(errors, context, dependency, linked);
+    }
+
+    long start = System.nanoTime();
+    T t = delegate.get(errors, context, dependency, linked);
+    long nanos = System.nanoTime() - start;
+    for (ProvisionListener listener : listeners) {
+      try {
+        listener.onProvision(binding, nanos);
+      } catch (RuntimeException e) {
+        throw errors.errorNotifyingProvisionListener(listener, key, e).toException();
+      }
+    }
+    return t;
+  }
+
+  private ProvisionListener[] getListeners() {
+    ProvisionListener[] result = listeners;
+    if (result != null) {
+      return result;
+    }
+
+    BindingImpl<T> binding = injector.state.getExplicitBinding(key);
+    if (binding == null) {
+      @SuppressWarnings("unchecked") // we only put bindings of T under Key<T>
+      BindingImpl<T> jitBinding = (BindingImpl<T>) injector.jitBindings.get(key);
+      binding = jitBinding;
+    }
+    if (binding == null) {
+      return NO_LISTENERS; // the binding was never added or failed, so don't remember this
+    }
+
+    List<ProvisionListener> matched = Lists.newArrayList();
+    for (ProvisionListenerBinding listenerBinding : injector.state.getProvisionListenerBindings()) {
+      if (listenerBinding.getBindingMatcher().matches(binding)) {
+        matched.addAll(listenerBinding.getListeners());
+      }
+    }
+    this.binding = binding;
+    result = matched.toArray(new ProvisionListener[matched.size()]);
+    listeners = result;
+    return result;
+  }
+
+  @Override public String toString() {
+    return delegate.toString();
+  }
+}
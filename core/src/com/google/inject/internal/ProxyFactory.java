@@ -17,17 +17,23 @@
 package com.google.inject.internal;
 
 import static com.google.inject.internal.BytecodeGen.newFastClass;
+import com.google.inject.internal.util.Function;
 import com.google.inject.internal.util.ImmutableList;
 import com.google.inject.internal.util.ImmutableMap;
 import com.google.inject.internal.util.Lists;
+import com.google.inject.internal.util.MapMaker;
 import com.google.inject.internal.util.Maps;
+import com.google.inject.internal.util.Nullable;
 import com.google.inject.spi.InjectionPoint;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -48,9 +54,24 @@ final class ProxyFactory<T> implements ConstructionProxyFactory<T> {
   
   private static final Logger logger = Logger.getLogger(ProxyFactory.class.getName());
 
+  /**
+   * The proxy classes of each intercepted class, shared by all injectors. Proxy classes refer to
+   * the classes they extend, so they're only weakly referenced: like cglib's own cache, this
+   * keeps them while an injector's construction proxies refer to them, and lets them be unloaded
+   * with their classloader.
+   */
+  private static final Map<Class<?>, ProxyClasses> PROXY_CLASSES
+      = new MapMaker().weakKeys().weakValues().makeComputingMap(
+          new Function<Class<?>, ProxyClasses>() {
+            public ProxyClasses apply(@Nullable Class<?> declaringClass) {
+              return new ProxyClasses(declaringClass);
+            }
+          });
+
   private final InjectionPoint injectionPoint;
   private final ImmutableMap<Method, List<MethodInterceptor>> interceptors;
   private final Class<T> declaringClass;
+  private final ProxyClasses proxyClasses;
   private final List<Method> methods;
   private final Callback[] callbacks;
 
@@ -77,14 +98,16 @@ final class ProxyFactory<T> implements ConstructionProxyFactory<T> {
 
     if (applicableAspects.isEmpty()) {
       interceptors = ImmutableMap.of();
+      proxyClasses = null;
       methods = ImmutableList.of();
       callbacks = null;
       return;
     }
 
-    // Get list of methods from cglib.
-    methods = Lists.newArrayList();
-    Enhancer.getMethods(declaringClass, null, methods);
+    // Get list of methods from cglib. The indices of methods in this list identify them in the
+    // callback filter, so they must come from the same ProxyClasses we'll get the proxy from.
+    proxyClasses = PROXY_CLASSES.get(declaringClass);
+    methods = proxyClasses.methods;
 
     // Create method/interceptor holders and record indices.
     List<MethodInterceptorsPair> methodInterceptorsPairs = Lists.newArrayList();
@@ -153,28 +176,70 @@ final class ProxyFactory<T> implements ConstructionProxyFactory<T> {
       return new DefaultConstructionProxyFactory<T>(injectionPoint).create();
     }
 
+    // The intercepted methods determine the proxy class, its visibility and so its classloader.
+    // The interceptors themselves are this injector's, and are registered per instance.
+    BitSet intercepted = new BitSet(callbacks.length);
+    for (int i = 0; i < callbacks.length; i++) {
+      if (callbacks[i] != net.sf.cglib.proxy.NoOp.INSTANCE) {
+        intercepted.set(i);
+      }
+    }
+
+    try {
+      ProxyClass proxyClass = proxyClasses.byInterceptedMethods.get(intercepted);
+      if (proxyClass == null) {
+        // races to create the same proxy class are harmless; cglib returns the one it created first
+        proxyClass = newProxyClass(intercepted);
+        proxyClasses.byInterceptedMethods.put(intercepted, proxyClass);
+      }
+      return new ProxyConstructor<T>(
+          proxyClasses, proxyClass, injectionPoint, callbacks, interceptors);
+    } catch (Throwable e) {
+      throw new Errors().errorEnhancingClass(declaringClass, e).toException();
+    }
+  }
+
+  private ProxyClass newProxyClass(BitSet intercepted) {
     @SuppressWarnings("unchecked")
     Class<? extends Callback>[] callbackTypes = new Class[callbacks.length];
     for (int i = 0; i < callbacks.length; i++) {
-      if (callbacks[i] == net.sf.cglib.proxy.NoOp.INSTANCE) {
-        callbackTypes[i] = net.sf.cglib.proxy.NoOp.class;
-      } else {
-        callbackTypes[i] = net.sf.cglib.proxy.MethodInterceptor.class;
-      }
+      callbackTypes[i] = intercepted.get(i)
+          ? net.sf.cglib.proxy.MethodInterceptor.class
+          : net.sf.cglib.proxy.NoOp.class;
     }
 
     // Create the proxied class. We're careful to ensure that all enhancer state is not-specific
     // to this injector. Otherwise, the proxies for each injector will waste PermGen memory
+    CreationProfiler profiler = CreationProfiler.current();
+    long start = profiler != null ? System.nanoTime() : 0;
     try {
-    Enhancer enhancer = BytecodeGen.newEnhancer(declaringClass, visibility);
-    enhancer.setCallbackFilter(new IndicesCallbackFilter(declaringClass, methods));
-    enhancer.setCallbackTypes(callbackTypes);
-    return new ProxyConstructor<T>(enhancer, injectionPoint, callbacks, interceptors);
-    } catch (Throwable e) {
-      throw new Errors().errorEnhancingClass(declaringClass, e).toException();
+      Enhancer enhancer = BytecodeGen.newEnhancer(declaringClass, visibility);
+      enhancer.setCallbackFilter(proxyClasses.callbackFilter);
+      enhancer.setCallbackTypes(callbackTypes);
+      BytecodeCache.INSTANCE.apply(enhancer, declaringClass, describeLayout(intercepted));
+      return new ProxyClass(enhancer.createClass()); // this returns a cached class if possible
+    } finally {
+      if (profiler != null) {
+        profiler.addBytecodeGeneration(start);
+      }
     }
   }
 
+  /**
+   * Describes the generated class for {@link BytecodeCache}. The proxy calls callbacks by the
+   * indices of their methods, so the order of methods is part of the layout.
+   */
+  private String describeLayout(BitSet intercepted) {
+    StringBuilder result = new StringBuilder().append("Enhancer ").append(visibility);
+    for (int i = 0; i < methods.size(); i++) {
+      Method method = methods.get(i);
+      result.append(' ').append(method.getDeclaringClass().getName()).append('.')
+          .append(method.getName()).append(Arrays.toString(method.getParameterTypes()))
+          .append(intercepted.get(i) ? "*" : "");
+    }
+    return result.toString();
+  }
+
   private static class MethodInterceptorsPair {
     final Method method;
     List<MethodInterceptor> interceptors; // lazy
@@ -195,6 +260,49 @@ final class ProxyFactory<T> implements ConstructionProxyFactory<T> {
     }
   }
 
+  /** The methods of a class and the proxy classes that intercept them. */
+  private static class ProxyClasses {
+    final ImmutableList<Method> methods;
+    final IndicesCallbackFilter callbackFilter;
+    final Map<BitSet, ProxyClass> byInterceptedMethods
+        = new ConcurrentHashMap<BitSet, ProxyClass>();
+
+    ProxyClasses(Class<?> declaringClass) {
+      List<Method> methods = Lists.newArrayList();
+      Enhancer.getMethods(declaringClass, null, methods);
+      this.methods = ImmutableList.copyOf(methods);
+      this.callbackFilter = new IndicesCallbackFilter(declaringClass, methods);
+    }
+  }
+
+  /** A proxy class and the accessors of its constructors. */
+  private static class ProxyClass {
+    final Class<?> enhanced;
+    final Map<Constructor<?>, FastConstructor> fastConstructors
+        = new ConcurrentHashMap<Constructor<?>, FastConstructor>();
+
+    ProxyClass(Class<?> enhanced) {
+      this.enhanced = enhanced;
+    }
+
+    /** Returns the accessor of the proxy's constructor that calls {@code constructor}. */
+    FastConstructor getFastConstructor(Constructor<?> constructor) {
+      FastConstructor result = fastConstructors.get(constructor);
+      if (result == null) {
+        CreationProfiler profiler = CreationProfiler.current();
+        long start = profiler != null ? System.nanoTime() : 0;
+        FastClass fastClass
+            = newFastClass(enhanced, BytecodeGen.Visibility.forMember(constructor));
+        result = fastClass.getConstructor(constructor.getParameterTypes());
+        if (profiler != null) {
+          profiler.addBytecodeGeneration(start);
+        }
+        fastConstructors.put(constructor, result);
+      }
+      return result;
+    }
+  }
+
   /**
    * A callback filter that maps methods to unique IDs. We define equals and hashCode using the
    * declaring class so that enhanced classes can be shared between injectors.
@@ -232,6 +340,8 @@ final class ProxyFactory<T> implements ConstructionProxyFactory<T> {
    * Constructs instances that participate in AOP.
    */
   private static class ProxyConstructor<T> implements ConstructionProxy<T> {
+    /** Keeps the cached proxy classes of the declaring class while this injector uses them. */
+    final ProxyClasses proxyClasses;
     final Class<?> enhanced;
     final InjectionPoint injectionPoint;
     final Constructor<T> constructor;
@@ -241,16 +351,16 @@ final class ProxyFactory<T> implements ConstructionProxyFactory<T> {
     final ImmutableMap<Method, List<MethodInterceptor>> methodInterceptors;
 
     @SuppressWarnings("unchecked") // the constructor promises to construct 'T's
-    ProxyConstructor(Enhancer enhancer, InjectionPoint injectionPoint, Callback[] callbacks,
+    ProxyConstructor(ProxyClasses proxyClasses, ProxyClass proxyClass,
+        InjectionPoint injectionPoint, Callback[] callbacks,
         ImmutableMap<Method, List<MethodInterceptor>> methodInterceptors) {
-      this.enhanced = enhancer.createClass(); // this returns a cached class if possible
+      this.proxyClasses = proxyClasses;
+      this.enhanced = proxyClass.enhanced;
       this.injectionPoint = injectionPoint;
       this.constructor = (Constructor<T>) injectionPoint.getMember();
       this.callbacks = callbacks;
       this.methodInterceptors = methodInterceptors;
-
-      FastClass fastClass = newFastClass(enhanced, BytecodeGen.Visibility.forMember(constructor));
-      this.fastConstructor = fastClass.getConstructor(constructor.getParameterTypes());
+      this.fastConstructor = proxyClass.getFastConstructor(constructor);
     }
 
     @SuppressWarnings("unchecked") // the constructor promises to produce 'T's
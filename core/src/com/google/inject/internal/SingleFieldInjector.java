@@ -16,6 +16,7 @@
 
 package com.google.inject.internal;
 
+import com.google.inject.internal.BytecodeGen.FieldSetter;
 import com.google.inject.internal.InjectorImpl.JitLimitation;
 import com.google.inject.spi.Dependency;
 import com.google.inject.spi.InjectionPoint;
@@ -29,6 +30,8 @@ final class SingleFieldInjector implements SingleMemberInjector {
   final InjectionPoint injectionPoint;
   final Dependency<?> dependency;
   final InternalFactory<?> factory;
+  /** Null if the field must be set reflectively. */
+  final FieldSetter fieldSetter;
 
   public SingleFieldInjector(InjectorImpl injector, InjectionPoint injectionPoint, Errors errors)
       throws ErrorsException {
@@ -36,11 +39,32 @@ final class SingleFieldInjector implements SingleMemberInjector {
     this.field = (Field) injectionPoint.getMember();
     this.dependency = injectionPoint.getDependencies().get(0);
 
-    // Ewwwww...
-    field.setAccessible(true);
+    fieldSetter = createFieldSetter(field);
+    if (fieldSetter == null) {
+      // Ewwwww...
+      field.setAccessible(true);
+    }
     factory = injector.getInternalFactory(dependency.getKey(), errors, JitLimitation.NO_JIT);
   }
 
+  private static FieldSetter createFieldSetter(Field field) {
+    /*if[AOP]*/
+    try {
+      return MetadataCache.INSTANCE.getFieldSetter(field);
+    } catch (net.sf.cglib.core.CodeGenerationException e) {/* fall-through */}
+    /*end[AOP]*/
+    return null;
+  }
+
+  /** Assigns {@code value} to the field on {@code o}. */
+  void set(Object o, Object value) throws IllegalAccessException {
+    if (fieldSetter != null) {
+      fieldSetter.set(o, value);
+    } else {
+      field.set(o, value);
+    }
+  }
+
   public InjectionPoint getInjectionPoint() {
     return injectionPoint;
   }
@@ -51,7 +75,7 @@ final class SingleFieldInjector implements SingleMemberInjector {
     Dependency previous = context.setDependency(dependency);
     try {
       Object value = factory.get(errors, context, dependency, false);
-      field.set(o, value);
+      set(o, value);
     } catch (ErrorsException e) {
       errors.withSource(injectionPoint).merge(e.getErrors());
     } catch (IllegalAccessException e) {
@@ -16,7 +16,6 @@
 
 package com.google.inject.internal;
 
-import com.google.inject.internal.BytecodeGen.Visibility;
 import com.google.inject.internal.InjectorImpl.MethodInvoker;
 import com.google.inject.spi.InjectionPoint;
 import java.lang.reflect.InvocationTargetException;
@@ -47,8 +46,7 @@ final class SingleMethodInjector implements SingleMemberInjector {
       /*if[AOP]*/
       try {
       final net.sf.cglib.reflect.FastMethod fastMethod
-          = BytecodeGen.newFastClass(method.getDeclaringClass(), Visibility.forMember(method))
-              .getMethod(method);
+          = MetadataCache.INSTANCE.getFastMethod(method);
 
       return new MethodInvoker() {
         public Object invoke(Object target, Object... parameters)
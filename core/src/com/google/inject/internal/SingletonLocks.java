@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.Binding;
+import com.google.inject.Key;
+import com.google.inject.internal.util.Lists;
+import com.google.inject.internal.util.Maps;
+import com.google.inject.internal.util.Sets;
+import com.google.inject.spi.Dependency;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hands out the locks guarding singleton creation in an injector. Bindings that depend on each
+ * other, directly or through other bindings, form a strongly connected component of the
+ * dependency graph; every binding in a component shares one lock. Creating singletons from
+ * independent components never contends, while circular dependencies still resolve on a single
+ * thread thanks to the locks being re-entrant.
+ *
+ * <p>Components are found lazily, by running Tarjan's algorithm from the first key that asks for
+ * a lock. Bindings are immutable, so a component is complete once discovered; just-in-time
+ * bindings created later can't join it.
+ */
+final class SingletonLocks {
+
+  private final InjectorImpl injector;
+
+  /** Guarded by injector.state.lock() */
+  private final Map<Key<?>, CycleDetectingLock> locks = Maps.newHashMap();
+
+  SingletonLocks(InjectorImpl injector) {
+    this.injector = injector;
+  }
+
+  /** Returns the lock for the component containing {@code key}. */
+  CycleDetectingLock get(Key<?> key) {
+    synchronized (injector.state.lock()) {
+      CycleDetectingLock lock = locks.get(key);
+      if (lock == null) {
+        new ComponentFinder().visit(key);
+        lock = locks.get(key);
+        if (lock == null) {
+          // not bound at this level; nothing else can share its lock
+          lock = new CycleDetectingLock(key);
+          locks.put(key, lock);
+        }
+      }
+      return lock;
+    }
+  }
+
+  /** Returns the binding for {@code key} at this level, or null if it's bound elsewhere. */
+  private BindingImpl<?> getBindingThisLevel(Key<?> key) {
+    Binding<?> binding = injector.state.getExplicitBindingsThisLevel().get(key);
+    return binding != null ? (BindingImpl<?>) binding : injector.jitBindings.get(key);
+  }
+
+  /** One run of Tarjan's strongly connected components algorithm. */
+  private class ComponentFinder {
+    private final Map<Key<?>, Integer> index = Maps.newHashMap();
+    private final List<Key<?>> stack = Lists.newArrayList();
+    private final Set<Key<?>> onStack = Sets.newHashSet();
+
+    int visit(Key<?> key) {
+      int keyIndex = index.size();
+      index.put(key, keyIndex);
+      int keyLowLink = keyIndex;
+      stack.add(key);
+      onStack.add(key);
+
+      BindingImpl<?> binding = getBindingThisLevel(key);
+      if (binding != null) {
+        for (Dependency<?> dependency : injector.getInternalDependencies(binding)) {
+          Key<?> dependencyKey = dependency.getKey();
+          if (locks.containsKey(dependencyKey)) {
+            continue; // belongs to a component that's already complete
+          }
+
+          Integer dependencyIndex = index.get(dependencyKey);
+          if (dependencyIndex == null) {
+            keyLowLink = Math.min(keyLowLink, visit(dependencyKey));
+          } else if (onStack.contains(dependencyKey)) {
+            keyLowLink = Math.min(keyLowLink, dependencyIndex);
+          }
+        }
+      }
+
+      if (keyLowLink == keyIndex) {
+        // key is the root of a component; pop the component off of the stack
+        CycleDetectingLock lock = new CycleDetectingLock(key);
+        Key<?> member;
+        do {
+          member = stack.remove(stack.size() - 1);
+          onStack.remove(member);
+          locks.put(member, lock);
+        } while (member != key);
+      }
+      return keyLowLink;
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.ProvisionException;
+import com.google.inject.Scope;
+import com.google.inject.Scopes;
+import com.google.inject.internal.util.Join;
+import java.util.List;
+
+/**
+ * One instance per {@link com.google.inject.Injector}. Each singleton is created while holding the
+ * lock of its binding's dependency cycle (see {@link SingletonLocks}), so slow singletons only
+ * block the threads that actually need them.
+ *
+ * @see Scopes#SINGLETON
+ */
+public class SingletonScope implements Scope {
+
+  /** A sentinel value representing null. */
+  private static final Object NULL = new Object();
+
+  public <T> Provider<T> scope(Key<T> key, Provider<T> creator) {
+    return new SingletonProvider<T>(key, creator);
+  }
+
+  @Override public String toString() {
+    return "Scopes.SINGLETON";
+  }
+
+  private static class SingletonProvider<T> implements Provider<T> {
+    private final Key<T> key;
+    private final Provider<T> creator;
+
+    /*
+     * The lazily initialized singleton instance. Once set, this will either have type T or will
+     * be equal to NULL.
+     */
+    private volatile Object instance;
+
+    /** Lazily resolved, since components aren't known until the injector is complete. */
+    private volatile CycleDetectingLock lock;
+
+    SingletonProvider(Key<T> key, Provider<T> creator) {
+      this.key = key;
+      this.creator = creator;
+      if (!(creator instanceof ProviderToInternalFactoryAdapter)) {
+        // not owned by an injector, so there's no dependency graph to share a lock with
+        this.lock = new CycleDetectingLock(key);
+      }
+    }
+
+    // DCL on a volatile is safe as of Java 5, which we obviously require.
+    @SuppressWarnings("DoubleCheckedLocking")
+    public T get() {
+      if (instance == null) {
+        CycleDetectingLock lock = getLock();
+        List<String> cycle = lock.lockOrDetectPotentialLocksCycle();
+        if (!cycle.isEmpty()) {
+          throw new ProvisionException(String.format(
+              "Creating %s would deadlock; it's part of a circular dependency spanning several "
+                  + "threads. Waiting for:%n  %s", key, Join.join(String.format("%n  "), cycle)));
+        }
+
+        /*
+         * This block is re-entrant for circular dependencies.
+         */
+        try {
+          if (instance == null) {
+            T provided = creator.get();
+
+            // don't remember proxies; these exist only to serve circular dependencies
+            if (provided instanceof CircularDependencyProxy) {
+              return provided;
+            }
+
+            Object providedOrSentinel = (provided == null) ? NULL : provided;
+            if (instance != null && instance != providedOrSentinel) {
+              throw new ProvisionException(
+                  "Provider was reentrant while creating a singleton");
+            }
+
+            instance = providedOrSentinel;
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      Object localInstance = instance;
+      // This is safe because instance has type T or is equal to NULL
+      @SuppressWarnings("unchecked")
+      T returnedInstance = (localInstance != NULL) ? (T) localInstance : null;
+      return returnedInstance;
+    }
+
+    private CycleDetectingLock getLock() {
+      CycleDetectingLock result = lock;
+      if (result == null) {
+        InjectorImpl injector = ((ProviderToInternalFactoryAdapter<T>) creator).getInjector();
+        // every thread gets the same lock from the injector, so racing here is harmless
+        lock = result = injector.singletonLocks.get(key);
+      }
+      return result;
+    }
+
+    @Override public String toString() {
+      return String.format("%s[%s]", creator, Scopes.SINGLETON);
+    }
+  }
+}
@@ -23,6 +23,7 @@ import com.google.inject.TypeLiteral;
 import com.google.inject.internal.util.ImmutableList;
 import com.google.inject.internal.util.ImmutableMap;
 import com.google.inject.internal.util.ImmutableSet;
+import com.google.inject.spi.ProvisionListenerBinding;
 import com.google.inject.spi.TypeConverterBinding;
 import com.google.inject.spi.TypeListenerBinding;
 import java.lang.annotation.Annotation;
@@ -94,7 +95,15 @@ interface State {
       return ImmutableList.of();
     }
 
-    public void blacklist(Key<?> key, Object source) {
+    public void addProvisionListener(ProvisionListenerBinding provisionListenerBinding) {
+      throw new UnsupportedOperationException();
+    }
+
+    public List<ProvisionListenerBinding> getProvisionListenerBindings() {
+      return ImmutableList.of();
+    }
+
+    public void blacklist(Key<?> key, State state, Object source) {
     }
 
     public boolean isBlacklisted(Key<?> key) {
@@ -131,7 +140,10 @@ interface State {
 
   void addConverter(TypeConverterBinding typeConverterBinding);
 
-  /** Returns the matching converter for {@code type}, or null if none match. */
+  /**
+   * Returns the matching converter for {@code type}, or null if none match. Callers must hold the
+   * {@link #lock() lock}.
+   */
   TypeConverterBinding getConverter(
       String stringValue, TypeLiteral<?> type, Errors errors, Object source);
 
@@ -148,12 +160,17 @@ interface State {
 
   List<TypeListenerBinding> getTypeListenerBindings();
 
+  void addProvisionListener(ProvisionListenerBinding provisionListenerBinding);
+
+  List<ProvisionListenerBinding> getProvisionListenerBindings();
+
   /**
    * Forbids the corresponding injector from creating a binding to {@code key}. Child injectors
    * blacklist their bound keys on their parent injectors to prevent just-in-time bindings on the
-   * parent injector that would conflict.
+   * parent injector that would conflict. The key is forbidden until {@code state}, the child's
+   * state, is garbage collected.
    */
-  void blacklist(Key<?> key, Object source);
+  void blacklist(Key<?> key, State state, Object source);
 
   /**
    * Returns true if {@code key} is forbidden from being bound in this injector. This indicates that
@@ -17,6 +17,8 @@
 package com.google.inject.internal;
 
 import com.google.inject.TypeLiteral;
+import com.google.inject.internal.util.ImmutableList;
+import com.google.inject.internal.util.Lists;
 import com.google.inject.internal.util.SourceProvider;
 import com.google.inject.internal.util.Strings;
 import com.google.inject.matcher.AbstractMatcher;
@@ -27,6 +29,7 @@ import com.google.inject.spi.TypeConverterBinding;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.List;
 
 /**
  * Handles {@code Binder.convertToTypes} commands.
@@ -36,79 +39,90 @@ import java.lang.reflect.Type;
  */
 final class TypeConverterBindingProcessor extends AbstractProcessor {
 
+  /**
+   * The default converters for primitives, enums, and class literals. They don't depend on the
+   * injector, so every injector shares them.
+   */
+  private static final List<TypeConverterBinding> BUILT_IN_CONVERTERS = newBuiltInConverters();
+
   TypeConverterBindingProcessor(Errors errors) {
     super(errors);
   }
 
   /** Installs default converters for primitives, enums, and class literals. */
   void prepareBuiltInConverters(InjectorImpl injector) {
-    this.injector = injector;
-    try {
-      // Configure type converters.
-      convertToPrimitiveType(int.class, Integer.class);
-      convertToPrimitiveType(long.class, Long.class);
-      convertToPrimitiveType(boolean.class, Boolean.class);
-      convertToPrimitiveType(byte.class, Byte.class);
-      convertToPrimitiveType(short.class, Short.class);
-      convertToPrimitiveType(float.class, Float.class);
-      convertToPrimitiveType(double.class, Double.class);
-
-      convertToClass(Character.class, new TypeConverter() {
-        public Object convert(String value, TypeLiteral<?> toType) {
-          value = value.trim();
-          if (value.length() != 1) {
-            throw new RuntimeException("Length != 1.");
-          }
-          return value.charAt(0);
+    for (TypeConverterBinding converter : BUILT_IN_CONVERTERS) {
+      injector.state.addConverter(converter);
+    }
+  }
+
+  private static List<TypeConverterBinding> newBuiltInConverters() {
+    List<TypeConverterBinding> converters = Lists.newArrayList();
+    // Configure type converters.
+    convertToPrimitiveType(converters, int.class, Integer.class);
+    convertToPrimitiveType(converters, long.class, Long.class);
+    convertToPrimitiveType(converters, boolean.class, Boolean.class);
+    convertToPrimitiveType(converters, byte.class, Byte.class);
+    convertToPrimitiveType(converters, short.class, Short.class);
+    convertToPrimitiveType(converters, float.class, Float.class);
+    convertToPrimitiveType(converters, double.class, Double.class);
+
+    convertToClass(converters, Character.class, new TypeConverter() {
+      public Object convert(String value, TypeLiteral<?> toType) {
+        value = value.trim();
+        if (value.length() != 1) {
+          throw new RuntimeException("Length != 1.");
         }
+        return value.charAt(0);
+      }
 
-        @Override public String toString() {
-          return "TypeConverter<Character>";
+      @Override public String toString() {
+        return "TypeConverter<Character>";
+      }
+    });
+
+    convertToClasses(converters, Matchers.subclassesOf(Enum.class), new TypeConverter() {
+      @SuppressWarnings("unchecked")
+      public Object convert(String value, TypeLiteral<?> toType) {
+        return Enum.valueOf((Class) toType.getRawType(), value);
+      }
+
+      @Override public String toString() {
+        return "TypeConverter<E extends Enum<E>>";
+      }
+    });
+
+    internalConvertToTypes(converters,
+      new AbstractMatcher<TypeLiteral<?>>() {
+        public boolean matches(TypeLiteral<?> typeLiteral) {
+          return typeLiteral.getRawType() == Class.class;
         }
-      });
 
-      convertToClasses(Matchers.subclassesOf(Enum.class), new TypeConverter() {
+        @Override public String toString() {
+          return "Class<?>";
+        }
+      },
+      new TypeConverter() {
         @SuppressWarnings("unchecked")
         public Object convert(String value, TypeLiteral<?> toType) {
-          return Enum.valueOf((Class) toType.getRawType(), value);
+          try {
+            return Class.forName(value);
+          } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e.getMessage());
+          }
         }
 
         @Override public String toString() {
-          return "TypeConverter<E extends Enum<E>>";
+          return "TypeConverter<Class<?>>";
         }
-      });
-
-      internalConvertToTypes(
-        new AbstractMatcher<TypeLiteral<?>>() {
-          public boolean matches(TypeLiteral<?> typeLiteral) {
-            return typeLiteral.getRawType() == Class.class;
-          }
-
-          @Override public String toString() {
-            return "Class<?>";
-          }
-        },
-        new TypeConverter() {
-          @SuppressWarnings("unchecked")
-          public Object convert(String value, TypeLiteral<?> toType) {
-            try {
-              return Class.forName(value);
-            } catch (ClassNotFoundException e) {
-              throw new RuntimeException(e.getMessage());
-            }
-          }
+      }
+    );
 
-          @Override public String toString() {
-            return "TypeConverter<Class<?>>";
-          }
-        }
-      );
-    } finally {
-      this.injector = null;
-    }
+    return ImmutableList.copyOf(converters);
   }
 
-  private <T> void convertToPrimitiveType(Class<T> primitiveType, final Class<T> wrapperType) {
+  private static <T> void convertToPrimitiveType(List<TypeConverterBinding> converters,
+      Class<T> primitiveType, final Class<T> wrapperType) {
     try {
       final Method parser = wrapperType.getMethod(
           "parse" + Strings.capitalize(primitiveType.getName()), String.class);
@@ -130,19 +144,20 @@ final class TypeConverterBindingProcessor extends AbstractProcessor {
         }
       };
 
-      convertToClass(wrapperType, typeConverter);
+      convertToClass(converters, wrapperType, typeConverter);
     } catch (NoSuchMethodException e) {
       throw new AssertionError(e);
     }
   }
 
-  private <T> void convertToClass(Class<T> type, TypeConverter converter) {
-    convertToClasses(Matchers.identicalTo(type), converter);
+  private static <T> void convertToClass(List<TypeConverterBinding> converters, Class<T> type,
+      TypeConverter converter) {
+    convertToClasses(converters, Matchers.identicalTo(type), converter);
   }
 
-  private void convertToClasses(final Matcher<? super Class<?>> typeMatcher,
-      TypeConverter converter) {
-    internalConvertToTypes(new AbstractMatcher<TypeLiteral<?>>() {
+  private static void convertToClasses(List<TypeConverterBinding> converters,
+      final Matcher<? super Class<?>> typeMatcher, TypeConverter converter) {
+    internalConvertToTypes(converters, new AbstractMatcher<TypeLiteral<?>>() {
       public boolean matches(TypeLiteral<?> typeLiteral) {
         Type type = typeLiteral.getType();
         if (!(type instanceof Class)) {
@@ -158,9 +173,9 @@ final class TypeConverterBindingProcessor extends AbstractProcessor {
     }, converter);
   }
 
-  private void internalConvertToTypes(Matcher<? super TypeLiteral<?>> typeMatcher,
-      TypeConverter converter) {
-    injector.state.addConverter(
+  private static void internalConvertToTypes(List<TypeConverterBinding> converters,
+      Matcher<? super TypeLiteral<?>> typeMatcher, TypeConverter converter) {
+    converters.add(
         new TypeConverterBinding(SourceProvider.UNKNOWN_SOURCE, typeMatcher, converter));
   }
 
@@ -18,53 +18,109 @@ package com.google.inject.internal;
 
 import com.google.inject.Key;
 import com.google.inject.internal.util.Maps;
-import com.google.inject.internal.util.Sets;
 import com.google.inject.internal.util.SourceProvider;
-
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
 /**
- * Minimal set that doesn't hold strong references to the contained keys.
+ * Minimal set of keys that doesn't outlive the states that added them. Child injectors blacklist
+ * their keys on their ancestors; once a child injector is garbage collected, its keys are removed
+ * the next time the set is used. Guarded by the injectors' shared lock.
  *
  * @author jessewilson@google.com (Jesse Wilson)
  */
 final class WeakKeySet {
 
-  /**
-   * We store strings rather than keys so we don't hold strong references.
-   *
-   * <p>One potential problem with this approach is that parent and child injectors cannot define
-   * keys whose class names are equal but class loaders are different. This shouldn't be an issue
-   * in practice.
-   */
-  private Map<String, Set<Object>> backingSet;
+  /** The sources of each key, with the number of live entries that added each source. */
+  private Map<Key<?>, Map<Object, Integer>> backingMap;
+
+  /** Keeps the entries reachable, which they must be to be enqueued, until they're collected. */
+  private final Entry entries = new Entry();
 
-  public void add(Key<?> key, Object source) {
-    if (backingSet == null) {
-      backingSet = Maps.newHashMap();
+  private final ReferenceQueue<State> collected = new ReferenceQueue<State>();
+
+  /** Adds {@code key}, which is kept for as long as {@code state} is reachable. */
+  public void add(Key<?> key, State state, Object source) {
+    removeCollectedEntries();
+    if (backingMap == null) {
+      backingMap = Maps.newHashMap();
     }
     // if it's an instanceof Class, it was a JIT binding, which we don't
     // want to retain.
     if (source instanceof Class || source == SourceProvider.UNKNOWN_SOURCE) {
       source = null;
     }
-    String k = key.toString();
-    Set<Object> sources = backingSet.get(k);
+    Object convertedSource = Errors.convert(source);
+    Map<Object, Integer> sources = backingMap.get(key);
     if (sources == null) {
-      sources = Sets.newLinkedHashSet();
-      backingSet.put(k, sources);
+      sources = Maps.newLinkedHashMap();
+      backingMap.put(key, sources);
     }
-    sources.add(Errors.convert(source));
+    Integer count = sources.get(convertedSource);
+    sources.put(convertedSource, count == null ? 1 : count + 1);
+    new Entry(state, key, convertedSource, collected).linkAfter(entries);
   }
 
   public boolean contains(Key<?> key) {
-    // avoid calling key.toString() if the backing set is empty. toString is expensive in aggregate,
-    // and most WeakKeySets are empty in practice (because they're used by top-level injectors)
-    return backingSet != null && backingSet.containsKey(key.toString());
+    removeCollectedEntries();
+    return backingMap != null && backingMap.containsKey(key);
   }
 
   public Set<Object> getSources(Key<?> key) {
-    return backingSet.get(key.toString());
+    Map<Object, Integer> sources = backingMap != null ? backingMap.get(key) : null;
+    return sources != null ? Collections.unmodifiableSet(sources.keySet()) : null;
+  }
+
+  private void removeCollectedEntries() {
+    for (Entry entry; (entry = (Entry) collected.poll()) != null; ) {
+      entry.unlink();
+      Map<Object, Integer> sources = backingMap.get(entry.key);
+      int count = sources.get(entry.source);
+      if (count > 1) {
+        sources.put(entry.source, count - 1);
+      } else {
+        sources.remove(entry.source);
+        if (sources.isEmpty()) {
+          backingMap.remove(entry.key);
+        }
+      }
+    }
+  }
+
+  /** A key added by a state, which is enqueued once the state is collected. */
+  private static class Entry extends WeakReference<State> {
+    final Key<?> key;
+    final Object source;
+    Entry previous = this;
+    Entry next = this;
+
+    /** Creates the head of a list of entries. */
+    Entry() {
+      super(null);
+      this.key = null;
+      this.source = null;
+    }
+
+    Entry(State state, Key<?> key, Object source, ReferenceQueue<State> queue) {
+      super(state, queue);
+      this.key = key;
+      this.source = source;
+    }
+
+    void linkAfter(Entry entry) {
+      previous = entry;
+      next = entry.next;
+      next.previous = this;
+      entry.next = this;
+    }
+
+    void unlink() {
+      previous.next = next;
+      next.previous = previous;
+      previous = next = this;
+    }
   }
 }
@@ -18,10 +18,16 @@ package com.google.inject.internal.util;
 
 import static com.google.inject.internal.util.Iterables.concat;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Provides access to the calling line of code.
- * 
+ *
+ * <p>Capturing a source takes a full stack trace, which dominates the cost of recording large
+ * modules. Use "-Dguice.source.capture=lazy" to only record the stack, and find the calling line
+ * when the source is first printed; or "-Dguice.source.capture=off" to not capture sources at all,
+ * at the cost of error messages that don't say where bindings were configured.
+ *
  * @author crazybob@google.com (Bob Lee)
  */
 public final class SourceProvider {
@@ -29,18 +35,44 @@ public final class SourceProvider {
   /** Indicates that the source is unknown. */
   public static final Object UNKNOWN_SOURCE = "[unknown source]";
 
+  /** How sources are captured. */
+  enum Capture {
+    /** Finds the calling line as soon as the source is captured. */
+    FULL,
+    /** Records the stack, and finds the calling line when the source is first printed. */
+    LAZY,
+    /** Doesn't capture sources. */
+    OFF;
+
+    static Capture fromSystemProperty() {
+      String capture = System.getProperty("guice.source.capture");
+      try {
+        return capture != null ? valueOf(capture.toUpperCase(Locale.ENGLISH)) : FULL;
+      } catch (IllegalArgumentException e) {
+        return FULL;
+      }
+    }
+  }
+
   private final ImmutableSet<String> classNamesToSkip;
+  private final Capture capture;
 
-  public static final SourceProvider DEFAULT_INSTANCE
-      = new SourceProvider(ImmutableSet.of(SourceProvider.class.getName()));
+  public static final SourceProvider DEFAULT_INSTANCE = new SourceProvider(
+      ImmutableSet.of(SourceProvider.class.getName()), Capture.fromSystemProperty());
 
-  private SourceProvider(Iterable<String> classesToSkip) {
+  private SourceProvider(Iterable<String> classesToSkip, Capture capture) {
     this.classNamesToSkip = ImmutableSet.copyOf(classesToSkip);
+    this.capture = capture;
   }
 
   /** Returns a new instance that also skips {@code moreClassesToSkip}. */
   public SourceProvider plusSkippedClasses(Class... moreClassesToSkip) {
-    return new SourceProvider(concat(classNamesToSkip, asStrings(moreClassesToSkip)));
+    return new SourceProvider(concat(classNamesToSkip, asStrings(moreClassesToSkip)), capture);
+  }
+
+  /** Returns a new instance that captures sources as {@code capture} says. */
+  SourceProvider withCapture(Capture capture) {
+    return new SourceProvider(classNamesToSkip, capture);
   }
 
   /** Returns the class names as Strings */
@@ -54,10 +86,22 @@ public final class SourceProvider {
 
   /**
    * Returns the calling line of code. The selected line is the nearest to the top of the stack that
-   * is not skipped.
+   * is not skipped. Depending on how sources are captured, this is a {@link StackTraceElement}, an
+   * object whose string form is the calling line, or {@link #UNKNOWN_SOURCE}.
    */
-  public StackTraceElement get() {
-    for (final StackTraceElement element : new Throwable().getStackTrace()) {
+  public Object get() {
+    switch (capture) {
+      case LAZY:
+        return new LazySource(new Throwable(), classNamesToSkip);
+      case OFF:
+        return UNKNOWN_SOURCE;
+      default:
+        return find(new Throwable(), classNamesToSkip);
+    }
+  }
+
+  private static StackTraceElement find(Throwable throwable, ImmutableSet<String> classNamesToSkip) {
+    for (final StackTraceElement element : throwable.getStackTrace()) {
       String className = element.getClassName();
       if (!classNamesToSkip.contains(className)) {
         return element;
@@ -65,4 +109,28 @@ public final class SourceProvider {
     }
     throw new AssertionError();
   }
+
+  /**
+   * A stack that hasn't been searched for the calling line yet. Filling in a throwable's stack is
+   * cheap; it's creating its elements that's expensive.
+   */
+  private static final class LazySource {
+    private Throwable throwable;
+    private ImmutableSet<String> classNamesToSkip;
+    private StackTraceElement element;
+
+    LazySource(Throwable throwable, ImmutableSet<String> classNamesToSkip) {
+      this.throwable = throwable;
+      this.classNamesToSkip = classNamesToSkip;
+    }
+
+    @Override public synchronized String toString() {
+      if (element == null) {
+        element = find(throwable, classNamesToSkip);
+        throwable = null;
+        classNamesToSkip = null;
+      }
+      return element.toString();
+    }
+  }
 }
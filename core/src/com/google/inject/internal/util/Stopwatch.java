@@ -16,6 +16,7 @@
 
 package com.google.inject.internal.util;
 
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -44,6 +45,9 @@ public final class Stopwatch {
    * Resets and logs elapsed time in milliseconds.
    */
   public void resetAndLog(String label) {
-    logger.fine(label + ": " + reset() + "ms");
+    long elapsed = reset();
+    if (logger.isLoggable(Level.FINE)) {
+      logger.fine(label + ": " + elapsed + "ms");
+    }
   }
 }
@@ -90,4 +90,8 @@ public abstract class DefaultElementVisitor<V> implements ElementVisitor<V> {
   public V visit(RequireExplicitBindingsOption option) {
     return visitOther(option);
   }
+
+  public V visit(ProvisionListenerBinding binding) {
+    return visitOther(binding);
+  }
 }
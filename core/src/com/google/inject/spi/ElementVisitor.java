@@ -100,4 +100,11 @@ public interface ElementVisitor<V> {
    * @since 3.0
    */
   V visit(DisableCircularProxiesOption option);
+
+  /**
+   * Visit a provision listener binding.
+   *
+   * @since 3.0
+   */
+  V visit(ProvisionListenerBinding binding);
 }
@@ -34,6 +34,7 @@ import com.google.inject.binder.AnnotatedElementBuilder;
 import com.google.inject.internal.AbstractBindingBuilder;
 import com.google.inject.internal.BindingBuilder;
 import com.google.inject.internal.ConstantBindingBuilderImpl;
+import com.google.inject.internal.CreationProfiler;
 import com.google.inject.internal.Errors;
 import com.google.inject.internal.ExposureBuilder;
 import com.google.inject.internal.PrivateElementsImpl;
@@ -121,6 +122,11 @@ public final class Elements {
     return (BindingTargetVisitor<T, T>) GET_INSTANCE_VISITOR;
   }
 
+  /** Skips the frames of the binder and its helpers, so that sources point at modules. */
+  private static final SourceProvider SOURCE_PROVIDER = SourceProvider.DEFAULT_INSTANCE
+      .plusSkippedClasses(Elements.class, RecordingBinder.class, AbstractModule.class,
+          ConstantBindingBuilderImpl.class, AbstractBindingBuilder.class, BindingBuilder.class);
+
   private static class RecordingBinder implements Binder, PrivateBinder {
     private final Stage stage;
     private final Set<Module> modules;
@@ -137,9 +143,7 @@ public final class Elements {
       this.modules = Sets.newHashSet();
       this.elements = Lists.newArrayList();
       this.source = null;
-      this.sourceProvider = SourceProvider.DEFAULT_INSTANCE.plusSkippedClasses(
-          Elements.class, RecordingBinder.class, AbstractModule.class,
-          ConstantBindingBuilderImpl.class, AbstractBindingBuilder.class, BindingBuilder.class);
+      this.sourceProvider = SOURCE_PROVIDER;
       this.parent = null;
       this.privateElements = null;
     }
@@ -206,6 +210,11 @@ public final class Elements {
       elements.add(new TypeListenerBinding(getSource(), listener, typeMatcher));
     }
 
+    public void bindListener(Matcher<? super Binding<?>> bindingMatcher,
+        ProvisionListener... listeners) {
+      elements.add(new ProvisionListenerBinding(getSource(), bindingMatcher, listeners));
+    }
+
     public void requestStaticInjection(Class<?>... types) {
       for (Class<?> type : types) {
         elements.add(new StaticInjectionRequest(getSource(), type));
@@ -214,6 +223,12 @@ public final class Elements {
 
     public void install(Module module) {
       if (modules.add(module)) {
+        // provider methods modules are timed as part of the module that has the methods
+        CreationProfiler profiler = module instanceof ProviderMethodsModule
+            ? null
+            : CreationProfiler.current();
+        long start = profiler != null ? profiler.start() : 0;
+
         Binder binder = this;
         if (module instanceof PrivateModule) {
           binder = binder.newPrivateBinder();
@@ -230,6 +245,10 @@ public final class Elements {
           }
         }
         binder.install(ProviderMethodsModule.forModule(module));
+
+        if (profiler != null) {
+          profiler.stopModule(module, start);
+        }
       }
     }
 
@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.spi;
+
+import com.google.inject.internal.util.Maps;
+import com.google.inject.internal.util.Sets;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The members annotated with {@literal @}Inject in classes that were compiled with Guice's
+ * annotation processor. Only the indexed members of such classes need to be checked for
+ * annotations, and classes without injectable methods don't need their methods listed at all,
+ * which avoids loading every type in their method signatures. Classes that aren't in an index are
+ * scanned reflectively.
+ *
+ * <p>Indexes are read from each {@code META-INF/guice/inject.index} resource visible to a class
+ * loader. They list classes by binary name, each followed by its injectable fields, methods and
+ * constructors on lines starting with a space and {@code f}, {@code m} or {@code c}:
+ * <pre>
+ * com.example.Foo
+ *  f bar
+ *  m setBaz(java.lang.String,int[])
+ *  c (com.example.Bar)</pre>
+ *
+ * An index must be rebuilt whenever the classes it describes are recompiled.
+ */
+final class InjectableMembersIndex {
+
+  private static final Logger logger = Logger.getLogger(InjectableMembersIndex.class.getName());
+
+  static final String RESOURCE_NAME = "META-INF/guice/inject.index";
+
+  /** Indexed classes by binary name, for each class loader. Guarded by itself. */
+  private static final Map<ClassLoader, Map<String, InjectableMembersIndex>> indexes
+      = new WeakHashMap<ClassLoader, Map<String, InjectableMembersIndex>>();
+
+  private final Set<String> fields = Sets.newHashSet();
+  private final Set<String> methods = Sets.newHashSet();
+  private final Set<String> constructors = Sets.newHashSet();
+
+  /** Returns the index of {@code type}'s members, or null if it wasn't indexed. */
+  static InjectableMembersIndex get(Class<?> type) {
+    ClassLoader classLoader = type.getClassLoader();
+    if (classLoader == null) {
+      return null; // a system type
+    }
+
+    Map<String, InjectableMembersIndex> indexedClasses;
+    synchronized (indexes) {
+      indexedClasses = indexes.get(classLoader);
+      if (indexedClasses == null) {
+        indexedClasses = load(classLoader);
+        indexes.put(classLoader, indexedClasses);
+      }
+    }
+    return indexedClasses.get(type.getName());
+  }
+
+  private static Map<String, InjectableMembersIndex> load(ClassLoader classLoader) {
+    Map<String, InjectableMembersIndex> result = Maps.newHashMap();
+    try {
+      Enumeration<URL> resources = classLoader.getResources(RESOURCE_NAME);
+      while (resources.hasMoreElements()) {
+        URL resource = resources.nextElement();
+        InputStream in = resource.openStream();
+        try {
+          result.putAll(read(new InputStreamReader(in, "UTF-8")));
+        } catch (IOException e) {
+          logger.log(Level.WARNING, "Ignoring unreadable index " + resource, e);
+        } finally {
+          in.close();
+        }
+      }
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Unable to find indexes of injectable members", e);
+    }
+    return result.isEmpty() ? Collections.<String, InjectableMembersIndex>emptyMap() : result;
+  }
+
+  /** Returns the classes in an index. Classes with malformed entries are left out. */
+  static Map<String, InjectableMembersIndex> read(Reader reader) throws IOException {
+    Map<String, InjectableMembersIndex> result = Maps.newHashMap();
+    BufferedReader in = new BufferedReader(reader);
+    String className = null;
+    InjectableMembersIndex current = null;
+    for (String line; (line = in.readLine()) != null; ) {
+      if (line.length() == 0) {
+        continue;
+      }
+
+      if (line.charAt(0) != ' ') {
+        className = line;
+        current = new InjectableMembersIndex();
+        result.put(className, current);
+      } else if (current != null && line.length() > 3 && line.charAt(2) == ' ') {
+        String member = line.substring(3);
+        switch (line.charAt(1)) {
+          case 'f':
+            current.fields.add(member);
+            continue;
+          case 'm':
+            current.methods.add(member);
+            continue;
+          case 'c':
+            current.constructors.add(member);
+            continue;
+          default:
+            result.remove(className);
+            current = null;
+        }
+      } else if (current != null) {
+        result.remove(className);
+        current = null;
+      }
+    }
+    return result;
+  }
+
+  boolean hasFields() {
+    return !fields.isEmpty();
+  }
+
+  boolean hasMethods() {
+    return !methods.isEmpty();
+  }
+
+  boolean isInjectable(Field field) {
+    return fields.contains(field.getName());
+  }
+
+  boolean isInjectable(Method method) {
+    return methods.contains(method.getName() + signature(method.getParameterTypes()));
+  }
+
+  boolean isInjectable(Constructor<?> constructor) {
+    return constructors.contains(signature(constructor.getParameterTypes()));
+  }
+
+  /** Returns the erased parameter types as they're written by the annotation processor. */
+  private static String signature(Class<?>[] parameterTypes) {
+    StringBuilder result = new StringBuilder().append('(');
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (i > 0) {
+        result.append(',');
+      }
+      Class<?> type = parameterTypes[i];
+      int dimensions = 0;
+      while (type.isArray()) {
+        type = type.getComponentType();
+        dimensions++;
+      }
+      result.append(type.getName());
+      for (int d = 0; d < dimensions; d++) {
+        result.append("[]");
+      }
+    }
+    return result.append(')').toString();
+  }
+}
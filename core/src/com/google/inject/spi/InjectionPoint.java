@@ -59,6 +59,9 @@ public final class InjectionPoint {
   
   private static final Logger logger = Logger.getLogger(InjectionPoint.class.getName());
 
+  private static final Field[] NO_FIELDS = {};
+  private static final Method[] NO_METHODS = {};
+
   private final boolean optional;
   private final Member member;
   private final TypeLiteral<?> declaringType;
@@ -238,9 +241,13 @@ public final class InjectionPoint {
   public static InjectionPoint forConstructorOf(TypeLiteral<?> type) {
     Class<?> rawType = getRawType(type.getType());
     Errors errors = new Errors(rawType);
+    InjectableMembersIndex index = InjectableMembersIndex.get(rawType);
 
     Constructor<?> injectableConstructor = null;
     for (Constructor<?> constructor : rawType.getDeclaredConstructors()) {
+      if (index != null && !index.isInjectable(constructor)) {
+        continue;
+      }
 
       boolean optional;
       Inject guiceInject = constructor.getAnnotation(Inject.class);
@@ -645,10 +652,16 @@ public final class InjectionPoint {
       }
 
       TypeLiteral<?> current = hierarchy.get(i);
+      InjectableMembersIndex index = InjectableMembersIndex.get(current.getRawType());
 
-      for (Field field : current.getRawType().getDeclaredFields()) {
+      Field[] fields = index == null || index.hasFields()
+          ? current.getRawType().getDeclaredFields()
+          : NO_FIELDS;
+      for (Field field : fields) {
         if (Modifier.isStatic(field.getModifiers()) == statics) {
-          Annotation atInject = getAtInject(field);
+          Annotation atInject = index == null || index.isInjectable(field)
+              ? getAtInject(field)
+              : null;
           if (atInject != null) {
             InjectableField injectableField = new InjectableField(current, field, atInject);
             if (injectableField.jsr330 && Modifier.isFinal(field.getModifiers())) {
@@ -659,9 +672,15 @@ public final class InjectionPoint {
         }
       }
 
-      for (Method method : current.getRawType().getDeclaredMethods()) {
+      // non-injectable methods are only interesting if they might override injectable ones
+      Method[] methods = index == null || index.hasMethods() || overrideIndex != null
+          ? current.getRawType().getDeclaredMethods()
+          : NO_METHODS;
+      for (Method method : methods) {
         if (Modifier.isStatic(method.getModifiers()) == statics) {
-          Annotation atInject = getAtInject(method);
+          Annotation atInject = index == null || index.isInjectable(method)
+              ? getAtInject(method)
+              : null;
           if (atInject != null) {
             InjectableMethod injectableMethod = new InjectableMethod(
                 current, method, atInject);
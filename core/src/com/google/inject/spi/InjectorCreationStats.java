@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.spi;
+
+import com.google.inject.Key;
+import com.google.inject.Module;
+import com.google.inject.internal.util.ImmutableMap;
+import com.google.inject.internal.util.ToStringBuilder;
+import java.util.Map;
+
+/**
+ * Where the time to create an injector went. To collect these stats, set the
+ * {@code guice.creation.stats} system property to {@code true}. Each injector created while it's
+ * set binds its stats, so they can be retrieved with {@code
+ * injector.getInstance(InjectorCreationStats.class)}. The stats are complete once the injector has
+ * been created.
+ *
+ * <p>All times are in nanoseconds. Times of work that nests exclude the nested work: a module's
+ * time excludes the modules it installs, and a binding's time excludes the just-in-time bindings
+ * it initializes. The reflection and bytecode generation totals overlap with the other times.
+ * Work done on threads other than the one creating the injector is only timed for eager
+ * singletons that are created in parallel.
+ *
+ * @since 3.0
+ */
+public final class InjectorCreationStats {
+
+  private final ImmutableMap<String, Long> phaseNanos;
+  private final ImmutableMap<Class<? extends Module>, Long> moduleNanos;
+  private final ImmutableMap<Key<?>, Long> bindingInitializationNanos;
+  private final ImmutableMap<Key<?>, Long> eagerSingletonNanos;
+  private final long reflectionNanos;
+  private final long bytecodeGenerationNanos;
+
+  public InjectorCreationStats(Map<String, Long> phaseNanos,
+      Map<Class<? extends Module>, Long> moduleNanos, Map<Key<?>, Long> bindingInitializationNanos,
+      Map<Key<?>, Long> eagerSingletonNanos, long reflectionNanos, long bytecodeGenerationNanos) {
+    this.phaseNanos = ImmutableMap.copyOf(phaseNanos);
+    this.moduleNanos = ImmutableMap.copyOf(moduleNanos);
+    this.bindingInitializationNanos = ImmutableMap.copyOf(bindingInitializationNanos);
+    this.eagerSingletonNanos = ImmutableMap.copyOf(eagerSingletonNanos);
+    this.reflectionNanos = reflectionNanos;
+    this.bytecodeGenerationNanos = bytecodeGenerationNanos;
+  }
+
+  /**
+   * Returns the wall time of each phase of injector creation, in the order they ran. The phases of
+   * private environments are added to the phases of the same name.
+   */
+  public Map<String, Long> getPhaseNanos() {
+    return phaseNanos;
+  }
+
+  /**
+   * Returns the time spent configuring each module class, including its provider methods. The
+   * times of modules of the same class are added together.
+   */
+  public Map<Class<? extends Module>, Long> getModuleNanos() {
+    return moduleNanos;
+  }
+
+  /**
+   * Returns the time spent initializing each binding, which is where Guice finds the injection
+   * points of constructed types and generates their proxies.
+   */
+  public Map<Key<?>, Long> getBindingInitializationNanos() {
+    return bindingInitializationNanos;
+  }
+
+  /** Returns the time spent creating each eager singleton, including injecting its members. */
+  public Map<Key<?>, Long> getEagerSingletonNanos() {
+    return eagerSingletonNanos;
+  }
+
+  /** Returns the total time spent reflecting over classes to find their injection points. */
+  public long getReflectionNanos() {
+    return reflectionNanos;
+  }
+
+  /** Returns the total time spent generating classes for proxies and fast accessors. */
+  public long getBytecodeGenerationNanos() {
+    return bytecodeGenerationNanos;
+  }
+
+  @Override public String toString() {
+    return new ToStringBuilder(InjectorCreationStats.class)
+        .add("phaseNanos", phaseNanos)
+        .add("modules", moduleNanos.size())
+        .add("bindings", bindingInitializationNanos.size())
+        .add("eagerSingletons", eagerSingletonNanos.size())
+        .add("reflectionNanos", reflectionNanos)
+        .add("bytecodeGenerationNanos", bytecodeGenerationNanos)
+        .toString();
+  }
+}
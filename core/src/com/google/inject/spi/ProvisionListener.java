@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.spi;
+
+import com.google.inject.Binding;
+
+/**
+ * Listens for the provisioning of instances by bindings, such as by calling their constructors or
+ * providers. Register listeners with {@link com.google.inject.Binder#bindListener(
+ * com.google.inject.matcher.Matcher, ProvisionListener[])}.
+ *
+ * <p>Only bindings that create their instances are listened to: constructor bindings, provider
+ * instance bindings and provider key bindings. A scoped binding is only provisioned when its scope
+ * asks for a new instance, so instances that the scope already has aren't reported. Linked and
+ * instance bindings never are.
+ *
+ * <p>Listeners are called synchronously, on the thread that provisioned the instance, for every
+ * instance that's provisioned successfully. They should be fast and thread-safe. Injectors without
+ * provision listeners don't time provisioning at all.
+ *
+ * @since 3.0
+ */
+public interface ProvisionListener {
+
+  /**
+   * Invoked after {@code binding} provisions an instance, which took {@code nanos} nanoseconds
+   * including the provisioning of its dependencies.
+   */
+  void onProvision(Binding<?> binding, long nanos);
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.util;
+
+import com.google.inject.Binding;
+import com.google.inject.Key;
+import com.google.inject.spi.ProvisionListener;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A provision listener that keeps a latency histogram for each provisioned key. Register it for
+ * the bindings to measure:
+ *
+ * <pre>
+ *   ProvisionHistograms histograms = new ProvisionHistograms();
+ *   bindListener(Matchers.any(), histograms);</pre>
+ *
+ * <p>Recording a provision doesn't lock or allocate once the key has a histogram. Each histogram
+ * is split into stripes that threads update independently, so that threads provisioning the same
+ * key don't contend. Bindings of the same key in different injectors share a histogram.
+ *
+ * @since 3.0
+ */
+public final class ProvisionHistograms implements ProvisionListener {
+
+  private final ConcurrentMap<Key<?>, Histogram> histograms
+      = new ConcurrentHashMap<Key<?>, Histogram>();
+
+  public void onProvision(Binding<?> binding, long nanos) {
+    Key<?> key = binding.getKey();
+    Histogram histogram = histograms.get(key);
+    if (histogram == null) {
+      Histogram newHistogram = new Histogram();
+      histogram = histograms.putIfAbsent(key, newHistogram);
+      if (histogram == null) {
+        histogram = newHistogram;
+      }
+    }
+    histogram.record(nanos);
+  }
+
+  /** Returns the histogram of {@code key}, or null if it hasn't been provisioned. */
+  public Histogram getHistogram(Key<?> key) {
+    return histograms.get(key);
+  }
+
+  /** Returns a live view of the histograms of the keys that have been provisioned. */
+  public Map<Key<?>, Histogram> getHistograms() {
+    return Collections.unmodifiableMap(histograms);
+  }
+
+  @Override public String toString() {
+    StringBuilder result = new StringBuilder();
+    for (Map.Entry<Key<?>, Histogram> entry : histograms.entrySet()) {
+      result.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+    }
+    return result.toString();
+  }
+
+  /**
+   * Provision times of one key. Times are counted in buckets whose bounds are powers of two
+   * nanoseconds, so percentiles are accurate to within a factor of two. Reads aren't atomic with
+   * respect to concurrent provisions.
+   */
+  public static final class Histogram {
+
+    /** Bucket {@code i} counts times less than 2^(i + 1) ns, and the last bucket all the rest. */
+    static final int BUCKETS = 40;
+
+    private static final int TOTAL_NANOS = BUCKETS;
+
+    /** Longs per stripe, so that each stripe's counts are in their own cache lines. */
+    private static final int STRIDE = 48;
+
+    private static final int STRIPES = stripes();
+
+    private final AtomicLongArray counts = new AtomicLongArray(STRIPES * STRIDE);
+
+    Histogram() {}
+
+    private static int stripes() {
+      int stripes = 1;
+      while (stripes < Runtime.getRuntime().availableProcessors() && stripes < 16) {
+        stripes <<= 1;
+      }
+      return stripes;
+    }
+
+    static int bucket(long nanos) {
+      return Math.min(BUCKETS - 1, Math.max(0, 63 - Long.numberOfLeadingZeros(nanos)));
+    }
+
+    void record(long nanos) {
+      int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+      int offset = stripe * STRIDE;
+      counts.incrementAndGet(offset + bucket(nanos));
+      counts.addAndGet(offset + TOTAL_NANOS, nanos);
+    }
+
+    /** Returns the number of provisions in each bucket. */
+    public long[] getBucketCounts() {
+      long[] result = new long[BUCKETS];
+      for (int stripe = 0; stripe < STRIPES; stripe++) {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+          result[bucket] += counts.get(stripe * STRIDE + bucket);
+        }
+      }
+      return result;
+    }
+
+    /** Returns the number of provisions. */
+    public long getCount() {
+      long count = 0;
+      for (long bucketCount : getBucketCounts()) {
+        count += bucketCount;
+      }
+      return count;
+    }
+
+    /** Returns the total time of all provisions. */
+    public long getTotalNanos() {
+      long total = 0;
+      for (int stripe = 0; stripe < STRIPES; stripe++) {
+        total += counts.get(stripe * STRIDE + TOTAL_NANOS);
+      }
+      return total;
+    }
+
+    /**
+     * Returns an upper bound on the time within which {@code percentile} percent of provisions
+     * completed, or 0 if there haven't been any provisions.
+     */
+    public long getPercentileNanos(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+      }
+
+      long[] bucketCounts = getBucketCounts();
+      long count = 0;
+      for (long bucketCount : bucketCounts) {
+        count += bucketCount;
+      }
+      if (count == 0) {
+        return 0;
+      }
+
+      long threshold = (long) Math.ceil(count * percentile / 100);
+      long seen = 0;
+      for (int bucket = 0; bucket < BUCKETS - 1; bucket++) {
+        seen += bucketCounts[bucket];
+        if (seen >= threshold) {
+          return (1L << (bucket + 1)) - 1;
+        }
+      }
+      return Long.MAX_VALUE;
+    }
+
+    @Override public String toString() {
+      long count = getCount();
+      return "count=" + count
+          + ", mean=" + (count != 0 ? getTotalNanos() / count : 0) + "ns"
+          + ", p50<=" + getPercentileNanos(50) + "ns"
+          + ", p99<=" + getPercentileNanos(99) + "ns";
+    }
+  }
+}
@@ -21,7 +21,12 @@ import com.google.inject.internal.util.ImmutableSet;
 import com.google.inject.internal.util.Jsr166HashMapTest;
 import com.google.inject.internal.util.LineNumbersTest;
 import com.google.inject.internal.util.MapMakerTestSuite;
+import com.google.inject.internal.util.SourceProviderTest;
+import com.google.inject.internal.ChildInjectorSoakTest;
+import com.google.inject.internal.CircularProxyFactoryTest;
+import com.google.inject.internal.MetadataCacheTest;
 import com.google.inject.internal.MoreTypesTest;
+import com.google.inject.internal.SingletonLocksTest;
 import com.google.inject.internal.UniqueAnnotationsTest;
 import com.google.inject.matcher.MatcherTest;
 import com.google.inject.name.NamedEquivalanceTest;
@@ -30,7 +35,9 @@ import com.google.inject.spi.BindingTargetVisitorTest;
 import com.google.inject.spi.ElementApplyToTest;
 import com.google.inject.spi.ElementsTest;
 import com.google.inject.spi.HasDependenciesTest;
+import com.google.inject.spi.InjectableMembersIndexTest;
 import com.google.inject.spi.InjectionPointTest;
+import com.google.inject.spi.InjectorCreationStatsTest;
 import com.google.inject.spi.InjectorSpiTest;
 import com.google.inject.spi.ModuleRewriterTest;
 import com.google.inject.spi.ProviderMethodsTest;
@@ -38,6 +45,7 @@ import com.google.inject.spi.SpiBindingsTest;
 import com.google.inject.spi.ToolStageInjectorTest;
 import com.google.inject.util.NoopOverrideTest;
 import com.google.inject.util.ProvidersTest;
+import com.google.inject.util.ProvisionHistogramsTest;
 import com.google.inject.util.TypesTest;
 import com.googlecode.guice.Jsr330Test;
 import com.googlecode.guice.GuiceTck;
@@ -68,6 +76,7 @@ public class AllTests {
     suite.addTestSuite(BoundInstanceInjectionTest.class);
     suite.addTestSuite(BoundProviderTest.class);
     suite.addTestSuite(CircularDependencyTest.class);
+    suite.addTestSuite(CompiledProviderTest.class);
     suite.addTestSuite(DuplicateBindingsTest.class);
     // ErrorHandlingTest.class is not a testcase
     suite.addTestSuite(EagerSingletonTest.class);
@@ -90,6 +99,7 @@ public class AllTests {
     suite.addTestSuite(PrivateModuleTest.class);
     suite.addTestSuite(ProviderInjectionTest.class);
     suite.addTestSuite(ProvisionExceptionTest.class);
+    suite.addTestSuite(ProvisionListenerTest.class);
     // ProxyFactoryTest is AOP-only
     suite.addTestSuite(ReflectionTest.class);
     suite.addTestSuite(RequestInjectionTest.class);
@@ -106,7 +116,12 @@ public class AllTests {
     suite.addTestSuite(Jsr166HashMapTest.class);
     suite.addTestSuite(LineNumbersTest.class);
     suite.addTest(MapMakerTestSuite.suite());
+    suite.addTestSuite(SourceProviderTest.class);
+    suite.addTestSuite(ChildInjectorSoakTest.class);
+    suite.addTestSuite(CircularProxyFactoryTest.class);
+    suite.addTestSuite(MetadataCacheTest.class);
     suite.addTestSuite(MoreTypesTest.class);
+    suite.addTestSuite(SingletonLocksTest.class);
     suite.addTestSuite(UniqueAnnotationsTest.class);
 
     // matcher
@@ -119,8 +134,10 @@ public class AllTests {
     // spi
     suite.addTestSuite(BindingTargetVisitorTest.class);
     suite.addTestSuite(ElementsTest.class);
+    suite.addTestSuite(InjectorCreationStatsTest.class);
     suite.addTestSuite(ElementApplyToTest.class);
     suite.addTestSuite(HasDependenciesTest.class);
+    suite.addTestSuite(InjectableMembersIndexTest.class);
     suite.addTestSuite(InjectionPointTest.class);
     suite.addTestSuite(InjectorSpiTest.class);
     suite.addTestSuite(ModuleRewriterTest.class);
@@ -134,9 +151,11 @@ public class AllTests {
     // util
     suite.addTestSuite(NoopOverrideTest.class);
     suite.addTestSuite(ProvidersTest.class);
+    suite.addTestSuite(ProvisionHistogramsTest.class);
     suite.addTestSuite(TypesTest.class);
 
     /*if[AOP]*/
+    suite.addTestSuite(com.google.inject.internal.BytecodeCacheTest.class);
     suite.addTestSuite(com.google.inject.internal.ProxyFactoryTest.class);
     suite.addTestSuite(IntegrationTest.class);
     suite.addTestSuite(MethodInterceptionTest.class);
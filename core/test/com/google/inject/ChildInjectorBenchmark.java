@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import static com.google.inject.name.Names.named;
+
+import com.google.inject.name.Named;
+
+/**
+ * A microbenchmark for {@link Injector#createChildInjector} with a handful of bindings, as when
+ * an application creates a child injector for each job it runs. Reports the time and, where the
+ * JVM can measure it, the number of bytes allocated per child injector.
+ */
+public class ChildInjectorBenchmark {
+
+  static final int ITERATIONS = 100000;
+
+  public static void main(String[] args) throws Exception {
+    final Injector parent = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bind(Service.class).to(ServiceImpl.class);
+        bind(Counter.class).in(Scopes.SINGLETON);
+      }
+    });
+
+    for (int i = 0; i < 10; i++) {
+      long allocatedBefore = ProvisionBenchmark.allocatedBytes();
+      long start = System.nanoTime();
+      for (int j = 0; j < ITERATIONS; j++) {
+        final Job job = new Job(j);
+        Injector child = parent.createChildInjector(new AbstractModule() {
+          protected void configure() {
+            bind(Job.class).toInstance(job);
+            bindConstant().annotatedWith(named("attempt")).to(1);
+            bind(Handler.class).to(JobHandler.class);
+          }
+        });
+        sink = child.getInstance(Handler.class);
+      }
+      long nanos = System.nanoTime() - start;
+      long allocated = ProvisionBenchmark.allocatedBytes() - allocatedBefore;
+
+      System.err.println((ITERATIONS * 1000000000L / nanos) + " child injectors/s, "
+          + ((double) nanos / ITERATIONS) + " ns/op, "
+          + (allocatedBefore < 0 ? "?" : String.valueOf(allocated / ITERATIONS))
+          + " bytes/op");
+    }
+  }
+
+  static Object sink;
+
+  interface Service {}
+
+  static class ServiceImpl implements Service {}
+
+  static class Counter {}
+
+  static class Job {
+    final int id;
+
+    Job(int id) {
+      this.id = id;
+    }
+  }
+
+  interface Handler {}
+
+  static class JobHandler implements Handler {
+    @Inject JobHandler(Job job, Service service, Counter counter, @Named("attempt") int attempt) {}
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import static com.google.inject.name.Names.named;
+
+import com.google.inject.name.Named;
+
+/**
+ * Creates and discards tens of thousands of child injectors, each of which binds a key and creates
+ * a constructor of its own, and reports how much the heap grew. Before their parent released the
+ * keys and constructor ids of collected children, a parent's blacklist and each thread's context
+ * grew by hundreds of bytes per child. Exits with status 1 if the heap grew by more than 1MB.
+ *
+ * <p>This depends on {@link System#gc} and on how the JVM sizes its heap, so it isn't part of the
+ * test suite.
+ */
+public class ChildInjectorHeapSoak {
+
+  static final int ROUNDS = 10;
+  static final int CHILDREN_PER_ROUND = 2000;
+  static final long MAX_GROWTH = 1024 * 1024;
+
+  public static void main(String[] args) throws Exception {
+    Injector parent = Guice.createInjector();
+
+    int children = 0;
+    long baseline = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      for (int i = 0; i < CHILDREN_PER_ROUND; i++) {
+        createAndUseChild(parent, children++);
+      }
+      if (round == 1) {
+        baseline = usedHeapAfterGc(parent);
+      }
+    }
+    long growth = usedHeapAfterGc(parent) - baseline;
+
+    System.err.println("Heap grew by " + growth + " bytes over " + children + " children");
+    if (growth >= MAX_GROWTH) {
+      System.exit(1);
+    }
+  }
+
+  private static void createAndUseChild(Injector parent, final int id) {
+    Injector child = parent.createChildInjector(new AbstractModule() {
+      protected void configure() {
+        bind(String.class).annotatedWith(named("job-" + id)).toInstance("job-" + id);
+        bind(Integer.class).annotatedWith(named("id")).toInstance(id);
+      }
+    });
+    if (child.getInstance(Job.class).id != id) {
+      throw new AssertionError();
+    }
+  }
+
+  /** Also creates a child, so that the parent releases the entries of collected ones. */
+  private static long usedHeapAfterGc(Injector parent) throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      // let the reference handler enqueue what was collected
+      Thread.sleep(100);
+      createAndUseChild(parent, -1);
+    }
+    System.gc();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  static class Job {
+    final int id;
+
+    @Inject Job(@Named("id") Integer id) {
+      this.id = id;
+    }
+  }
+}
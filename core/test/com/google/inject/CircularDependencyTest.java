@@ -16,8 +16,9 @@
 
 package com.google.inject;
 
-import junit.framework.TestCase;
 import static com.google.inject.Asserts.assertContains;
+import com.google.inject.internal.CircularDependencyProxy;
+import junit.framework.TestCase;
 
 /**
  * @author crazybob@google.com (Bob Lee)
@@ -72,6 +73,49 @@ public class CircularDependencyTest extends TestCase {
     }
   }
 
+  public void testProxySharedByDependentsOfSameType() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bind(Parent.class).to(ParentImpl.class);
+      }
+    });
+
+    ParentImpl parent = (ParentImpl) injector.getInstance(Parent.class);
+    assertSame(parent.left.parent, parent.right.parent);
+    assertTrue(parent.left.parent instanceof CircularDependencyProxy);
+    assertSame(parent, parent.left.parent.self());
+  }
+
+  public interface Parent {
+    Parent self();
+  }
+
+  static class ParentImpl implements Parent {
+    final LeftChild left;
+    final RightChild right;
+    @Inject ParentImpl(LeftChild left, RightChild right) {
+      this.left = left;
+      this.right = right;
+    }
+    public Parent self() {
+      return this;
+    }
+  }
+
+  static class LeftChild {
+    final Parent parent;
+    @Inject LeftChild(Parent parent) {
+      this.parent = parent;
+    }
+  }
+
+  static class RightChild {
+    final Parent parent;
+    @Inject RightChild(Parent parent) {
+      this.parent = parent;
+    }
+  }
+
   public void testUnresolvableCircularDependency() {
     try {
       Guice.createInjector().getInstance(C.class);
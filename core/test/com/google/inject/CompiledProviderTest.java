@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import com.google.inject.matcher.Matchers;
+import com.google.inject.name.Named;
+import com.google.inject.name.Names;
+import com.google.inject.spi.InjectionListener;
+import com.google.inject.spi.Message;
+import com.google.inject.spi.TypeEncounter;
+import com.google.inject.spi.TypeListener;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+
+public class CompiledProviderTest extends TestCase {
+
+  public void testCompiledGraph() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bind(String.class).annotatedWith(Names.named("name")).toInstance("compiled");
+        bindConstant().annotatedWith(Names.named("count")).to("3");
+        bind(Service.class).to(ServiceImpl.class);
+        bind(Cache.class).in(Scopes.SINGLETON);
+      }
+    });
+
+    Provider<Root> provider = injector.compile(Key.get(Root.class));
+    Root root = provider.get();
+    assertEquals("compiled", root.name);
+    assertEquals(3, root.count);
+    assertSame(injector.getInstance(Cache.class), root.cache);
+    assertTrue(root.service instanceof ServiceImpl);
+    assertSame(root.cache, ((ServiceImpl) root.service).cache);
+
+    Root another = provider.get();
+    assertNotSame(root, another);
+    assertNotSame(root.service, another.service);
+    assertSame(root.cache, another.cache);
+  }
+
+  public void testErrorsMatchRegularProvider() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bind(Service.class).to(BrokenService.class);
+      }
+    });
+
+    String expected = messagesAndSources(injector.getProvider(UsesBrokenService.class));
+    assertEquals(expected,
+        messagesAndSources(injector.compile(Key.get(UsesBrokenService.class))));
+  }
+
+  public void testGraphsThatNeedTheRegularProviderStillWork() {
+    final AtomicInteger provided = new AtomicInteger();
+    final AtomicInteger injected = new AtomicInteger();
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bind(Service.class).toProvider(new Provider<Service>() {
+          public Service get() {
+            provided.incrementAndGet();
+            return new ServiceImpl(new Cache());
+          }
+        });
+        bindListener(Matchers.only(TypeLiteral.get(Listened.class)), new TypeListener() {
+          public <I> void hear(TypeLiteral<I> type, TypeEncounter<I> encounter) {
+            encounter.register(new InjectionListener<I>() {
+              public void afterInjection(I injectee) {
+                injected.incrementAndGet();
+              }
+            });
+          }
+        });
+      }
+    });
+
+    injector.compile(Key.get(UsesService.class)).get();
+    assertEquals(1, provided.get());
+    injector.compile(Key.get(Listened.class)).get();
+    assertEquals(1, injected.get());
+  }
+
+  public void testCircularDependenciesUseTheRegularProvider() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bind(Chicken.class).to(ChickenImpl.class);
+        bind(Egg.class).to(EggImpl.class);
+      }
+    });
+
+    Chicken chicken = injector.compile(Key.get(Chicken.class)).get();
+    assertNotNull(((ChickenImpl) chicken).egg);
+  }
+
+  private String messagesAndSources(Provider<?> provider) {
+    try {
+      provider.get();
+      fail();
+      return null;
+    } catch (ProvisionException e) {
+      StringBuilder result = new StringBuilder();
+      for (Message message : e.getErrorMessages()) {
+        result.append(message.getMessage()).append(message.getSources()).append("\n");
+      }
+      return result.toString();
+    }
+  }
+
+  static class Root {
+    final String name;
+    final Service service;
+    @Inject Cache cache;
+    @Inject @Named("count") int count;
+
+    @Inject Root(@Named("name") String name, Service service) {
+      this.name = name;
+      this.service = service;
+    }
+  }
+
+  interface Service {}
+
+  static class ServiceImpl implements Service {
+    final Cache cache;
+
+    @Inject ServiceImpl(Cache cache) {
+      this.cache = cache;
+    }
+  }
+
+  static class Cache {}
+
+  static class BrokenService implements Service {
+    @Inject BrokenService(Cache cache) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  static class UsesBrokenService {
+    @Inject Service service;
+    @Inject Cache cache;
+  }
+
+  static class UsesService {
+    @Inject UsesService(Service service) {}
+  }
+
+  static class Listened {}
+
+  interface Chicken {}
+
+  static class ChickenImpl implements Chicken {
+    @Inject Egg egg;
+  }
+
+  interface Egg {}
+
+  static class EggImpl implements Egg {
+    @Inject EggImpl(Chicken chicken) {}
+  }
+}
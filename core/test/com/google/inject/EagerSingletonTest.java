@@ -16,6 +16,13 @@
 
 package com.google.inject;
 
+import com.google.inject.name.Named;
+import com.google.inject.name.Names;
+import com.google.inject.spi.Message;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import junit.framework.TestCase;
 
 /**
@@ -67,6 +74,93 @@ public class EagerSingletonTest extends TestCase {
     assertEquals(1, C.instanceCount);
   }
 
+  public void testParallelEagerSingletons() {
+    System.setProperty("guice.eager.singleton.threads", "4");
+    try {
+      Slow.bothStarted = new CountDownLatch(2);
+      Injector injector = Guice.createInjector(Stage.PRODUCTION, new AbstractModule() {
+        protected void configure() {
+          bind(DependsOnSlow.class);
+          bind(Slow.class).annotatedWith(Names.named("first")).to(Slow.class).in(Scopes.SINGLETON);
+          bind(Slow.class).annotatedWith(Names.named("second")).to(Slow.class).in(Scopes.SINGLETON);
+          bind(Slow.class).in(Scopes.NO_SCOPE);
+        }
+      });
+
+      DependsOnSlow dependsOnSlow = injector.getInstance(DependsOnSlow.class);
+      assertTrue("Independent singletons should be created concurrently",
+          dependsOnSlow.first.sawOtherStart);
+      assertTrue(dependsOnSlow.second.sawOtherStart);
+      assertNotSame(dependsOnSlow.first, dependsOnSlow.second);
+      assertSame(dependsOnSlow, injector.getInstance(DependsOnSlow.class));
+    } finally {
+      System.clearProperty("guice.eager.singleton.threads");
+    }
+  }
+
+  public void testParallelEagerSingletonErrorsMatchSequentialErrors() {
+    Module module = new AbstractModule() {
+      protected void configure() {
+        bind(Throws.class).annotatedWith(Names.named("a")).to(Throws.class).in(Scopes.SINGLETON);
+        bind(Throws.class).annotatedWith(Names.named("b")).to(Throws.class).in(Scopes.SINGLETON);
+        bind(Throws.class).annotatedWith(Names.named("c")).to(Throws.class).in(Scopes.SINGLETON);
+      }
+    };
+
+    List<String> sequentialMessages;
+    try {
+      Guice.createInjector(Stage.PRODUCTION, module);
+      fail();
+      return;
+    } catch (CreationException expected) {
+      sequentialMessages = messagesAndSources(expected);
+    }
+
+    System.setProperty("guice.eager.singleton.threads", "3");
+    try {
+      Guice.createInjector(Stage.PRODUCTION, module);
+      fail();
+    } catch (CreationException expected) {
+      // compare everything but the stack traces, which differ between threads
+      assertEquals(sequentialMessages, messagesAndSources(expected));
+    } finally {
+      System.clearProperty("guice.eager.singleton.threads");
+    }
+  }
+
+  public void testParallelEagerSingletonsRethrowUnexpectedFailures() {
+    final Error failure = new Error("Unexpected");
+    System.setProperty("guice.eager.singleton.threads", "2");
+    try {
+      Guice.createInjector(Stage.PRODUCTION, new AbstractModule() {
+        protected void configure() {
+          bind(Throws.class).toProvider(new Provider<Throws>() {
+            public Throws get() {
+              throw failure;
+            }
+          }).in(Scopes.SINGLETON);
+          for (int i = 0; i < 10; i++) {
+            bind(DependsOnThrows.class).annotatedWith(Names.named("dependent" + i))
+                .to(DependsOnThrows.class).in(Scopes.SINGLETON);
+          }
+        }
+      });
+      fail();
+    } catch (Error expected) {
+      assertSame(failure, expected);
+    } finally {
+      System.clearProperty("guice.eager.singleton.threads");
+    }
+  }
+
+  private List<String> messagesAndSources(CreationException creationException) {
+    List<String> result = new ArrayList<String>();
+    for (Message message : creationException.getErrorMessages()) {
+      result.add(message.getMessage() + " " + message.getSources());
+    }
+    return result;
+  }
+
   @Singleton
   static class A {
     static int instanceCount = 0;
@@ -90,4 +184,35 @@ public class EagerSingletonTest extends TestCase {
   }
 
   private static interface D {}
+
+  static class Slow {
+    static CountDownLatch bothStarted;
+    final boolean sawOtherStart;
+
+    @Inject Slow() throws InterruptedException {
+      bothStarted.countDown();
+      sawOtherStart = bothStarted.await(10, SECONDS);
+    }
+  }
+
+  @Singleton
+  static class DependsOnSlow {
+    final Slow first;
+    final Slow second;
+
+    @Inject DependsOnSlow(@Named("first") Slow first, @Named("second") Slow second) {
+      this.first = first;
+      this.second = second;
+    }
+  }
+
+  static class DependsOnThrows {
+    @Inject DependsOnThrows(Throws throwz) {}
+  }
+
+  static class Throws {
+    @Inject Throws() {
+      throw new UnsupportedOperationException("Throws");
+    }
+  }
 }
@@ -18,9 +18,18 @@ package com.google.inject;
 
 import com.google.inject.internal.util.Iterables;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import com.google.inject.matcher.Matchers;
 import com.google.inject.name.Named;
 import com.google.inject.name.Names;
+import com.google.inject.spi.TypeEncounter;
+import com.google.inject.spi.TypeListener;
 import junit.framework.TestCase;
 
 /**
@@ -282,4 +291,56 @@ public class ImplicitBindingTest extends TestCase {
     }
   }  
 
+  public void testExistingJitBindingsAreFoundWhileOthersAreBeingCreated() throws Exception {
+    final CountDownLatch creating = new CountDownLatch(1);
+    final CountDownLatch finishCreating = new CountDownLatch(1);
+    final Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        // listeners hear about types while their JIT bindings are being created
+        bindListener(Matchers.only(TypeLiteral.get(SlowToBind.class)), new TypeListener() {
+          public <I> void hear(TypeLiteral<I> type, TypeEncounter<I> encounter) {
+            creating.countDown();
+            try {
+              finishCreating.await();
+            } catch (InterruptedException e) {
+              throw new RuntimeException(e);
+            }
+          }
+        });
+      }
+    });
+    injector.getInstance(Foo.class);
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      Callable<SlowToBind> getSlowToBind = new Callable<SlowToBind>() {
+        public SlowToBind call() {
+          return injector.getInstance(SlowToBind.class);
+        }
+      };
+      Future<SlowToBind> first = executor.submit(getSlowToBind);
+      assertTrue(creating.await(10, TimeUnit.SECONDS));
+      Future<SlowToBind> second = executor.submit(getSlowToBind);
+
+      Future<Foo> foo = executor.submit(new Callable<Foo>() {
+        public Foo call() {
+          assertNotNull(injector.getExistingBinding(Key.get(Foo.class)));
+          return injector.getInstance(Foo.class);
+        }
+      });
+      assertNotNull(foo.get(10, TimeUnit.SECONDS));
+
+      // the binding being created isn't visible until it's complete
+      finishCreating.countDown();
+      assertNotNull(first.get(10, TimeUnit.SECONDS));
+      assertNotNull(second.get(10, TimeUnit.SECONDS));
+    } finally {
+      finishCreating.countDown();
+      executor.shutdown();
+    }
+  }
+
+  static class SlowToBind {
+    @Inject Foo foo;
+  }
 }
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import static com.google.inject.matcher.Matchers.annotatedWith;
+import static com.google.inject.matcher.Matchers.any;
+import java.lang.annotation.Retention;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * A microbenchmark for calls to intercepted methods, with 0, 1, 2 and 5 interceptors. Reports the
+ * time and, where the JVM can measure it, the number of bytes allocated per call.
+ */
+public class InterceptionBenchmark {
+
+  static final int ITERATIONS = 10000000;
+
+  public static void main(String[] args) throws Exception {
+    for (int i = 0; i < 5; i++) {
+      for (int interceptors : new int[] { 0, 1, 2, 5 }) {
+        iterate(interceptors);
+      }
+      System.err.println();
+    }
+  }
+
+  static int sink;
+
+  static void iterate(final int interceptors) {
+    Counter counter = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        for (int i = 0; i < interceptors; i++) {
+          bindInterceptor(any(), annotatedWith(Intercepted.class), new PassThrough());
+        }
+      }
+    }).getInstance(Counter.class);
+
+    long allocatedBefore = ProvisionBenchmark.allocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      sink = counter.increment(i);
+    }
+    long nanos = System.nanoTime() - start;
+    long allocated = ProvisionBenchmark.allocatedBytes() - allocatedBefore;
+
+    System.err.println(interceptors + " interceptors: " + ((double) nanos / ITERATIONS)
+        + " ns/op, "
+        + (allocatedBefore < 0 ? "?" : String.valueOf((double) allocated / ITERATIONS))
+        + " bytes/op");
+  }
+
+  @Retention(RUNTIME) @interface Intercepted {}
+
+  static class PassThrough implements MethodInterceptor {
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+      return invocation.proceed();
+    }
+  }
+
+  static class Counter {
+    @Intercepted int increment(int i) {
+      return i + 1;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import static com.google.inject.name.Names.named;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A microbenchmark for {@code injector.getInstance(Key.get(...))} from several threads at once.
+ * Class keys are shared, while annotated and generic keys are created on every call. Pass the
+ * number of threads as the first argument; it defaults to twice the number of processors.
+ */
+public class KeyLookupBenchmark {
+
+  static final int ITERATIONS = 2000000;
+
+  public static void main(String[] args) throws Exception {
+    int threads = args.length > 0
+        ? Integer.parseInt(args[0])
+        : 2 * Runtime.getRuntime().availableProcessors();
+
+    final Injector injector = Guice.createInjector(new AbstractModule() {
+      @SuppressWarnings("unchecked")
+      protected void configure() {
+        bind(String.class).annotatedWith(named("name")).toInstance("named");
+        bind((Key<Object>) Key.get(ProvisionBenchmark.GENERIC_TYPE)).toInstance("generic");
+      }
+    });
+
+    Map<String, Runnable> lookups = new LinkedHashMap<String, Runnable>();
+    lookups.put("Class key:     ", new Runnable() {
+      public void run() {
+        for (int i = 0; i < ITERATIONS; i++) {
+          sink = injector.getInstance(Key.get(ProvisionBenchmark.Singleton.class));
+        }
+      }
+    });
+    lookups.put("Annotated key: ", new Runnable() {
+      public void run() {
+        for (int i = 0; i < ITERATIONS; i++) {
+          sink = injector.getInstance(Key.get(String.class, named("name")));
+        }
+      }
+    });
+    lookups.put("Generic key:   ", new Runnable() {
+      public void run() {
+        for (int i = 0; i < ITERATIONS; i++) {
+          sink = injector.getInstance(Key.get(ProvisionBenchmark.GENERIC_TYPE));
+        }
+      }
+    });
+
+    for (int i = 0; i < 5; i++) {
+      for (Map.Entry<String, Runnable> entry : lookups.entrySet()) {
+        long nanos = runConcurrently(threads, entry.getValue());
+        long calls = (long) threads * ITERATIONS;
+        System.err.println(entry.getKey() + (calls * 1000000000L / nanos) + " lookups/s over "
+            + threads + " threads, " + ((double) nanos / calls) + " ns/op");
+      }
+      System.err.println();
+    }
+  }
+
+  static volatile Object sink;
+
+  /** Runs {@code runnable} on {@code threads} threads at once, and returns the elapsed time. */
+  static long runConcurrently(int threads, final Runnable runnable) throws InterruptedException {
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++) {
+      new Thread() {
+        @Override public void run() {
+          try {
+            start.await();
+            runnable.run();
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          } finally {
+            done.countDown();
+          }
+        }
+      }.start();
+    }
+    long startNanos = System.nanoTime();
+    start.countDown();
+    done.await();
+    return System.nanoTime() - startNanos;
+  }
+}
@@ -141,6 +141,19 @@ public class KeyTest extends TestCase {
     assertEqualsBothWays(keyWithInstance, keyWithLiteral);
   }
 
+  public void testClassKeysAreShared() {
+    assertSame(Key.get(String.class), Key.get(String.class));
+    assertSame(Key.get(String.class), Key.get((Type) String.class));
+    assertEquals(Key.get(Integer.class), Key.get(int.class));
+  }
+
+  public void testKeysOfMarkerAnnotationsKeepTheirInstances() throws NoSuchFieldException {
+    Foo instance = getClass().getDeclaredField("baz").getAnnotation(Foo.class);
+    Key.get(String.class, Foo.class);
+    assertSame(instance, Key.get(String.class, instance).getAnnotation());
+    assertNull(Key.get(String.class, Foo.class).getAnnotation());
+  }
+
   public void testNonBindingAnnotationOnKey() {
     try {
       Key.get(String.class, Deprecated.class);
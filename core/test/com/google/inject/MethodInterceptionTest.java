@@ -23,6 +23,7 @@ import com.google.inject.matcher.Matchers;
 import static com.google.inject.matcher.Matchers.only;
 import com.google.inject.spi.ConstructorBinding;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -88,6 +89,40 @@ public class MethodInterceptionTest extends TestCase {
         nullFoosOne.getClass(), nullFoosTwo.getClass());
   }
 
+  public void testProxyClassesSharedBetweenInjectors() {
+    Module nullFoos = new AbstractModule() {
+      protected void configure() {
+        bindInterceptor(Matchers.any(), Matchers.returns(only(Foo.class)),
+            new ReturnNullInterceptor());
+      }
+    };
+    Module countingFoos = new AbstractModule() {
+      protected void configure() {
+        bindInterceptor(Matchers.any(), Matchers.returns(only(Foo.class)),
+            new CountingInterceptor());
+      }
+    };
+    Module countingBars = new AbstractModule() {
+      protected void configure() {
+        bindInterceptor(Matchers.any(), Matchers.returns(only(Bar.class)),
+            new CountingInterceptor());
+      }
+    };
+
+    Interceptable nullFoo = Guice.createInjector(nullFoos).getInstance(Interceptable.class);
+    Interceptable countingFoo = Guice.createInjector(countingFoos).getInstance(Interceptable.class);
+    Interceptable countingBar = Guice.createInjector(countingBars).getInstance(Interceptable.class);
+    assertSame(nullFoo.getClass(), countingFoo.getClass());
+    assertNotSame(nullFoo.getClass(), countingBar.getClass());
+
+    // each injector keeps its own interceptors
+    assertNull(nullFoo.foo());
+    assertNotNull(countingFoo.foo());
+    assertEquals(1, count.get());
+    countingBar.bar();
+    assertEquals(2, count.get());
+  }
+
   public void testGetThis() {
     final AtomicReference<Object> lastTarget = new AtomicReference<Object>();
 
@@ -182,6 +217,60 @@ public class MethodInterceptionTest extends TestCase {
     }
   }
   
+  public void testSingleInterceptedMethodThrows() throws Exception {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindInterceptor(Matchers.any(), Matchers.any(), new CountingInterceptor());
+      }
+    });
+
+    Interceptable interceptable = injector.getInstance(Interceptable.class);
+    try {
+      interceptable.explode();
+      fail();
+    } catch (Exception e) {
+      for (Throwable t = e; t != null; t = t.getCause()) {
+        StackTraceElement[] stackTraceElement = t.getStackTrace();
+        assertEquals("explode", stackTraceElement[0].getMethodName());
+        assertEquals("invoke", stackTraceElement[1].getMethodName());
+        assertEquals("testSingleInterceptedMethodThrows", stackTraceElement[2].getMethodName());
+      }
+    }
+  }
+
+  public void testProceedMoreThanOnce() {
+    final List<Object> results = new ArrayList<Object>();
+    final MethodInterceptor proceedTwice = new MethodInterceptor() {
+      public Object invoke(MethodInvocation methodInvocation) throws Throwable {
+        results.add(methodInvocation.proceed());
+        results.add(methodInvocation.proceed());
+        return results.get(1);
+      }
+    };
+
+    Injector single = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindInterceptor(Matchers.any(), Matchers.returns(only(Foo.class)), proceedTwice);
+      }
+    });
+    single.getInstance(Interceptable.class).foo();
+    assertEquals(2, results.size());
+    assertNotSame(results.get(0), results.get(1));
+
+    results.clear();
+    Injector stacked = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindInterceptor(Matchers.any(), Matchers.returns(only(Foo.class)), proceedTwice);
+        bindInterceptor(Matchers.any(), Matchers.returns(only(Foo.class)),
+            new CountingInterceptor());
+      }
+    });
+    stacked.getInstance(Interceptable.class).foo();
+    assertEquals(2, results.size());
+    assertNotSame(results.get(0), results.get(1));
+    assertEquals(2, count.get());
+  }
+
   public void testNotInterceptedMethodsInInterceptedClassDontAddFrames() {
     Injector injector = Guice.createInjector(new AbstractModule() {
       protected void configure() {
@@ -87,6 +87,23 @@ public class ParentInjectorTest extends TestCase {
     assertSame(grandchild.getInstance(A.class), parent.getInstance(A.class));
   }
 
+  public void testChildrenCreateJitBindingsThatDependOnTheirOwnBindings() {
+    Injector parent = Guice.createInjector();
+    for (int i = 0; i < 3; i++) {
+      Injector child = parent.createChildInjector(bindsA);
+      H h = child.getInstance(H.class);
+      assertSame(child.getInstance(A.class), h.a);
+    }
+
+    try {
+      parent.getInstance(H.class);
+      fail();
+    } catch (ConfigurationException expected) {
+      assertContains(expected.getMessage(), "Unable to create binding for " + H.class.getName(),
+          "It was already configured on one or more child injectors or private modules");
+    }
+  }
+
   public void testBindingsInherited() {
     Injector parent = Guice.createInjector(bindsB);
     Injector child = parent.createChildInjector();
@@ -320,6 +337,10 @@ public class ParentInjectorTest extends TestCase {
     }
   };
 
+  static class H {
+    @Inject A a;
+  }
+
   @MyScope
   static class F implements G {}
 
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import com.google.inject.util.Types;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A microbenchmark for {@link Provider#get} on an injector's own providers. Reports the time and,
+ * where the JVM can measure it, the number of bytes allocated per call. Getting a singleton or an
+ * instance binding that has already been created should allocate nothing, and so should looking
+ * up a class's key.
+ */
+public class ProvisionBenchmark {
+
+  static final int ITERATIONS = 10000000;
+
+  /** A deeply generic type, whose keys are expensive to compare unless they're the same. */
+  static final Type GENERIC_TYPE = Types.mapOf(String.class,
+      Types.listOf(Types.providerOf(Types.setOf(Singleton.class))));
+
+  public static void main(String[] args) throws Exception {
+    final Injector injector = Guice.createInjector(new AbstractModule() {
+      @SuppressWarnings("unchecked")
+      protected void configure() {
+        bind(String.class).toInstance("instance");
+        bind(Singleton.class).in(Scopes.SINGLETON);
+        bind((Key<Object>) Key.get(GENERIC_TYPE)).toInstance(Collections.emptyMap());
+      }
+    });
+
+    Map<String, Provider<?>> providers = new LinkedHashMap<String, Provider<?>>();
+    providers.put("Instance:  ", injector.getProvider(String.class));
+    providers.put("Singleton: ", injector.getProvider(Singleton.class));
+    providers.put("Unscoped:  ", injector.getProvider(Unscoped.class));
+    providers.put("Graph:     ", injector.getProvider(Graph.class));
+    providers.put("Fields:    ", injector.getProvider(Fields.class));
+    providers.put("Compiled graph:  ", injector.compile(Key.get(Graph.class)));
+    providers.put("Compiled fields: ", injector.compile(Key.get(Fields.class)));
+    providers.put("Key lookup:      ", new Provider<Object>() {
+      public Object get() {
+        return injector.getInstance(Key.get(Singleton.class));
+      }
+    });
+    providers.put("Generic lookup:  ", new Provider<Object>() {
+      public Object get() {
+        return injector.getInstance(Key.get(GENERIC_TYPE));
+      }
+    });
+
+    for (int i = 0; i < 5; i++) {
+      for (Map.Entry<String, Provider<?>> entry : providers.entrySet()) {
+        iterate(entry.getValue(), entry.getKey());
+      }
+      System.err.println();
+    }
+  }
+
+  static Object sink;
+
+  static void iterate(Provider<?> provider, String label) {
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++) {
+      sink = provider.get();
+    }
+    long nanos = System.nanoTime() - start;
+    long allocated = allocatedBytes() - allocatedBefore;
+
+    System.err.println(label + ((double) nanos / ITERATIONS) + " ns/op, "
+        + (allocatedBefore < 0 ? "?" : String.valueOf((double) allocated / ITERATIONS))
+        + " bytes/op");
+  }
+
+  /**
+   * Returns the bytes allocated by the current thread, or -1 if the JVM doesn't offer HotSpot's
+   * {@code com.sun.management.ThreadMXBean}.
+   */
+  static long allocatedBytes() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    try {
+      Method method = Class.forName("com.sun.management.ThreadMXBean")
+          .getMethod("getThreadAllocatedBytes", long.class);
+      return (Long) method.invoke(threadMXBean, Thread.currentThread().getId());
+    } catch (Exception e) {
+      return -1;
+    }
+  }
+
+  static class Singleton {}
+
+  static class Unscoped {}
+
+  static class Graph {
+    @Inject Graph(Unscoped a, Node b, Node c) {}
+  }
+
+  static class Fields {
+    @Inject String a;
+    @Inject String b;
+    @Inject String c;
+    @Inject String d;
+
+    @Inject Fields() {}
+  }
+
+  static class Node {
+    @Inject Node(Unscoped a, Unscoped b) {}
+  }
+}
@@ -266,6 +266,25 @@ public class ProvisionExceptionTest extends TestCase {
     }
   }
 
+  public void testFailedProvisionDoesNotAffectLaterProvisions() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bind(D.class).toProvider(DProvider.class);
+        bind(String.class).toInstance("string");
+      }
+    });
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        injector.getInstance(D.class);
+        fail();
+      } catch (ProvisionException expected) {
+        assertEquals(1, expected.getErrorMessages().size());
+      }
+      assertNotNull(injector.getInstance(InjectsString.class));
+    }
+  }
+
   private class InnerClass {}
 
   static class A {
@@ -285,6 +304,10 @@ public class ProvisionExceptionTest extends TestCase {
     }
   }
 
+  static class InjectsString {
+    @Inject String string;
+  }
+
   static class MethodWithBindingAnnotation {
     @Inject @Green void injectMe(String greenString) {}
   }
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject;
+
+import static com.google.inject.Asserts.assertContains;
+import com.google.inject.internal.util.ImmutableList;
+import com.google.inject.internal.util.Lists;
+import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.matcher.Matcher;
+import com.google.inject.matcher.Matchers;
+import com.google.inject.name.Names;
+import com.google.inject.spi.ProvisionListener;
+import java.util.List;
+import junit.framework.TestCase;
+
+public class ProvisionListenerTest extends TestCase {
+
+  private final Recorder recorder = new Recorder();
+
+  public void testConstructorBindings() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindListener(Matchers.any(), recorder);
+      }
+    });
+    injector.getInstance(A.class);
+    // the dependency finishes provisioning first
+    assertEquals(ImmutableList.of(Key.get(B.class), Key.get(A.class)), recorder.keys);
+  }
+
+  public void testScopedBindingsAreOnlyReportedWhenProvisioned() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindListener(Matchers.any(), recorder);
+        bind(B.class).in(Scopes.SINGLETON);
+      }
+    });
+    injector.getInstance(B.class);
+    injector.getInstance(B.class);
+    assertEquals(ImmutableList.of(Key.get(B.class)), recorder.keys);
+  }
+
+  public void testProviderBindings() {
+    final Key<String> providerInstance = Key.get(String.class, Names.named("instance"));
+    final Key<String> providerKey = Key.get(String.class, Names.named("key"));
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindListener(Matchers.any(), recorder);
+        bind(providerInstance).toProvider(new Provider<String>() {
+          public String get() {
+            return "instance";
+          }
+        });
+        bind(providerKey).toProvider(StringProvider.class);
+        bind(Integer.class).toInstance(5);
+      }
+    });
+    injector.getInstance(providerInstance);
+    injector.getInstance(providerKey);
+    injector.getInstance(Integer.class);
+    assertEquals(ImmutableList.of(providerInstance, Key.get(StringProvider.class), providerKey),
+        recorder.keys);
+  }
+
+  public void testLinkedBindingsReportTheirTarget() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindListener(Matchers.any(), recorder);
+        bind(Object.class).to(B.class);
+      }
+    });
+    injector.getInstance(Object.class);
+    injector.getInstance(Interface.class);
+    assertEquals(ImmutableList.of(Key.get(B.class), Key.get(Implementation.class)),
+        recorder.keys);
+  }
+
+  public void testBindingMatcher() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindListener(keyIs(B.class), recorder);
+      }
+    });
+    injector.getInstance(A.class);
+    assertEquals(ImmutableList.of(Key.get(B.class)), recorder.keys);
+  }
+
+  public void testChildListenersDontHearParentBindings() {
+    Injector parent = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bind(B.class);
+      }
+    });
+    Injector child = parent.createChildInjector(new AbstractModule() {
+      protected void configure() {
+        bindListener(Matchers.any(), recorder);
+        bind(A.class);
+      }
+    });
+    child.getInstance(A.class);
+    assertEquals(ImmutableList.of(Key.get(A.class)), recorder.keys);
+  }
+
+  public void testListenerExceptions() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindListener(Matchers.any(), new ProvisionListener() {
+          public void onProvision(Binding<?> binding, long nanos) {
+            throw new UnsupportedOperationException("boom");
+          }
+        });
+      }
+    });
+    try {
+      injector.getInstance(B.class);
+      fail();
+    } catch (ProvisionException expected) {
+      assertContains(expected.getMessage(),
+          "Error notifying ProvisionListener", "of " + B.class.getName(), "boom");
+    }
+  }
+
+  private static Matcher<Binding<?>> keyIs(final Class<?> type) {
+    return new AbstractMatcher<Binding<?>>() {
+      public boolean matches(Binding<?> binding) {
+        return binding.getKey().equals(Key.get(type));
+      }
+    };
+  }
+
+  static class Recorder implements ProvisionListener {
+    final List<Key<?>> keys = Lists.newArrayList();
+
+    public void onProvision(Binding<?> binding, long nanos) {
+      assertTrue(nanos >= 0);
+      keys.add(binding.getKey());
+    }
+  }
+
+  static class A {
+    @Inject A(B b) {}
+  }
+
+  static class B {}
+
+  static class StringProvider implements Provider<String> {
+    public String get() {
+      return "key";
+    }
+  }
+
+  @ImplementedBy(Implementation.class)
+  interface Interface {}
+
+  static class Implementation implements Interface {}
+}
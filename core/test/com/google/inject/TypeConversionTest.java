@@ -18,13 +18,18 @@ package com.google.inject;
 
 import static com.google.inject.Asserts.assertContains;
 import com.google.inject.internal.util.Iterables;
+import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.matcher.Matcher;
 import com.google.inject.matcher.Matchers;
+import com.google.inject.name.Names;
 import com.google.inject.spi.ConvertedConstantBinding;
 import com.google.inject.spi.TypeConverter;
 import com.google.inject.spi.TypeConverterBinding;
 import java.lang.annotation.Retention;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 import junit.framework.AssertionFailedError;
 import junit.framework.TestCase;
 
@@ -372,6 +377,35 @@ public class TypeConversionTest extends TestCase {
     }
   }
 
+  public void testConvertersAreMatchedOncePerType() {
+    final AtomicInteger matches = new AtomicInteger();
+    final Matcher<TypeLiteral<?>> dateMatcher = new AbstractMatcher<TypeLiteral<?>>() {
+      public boolean matches(TypeLiteral<?> typeLiteral) {
+        matches.incrementAndGet();
+        return typeLiteral.getRawType() == Date.class;
+      }
+    };
+
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        convertToTypes(dateMatcher, mockTypeConverter(new Date()));
+        bindConstant().annotatedWith(Names.named("a")).to("a");
+        bindConstant().annotatedWith(Names.named("b")).to("b");
+      }
+    });
+
+    injector.getInstance(Key.get(Date.class, Names.named("a")));
+    injector.getInstance(Key.get(Date.class, Names.named("b")));
+    assertEquals(1, matches.get());
+
+    try {
+      injector.getInstance(Key.get(Locale.class, Names.named("a")));
+      fail();
+    } catch (ConfigurationException expected) {
+    }
+    assertEquals(2, matches.get());
+  }
+
   TypeConverter mockTypeConverter(final Object result) {
     return new TypeConverter() {
       public Object convert(String value, TypeLiteral<?> toType) {
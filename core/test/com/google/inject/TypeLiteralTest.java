@@ -189,6 +189,13 @@ public class TypeLiteralTest extends TestCase {
     assertEqualsBothWays(bTl, TypeLiteral.get(HasTypeParameters.class.getTypeParameters()[1]));
   }
 
+  public void testClassTypeLiteralsAreShared() throws NoSuchMethodException {
+    assertSame(TypeLiteral.get(String.class), TypeLiteral.get((Type) String.class));
+    TypeLiteral<List<String>> listOfString = new TypeLiteral<List<String>>() {};
+    assertSame(TypeLiteral.get(String.class),
+        listOfString.getReturnType(List.class.getMethod("get", int.class)));
+  }
+
   class HasTypeParameters<A, B extends List<A> & Runnable, C extends Runnable> {
     A a; B b; C c;
   }
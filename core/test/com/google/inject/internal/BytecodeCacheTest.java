@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import junit.framework.TestCase;
+import net.sf.cglib.reflect.FastClass;
+
+public class BytecodeCacheTest extends TestCase {
+
+  private File directory;
+  private BytecodeCache cache;
+
+  @Override protected void setUp() throws Exception {
+    directory = File.createTempFile("BytecodeCacheTest", "");
+    directory.delete();
+    cache = new BytecodeCache(directory);
+  }
+
+  @Override protected void tearDown() throws Exception {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  public void testCachedClassesAreDefinedWithoutGenerating() throws Exception {
+    assertEquals("foo", newFastClass("layout").newInstance().toString());
+    assertEquals(0, cache.getHitCount());
+    assertEquals(1, directory.listFiles().length);
+
+    // each classloader has its own classes, so cglib generates the class again
+    FastClass cached = newFastClass("layout");
+    assertEquals("foo", cached.newInstance().toString());
+    assertEquals(Foo.class, cached.getJavaClass());
+    assertEquals(1, cache.getHitCount());
+  }
+
+  public void testLayoutIsPartOfTheKey() throws Exception {
+    newFastClass("one");
+    newFastClass("two");
+    assertEquals(0, cache.getHitCount());
+    assertEquals(2, directory.listFiles().length);
+  }
+
+  public void testGeneratorsArePartOfTheKey() throws Exception {
+    newFastClass("layout");
+    cache = new BytecodeCache(directory, FastClass.class);
+    newFastClass("layout");
+    // as if cglib had been upgraded
+    cache = new BytecodeCache(directory, FastClass.class, Foo.class);
+    newFastClass("layout");
+    assertEquals(0, cache.getHitCount());
+    assertEquals(3, directory.listFiles().length);
+
+    newFastClass("layout");
+    assertEquals(1, cache.getHitCount());
+  }
+
+  public void testCorruptEntriesAreGeneratedAgain() throws Exception {
+    newFastClass("layout");
+    File file = directory.listFiles()[0];
+    FileOutputStream out = new FileOutputStream(file);
+    out.write("not a class".getBytes("UTF-8"));
+    out.close();
+
+    assertEquals("foo", newFastClass("layout").newInstance().toString());
+    assertEquals(0, cache.getHitCount());
+
+    newFastClass("layout");
+    assertEquals(1, cache.getHitCount());
+  }
+
+  private FastClass newFastClass(String layout) {
+    FastClass.Generator generator = new FastClass.Generator();
+    generator.setType(Foo.class);
+    generator.setClassLoader(new ClassLoader(Foo.class.getClassLoader()) {});
+    cache.apply(generator, Foo.class, layout);
+    return generator.create();
+  }
+
+  public static class Foo {
+    @Override public String toString() {
+      return "foo";
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import static com.google.inject.name.Names.named;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Named;
+import java.lang.ref.WeakReference;
+import junit.framework.TestCase;
+
+/**
+ * Creates and discards child injectors, and checks that their parent doesn't keep anything of
+ * theirs once they've been garbage collected.
+ */
+public class ChildInjectorSoakTest extends TestCase {
+
+  private final Injector parent = Guice.createInjector();
+
+  public void testBlacklistedKeysOfCollectedChildrenAreRemoved() {
+    final Key<String> key = Key.get(String.class, named("job-1"));
+    createAndUseChild(1);
+    final State state = ((InjectorImpl) parent).state;
+    assertTrue(isBlacklisted(state, key));
+
+    awaitRelease(new Released() {
+      public boolean isReleased() {
+        return !isBlacklisted(state, key);
+      }
+    });
+    assertEquals("job-1", createAndUseChild(1).getInstance(key));
+  }
+
+  public void testKeysStayBlacklistedWhileAnyChildThatBoundThemIsReachable() {
+    Key<String> key = Key.get(String.class, named("job-1"));
+    Injector first = createAndUseChild(1);
+    WeakReference<Injector> second = new WeakReference<Injector>(createAndUseChild(1));
+    awaitCollection(second);
+
+    State state = ((InjectorImpl) parent).state;
+    assertTrue(isBlacklisted(state, key));
+    assertEquals(1, state.getSourcesForBlacklistedKey(key).size());
+    assertNotNull(first);
+  }
+
+  public void testConstructorIdsOfCollectedChildrenAreReused() {
+    final ConstructorIds root = new ConstructorIds();
+    assertEquals(0, root.next());
+    ConstructorIds child = root.newChild();
+    assertEquals(1, child.next());
+    assertEquals(2, child.next());
+    child = null;
+
+    // each attempt takes an id from a child that's discarded, and so released in turn
+    awaitRelease(new Released() {
+      public boolean isReleased() {
+        return root.newChild().next() == 1;
+      }
+    });
+  }
+
+  private Injector createAndUseChild(final int id) {
+    Injector child = parent.createChildInjector(new AbstractModule() {
+      protected void configure() {
+        bind(String.class).annotatedWith(named("job-" + id)).toInstance("job-" + id);
+        bind(Integer.class).annotatedWith(named("id")).toInstance(id);
+      }
+    });
+    assertEquals(id, child.getInstance(Job.class).id);
+    return child;
+  }
+
+  private static void awaitCollection(WeakReference<?> reference) {
+    // wait up to 5s
+    for (int i = 0; i < 500 && reference.get() != null; i++) {
+      System.gc();
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) { /* ignore */ }
+    }
+    assertNull(reference.get());
+  }
+
+  /**
+   * Collects garbage until {@code released} is true, for up to 5s. Collected references are
+   * enqueued by another thread, so what they release is released some time after they're cleared.
+   */
+  private static void awaitRelease(Released released) {
+    for (int i = 0; i < 500; i++) {
+      if (released.isReleased()) {
+        return;
+      }
+      System.gc();
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) { /* ignore */ }
+    }
+    fail("Not released within 5s");
+  }
+
+  private static boolean isBlacklisted(State state, Key<?> key) {
+    synchronized (state.lock()) {
+      return state.isBlacklisted(key);
+    }
+  }
+
+  private interface Released {
+    boolean isReleased();
+  }
+
+  static class Job {
+    final int id;
+
+    @Inject Job(@Named("id") Integer id) {
+      this.id = id;
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import java.util.concurrent.Callable;
+import junit.framework.TestCase;
+
+public class CircularProxyFactoryTest extends TestCase {
+
+  public void testReflectiveProxy() throws Exception {
+    assertDelegates(CircularProxyFactory.newFactory(Callable.class, false));
+  }
+
+  /*if[AOP]*/
+  public void testGeneratedProxy() throws Exception {
+    assertDelegates(CircularProxyFactory.newFactory(Callable.class, true));
+  }
+  /*end[AOP]*/
+
+  public void testProxyClassesAreShared() {
+    DelegatingInvocationHandler<Callable<String>> a
+        = new DelegatingInvocationHandler<Callable<String>>();
+    DelegatingInvocationHandler<Callable<String>> b
+        = new DelegatingInvocationHandler<Callable<String>>();
+    Object proxyA = CircularProxyFactory.newProxy(Callable.class, a);
+    Object proxyB = CircularProxyFactory.newProxy(Callable.class, b);
+    assertNotSame(proxyA, proxyB);
+    assertSame(proxyA.getClass(), proxyB.getClass());
+  }
+
+  public void testFactoriesAreOnlySharedWithMetadata() {
+    MetadataCache shared = new MetadataCache(true);
+    assertSame(shared.getCircularProxyFactory(Callable.class, false),
+        shared.getCircularProxyFactory(Callable.class, false));
+
+    MetadataCache unshared = new MetadataCache(false);
+    assertNotSame(unshared.getCircularProxyFactory(Callable.class, false),
+        unshared.getCircularProxyFactory(Callable.class, false));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void assertDelegates(CircularProxyFactory factory) throws Exception {
+    DelegatingInvocationHandler<Callable<String>> handler
+        = new DelegatingInvocationHandler<Callable<String>>();
+    Callable<String> proxy = (Callable<String>) factory.newProxy(handler);
+    assertTrue(proxy instanceof CircularDependencyProxy);
+
+    try {
+      proxy.call();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+
+    handler.setDelegate(new Callable<String>() {
+      public String call() {
+        return "delegate";
+      }
+    });
+    assertEquals("delegate", proxy.call());
+
+    // proxies of the same factory delegate independently
+    Callable<String> other = (Callable<String>) factory.newProxy(
+        new DelegatingInvocationHandler<Callable<String>>());
+    assertSame(proxy.getClass(), other.getClass());
+    assertEquals("delegate", proxy.call());
+  }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.ConfigurationException;
+import com.google.inject.Inject;
+import com.google.inject.Provides;
+import com.google.inject.TypeLiteral;
+import com.google.inject.internal.util.ImmutableList;
+import com.google.inject.spi.InjectionPoint;
+import java.util.Set;
+import junit.framework.TestCase;
+
+public class MetadataCacheTest extends TestCase {
+
+  private final MetadataCache cache = new MetadataCache(true);
+
+  public void testInjectionPointsAreShared() {
+    TypeLiteral<Foo> type = TypeLiteral.get(Foo.class);
+    assertSame(cache.forConstructorOf(type), cache.forConstructorOf(type));
+    assertSame(cache.forInstanceMethodsAndFields(type), cache.forInstanceMethodsAndFields(type));
+  }
+
+  public void testGenericTypesHaveTheirOwnInjectionPoints() {
+    TypeLiteral<Generic<String>> strings = new TypeLiteral<Generic<String>>() {};
+    TypeLiteral<Generic<Integer>> integers = new TypeLiteral<Generic<Integer>>() {};
+    assertEquals(String.class, cache.forConstructorOf(strings).getDependencies().get(0)
+        .getKey().getTypeLiteral().getRawType());
+    assertEquals(Integer.class, cache.forConstructorOf(integers).getDependencies().get(0)
+        .getKey().getTypeLiteral().getRawType());
+  }
+
+  public void testFailuresAreRethrown() {
+    TypeLiteral<?> type = TypeLiteral.get(HasBadMember.class);
+    ConfigurationException first = getFailure(type);
+    ConfigurationException second = getFailure(type);
+    assertNotSame(first, second);
+    assertEquals(first.getErrorMessages(), second.getErrorMessages());
+    Set<InjectionPoint> partialValue = second.getPartialValue();
+    assertEquals(1, partialValue.size());
+  }
+
+  public void testDisabled() {
+    MetadataCache disabled = new MetadataCache(false);
+    TypeLiteral<Foo> type = TypeLiteral.get(Foo.class);
+    assertNotSame(disabled.forInstanceMethodsAndFields(type),
+        disabled.forInstanceMethodsAndFields(type));
+  }
+
+  public void testProvidesMethodsAreShared() throws Exception {
+    assertEquals(ImmutableList.of(SubModule.class.getDeclaredMethod("provideInteger"),
+        SuperModule.class.getDeclaredMethod("provideString")),
+        cache.getProvidesMethods(SubModule.class));
+    assertSame(cache.getProvidesMethods(SubModule.class),
+        cache.getProvidesMethods(SubModule.class));
+
+    MetadataCache disabled = new MetadataCache(false);
+    assertEquals(cache.getProvidesMethods(SubModule.class),
+        disabled.getProvidesMethods(SubModule.class));
+    assertNotSame(disabled.getProvidesMethods(SubModule.class),
+        disabled.getProvidesMethods(SubModule.class));
+  }
+
+  /*if[AOP]*/
+  public void testAccessorsAreShared() throws Exception {
+    assertSame(cache.getFastConstructor(Foo.class.getDeclaredConstructor()),
+        cache.getFastConstructor(Foo.class.getDeclaredConstructor()));
+    assertSame(cache.getFastMethod(Foo.class.getDeclaredMethod("setString", String.class)),
+        cache.getFastMethod(Foo.class.getDeclaredMethod("setString", String.class)));
+    assertSame(cache.getFieldSetter(Foo.class.getDeclaredField("string")),
+        cache.getFieldSetter(Foo.class.getDeclaredField("string")));
+    assertNull(cache.getFieldSetter(Foo.class.getDeclaredField("privateString")));
+
+    MetadataCache disabled = new MetadataCache(false);
+    assertNotSame(disabled.getFastConstructor(Foo.class.getDeclaredConstructor()),
+        disabled.getFastConstructor(Foo.class.getDeclaredConstructor()));
+  }
+  /*end[AOP]*/
+
+  private ConfigurationException getFailure(TypeLiteral<?> type) {
+    try {
+      cache.forInstanceMethodsAndFields(type);
+      fail();
+      return null;
+    } catch (ConfigurationException expected) {
+      return expected;
+    }
+  }
+
+  static class Foo {
+    @Inject String string;
+    @Inject private String privateString;
+
+    @Inject Foo() {}
+
+    @Inject void setString(String string) {}
+  }
+
+  static class Generic<T> {
+    @Inject Generic(T t) {}
+  }
+
+  static class HasBadMember<T> {
+    @Inject String string;
+    @Inject void setT(T t) {}
+  }
+
+  static class SuperModule {
+    @Provides String provideString() {
+      return "string";
+    }
+
+    void notProvides() {}
+  }
+
+  static class SubModule extends SuperModule {
+    @Provides Integer provideInteger() {
+      return 1;
+    }
+  }
+}
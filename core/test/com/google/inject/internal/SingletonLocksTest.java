@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal;
+
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.ProvisionException;
+import com.google.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import junit.framework.TestCase;
+
+/**
+ * Tests that singletons are created under the locks of their components, rather than under one
+ * lock for all of them.
+ */
+public class SingletonLocksTest extends TestCase {
+
+  @Singleton
+  static class SlowSingleton {
+    static CountDownLatch started;
+    static CountDownLatch finish;
+
+    @Inject SlowSingleton() throws InterruptedException {
+      started.countDown();
+      finish.await(10, SECONDS);
+    }
+  }
+
+  @Singleton
+  static class FastSingleton {}
+
+  public void testSlowSingletonDoesNotBlockUnrelatedSingletons() throws Exception {
+    SlowSingleton.started = new CountDownLatch(1);
+    SlowSingleton.finish = new CountDownLatch(1);
+    final Injector injector = Guice.createInjector();
+
+    Thread slow = new Thread() {
+      public void run() {
+        injector.getInstance(SlowSingleton.class);
+      }
+    };
+    slow.start();
+    assertTrue(SlowSingleton.started.await(10, SECONDS));
+
+    final List<FastSingleton> fast = new ArrayList<FastSingleton>();
+    Thread fastThread = new Thread() {
+      public void run() {
+        fast.add(injector.getInstance(FastSingleton.class));
+      }
+    };
+    fastThread.start();
+    fastThread.join(5000);
+    boolean createdWhileSlowSingletonWasBeingCreated = !fast.isEmpty();
+
+    SlowSingleton.finish.countDown();
+    slow.join();
+    assertTrue(createdWhileSlowSingletonWasBeingCreated);
+  }
+
+  @Singleton
+  static class LooksUpB {
+    static CountDownLatch bothStarted;
+
+    @Inject LooksUpB(Injector injector) throws InterruptedException {
+      bothStarted.countDown();
+      bothStarted.await(10, SECONDS);
+      injector.getInstance(LooksUpA.class);
+    }
+  }
+
+  @Singleton
+  static class LooksUpA {
+    @Inject LooksUpA(Injector injector) throws InterruptedException {
+      LooksUpB.bothStarted.countDown();
+      LooksUpB.bothStarted.await(10, SECONDS);
+      injector.getInstance(LooksUpB.class);
+    }
+  }
+
+  public void testCircularDependencyAcrossThreadsIsReportedInsteadOfDeadlocking()
+      throws Exception {
+    LooksUpB.bothStarted = new CountDownLatch(2);
+    final Injector injector = Guice.createInjector();
+    final List<ProvisionException> failures = new ArrayList<ProvisionException>();
+
+    Thread[] threads = {
+        new Thread() {
+          public void run() {
+            try {
+              injector.getInstance(LooksUpB.class);
+            } catch (ProvisionException e) {
+              synchronized (failures) {
+                failures.add(e);
+              }
+            }
+          }
+        },
+        new Thread() {
+          public void run() {
+            try {
+              injector.getInstance(LooksUpA.class);
+            } catch (ProvisionException e) {
+              synchronized (failures) {
+                failures.add(e);
+              }
+            }
+          }
+        }
+    };
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join(20000);
+      assertFalse("deadlocked", thread.isAlive());
+    }
+
+    // the thread that survives may go on to fail on its own, as a single-threaded cycle would
+    boolean deadlockReported = false;
+    for (ProvisionException failure : failures) {
+      deadlockReported |= failure.getMessage().contains(
+          "would deadlock; it's part of a circular dependency spanning several threads");
+    }
+    assertTrue(deadlockReported);
+  }
+}
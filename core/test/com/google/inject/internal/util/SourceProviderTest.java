@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.internal.util;
+
+import com.google.inject.internal.util.SourceProvider.Capture;
+import junit.framework.TestCase;
+
+public class SourceProviderTest extends TestCase {
+
+  private final SourceProvider sourceProvider
+      = SourceProvider.DEFAULT_INSTANCE.plusSkippedClasses(Caller.class);
+
+  public void testFull() {
+    Object source = new Caller(sourceProvider.withCapture(Capture.FULL)).call();
+    StackTraceElement element = (StackTraceElement) source;
+    assertEquals(SourceProviderTest.class.getName(), element.getClassName());
+    assertEquals("testFull", element.getMethodName());
+  }
+
+  public void testLazyPrintsTheSameLine() {
+    SourceProvider full = sourceProvider.withCapture(Capture.FULL);
+    SourceProvider lazy = sourceProvider.withCapture(Capture.LAZY);
+    Object[] sources = { new Caller(full).call(), new Caller(lazy).call() };
+    assertFalse(sources[1] instanceof StackTraceElement);
+    assertEquals(sources[0].toString(), sources[1].toString());
+    assertEquals(sources[0].toString(), sources[1].toString());
+  }
+
+  public void testOff() {
+    Object source = new Caller(sourceProvider.withCapture(Capture.OFF)).call();
+    assertSame(SourceProvider.UNKNOWN_SOURCE, source);
+  }
+
+  public void testSkippedClassesAreKept() {
+    SourceProvider lazy = sourceProvider.withCapture(Capture.LAZY)
+        .plusSkippedClasses(SourceProviderTest.class);
+    assertFalse(new Caller(lazy).call().toString().startsWith(SourceProviderTest.class.getName()));
+  }
+
+  private static class Caller {
+    final SourceProvider sourceProvider;
+
+    Caller(SourceProvider sourceProvider) {
+      this.sourceProvider = sourceProvider;
+    }
+
+    Object call() {
+      return sourceProvider.get();
+    }
+  }
+}
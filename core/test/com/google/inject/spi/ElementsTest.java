@@ -35,6 +35,7 @@ import com.google.inject.binder.AnnotatedBindingBuilder;
 import com.google.inject.binder.AnnotatedConstantBindingBuilder;
 import com.google.inject.binder.ConstantBindingBuilder;
 import com.google.inject.binder.ScopedBindingBuilder;
+import com.google.inject.internal.util.ImmutableList;
 import com.google.inject.internal.util.ImmutableMap;
 import com.google.inject.internal.util.ImmutableSet;
 import static com.google.inject.internal.util.Iterables.getOnlyElement;
@@ -696,6 +697,32 @@ public class ElementsTest extends TestCase {
     );
   }
 
+  public void testBindProvisionListener() {
+    final Matcher<Object> bindingMatcher = Matchers.any();
+    final ProvisionListener a = new ProvisionListener() {
+      public void onProvision(Binding<?> binding, long nanos) {}
+    };
+    final ProvisionListener b = new ProvisionListener() {
+      public void onProvision(Binding<?> binding, long nanos) {}
+    };
+
+    checkModule(
+        new AbstractModule() {
+          protected void configure() {
+            bindListener(bindingMatcher, a, b);
+          }
+        },
+
+        new FailingElementVisitor() {
+          @Override public Void visit(ProvisionListenerBinding binding) {
+            assertSame(bindingMatcher, binding.getBindingMatcher());
+            assertEquals(ImmutableList.of(a, b), binding.getListeners());
+            return null;
+          }
+        }
+    );
+  }
+
   public void testConvertToTypes() {
     final TypeConverter typeConverter = new TypeConverter() {
       public Object convert(String value, TypeLiteral<?> toType) {
@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.spi;
+
+import com.google.inject.Inject;
+import com.google.inject.internal.util.ImmutableSet;
+import com.google.inject.internal.util.Sets;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Set;
+import junit.framework.TestCase;
+
+public class InjectableMembersIndexTest extends TestCase {
+
+  private static final String PREFIX = InjectableMembersIndexTest.class.getName() + "$";
+
+  public void testRead() throws IOException {
+    Map<String, InjectableMembersIndex> index = InjectableMembersIndex.read(new StringReader(
+        "a.A\n"
+            + " f foo\n"
+            + " m bar(int[],java.lang.String)\n"
+            + " c ()\n"
+            + "\n"
+            + "a.B\n"
+            + " x baz\n"
+            + "a.C\n"));
+    assertEquals(ImmutableSet.of("a.A", "a.C"), index.keySet());
+    assertTrue(index.get("a.A").hasFields());
+    assertTrue(index.get("a.A").hasMethods());
+    assertFalse(index.get("a.C").hasFields());
+    assertFalse(index.get("a.C").hasMethods());
+  }
+
+  public void testOnlyIndexedMembersAreInjected() throws Exception {
+    Class<?> type = loadIndexed("Fields",
+        PREFIX + "Fields\n"
+            + " f indexed\n"
+            + " m inject(java.lang.String[][],int)\n");
+    assertEquals(ImmutableSet.of("indexed", "inject"),
+        names(InjectionPoint.forInstanceMethodsAndFields(type)));
+  }
+
+  public void testUnindexedClassesAreScanned() throws Exception {
+    Class<?> type = loadIndexed("Fields", "");
+    assertEquals(ImmutableSet.of("indexed", "notIndexed", "inject"),
+        names(InjectionPoint.forInstanceMethodsAndFields(type)));
+  }
+
+  public void testIndexedConstructor() throws Exception {
+    Class<?> type = loadIndexed("Constructors",
+        PREFIX + "Constructors\n"
+            + " c (java.lang.String,long)\n");
+    InjectionPoint injectionPoint = InjectionPoint.forConstructorOf(type);
+    assertEquals(2, injectionPoint.getDependencies().size());
+  }
+
+  public void testIndexedSubclassesStillOverrideInjectableMethods() throws Exception {
+    Class<?> type = loadIndexed("Sub",
+        PREFIX + "Super\n"
+            + " m overridden()\n"
+            + " m notOverridden()\n"
+            + PREFIX + "Sub\n");
+    assertEquals(ImmutableSet.of("notOverridden"),
+        names(InjectionPoint.forInstanceMethodsAndFields(type)));
+  }
+
+  private Set<String> names(Set<InjectionPoint> injectionPoints) {
+    Set<String> result = Sets.newLinkedHashSet();
+    for (InjectionPoint injectionPoint : injectionPoints) {
+      result.add(injectionPoint.getMember().getName());
+    }
+    return result;
+  }
+
+  /** Loads the nested class {@code name} in a new class loader that has {@code index}. */
+  private Class<?> loadIndexed(String name, String index) throws Exception {
+    File indexFile = File.createTempFile("inject", ".index");
+    indexFile.deleteOnExit();
+    Writer writer = new FileWriter(indexFile);
+    try {
+      writer.write(index);
+    } finally {
+      writer.close();
+    }
+    return new IndexedClassLoader(indexFile.toURI().toURL()).loadClass(PREFIX + name);
+  }
+
+  /** Loads this test's nested classes itself, so that they get its index. */
+  private static class IndexedClassLoader extends ClassLoader {
+    private final URL index;
+
+    IndexedClassLoader(URL index) {
+      super(IndexedClassLoader.class.getClassLoader());
+      this.index = index;
+    }
+
+    @Override protected synchronized Class<?> loadClass(String name, boolean resolve)
+        throws ClassNotFoundException {
+      if (!name.startsWith(PREFIX)) {
+        return super.loadClass(name, resolve);
+      }
+
+      Class<?> result = findLoadedClass(name);
+      if (result == null) {
+        try {
+          InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class");
+          ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+          for (int b; (b = in.read()) != -1; ) {
+            bytes.write(b);
+          }
+          in.close();
+          result = defineClass(name, bytes.toByteArray(), 0, bytes.size());
+        } catch (IOException e) {
+          throw new ClassNotFoundException(name, e);
+        }
+      }
+      return result;
+    }
+
+    @Override protected Enumeration<URL> findResources(String name) throws IOException {
+      return InjectableMembersIndex.RESOURCE_NAME.equals(name)
+          ? Collections.enumeration(Collections.singleton(index))
+          : super.findResources(name);
+    }
+  }
+
+  public static class Fields {
+    @Inject String indexed;
+    @Inject String notIndexed;
+    @Inject void inject(String[][] strings, int i) {}
+  }
+
+  public static class Constructors {
+    public Constructors() {}
+    @Inject public Constructors(String s, long l) {}
+  }
+
+  public static class Super {
+    @javax.inject.Inject public void overridden() {}
+    @javax.inject.Inject public void notOverridden() {}
+  }
+
+  public static class Sub extends Super {
+    @Override public void overridden() {}
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.spi;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.ConfigurationException;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provides;
+import com.google.inject.Singleton;
+import com.google.inject.Stage;
+import junit.framework.TestCase;
+
+public class InjectorCreationStatsTest extends TestCase {
+
+  @Override protected void setUp() throws Exception {
+    System.setProperty("guice.creation.stats", "true");
+  }
+
+  @Override protected void tearDown() throws Exception {
+    System.clearProperty("guice.creation.stats");
+  }
+
+  public void testStats() {
+    Injector injector = Guice.createInjector(Stage.PRODUCTION, new OuterModule());
+    InjectorCreationStats stats = injector.getInstance(InjectorCreationStats.class);
+
+    assertTrue(stats.getPhaseNanos().containsKey("Module execution"));
+    assertTrue(stats.getPhaseNanos().containsKey("Binding initialization"));
+    assertTrue(stats.getPhaseNanos().containsKey("Preloading singletons"));
+
+    assertTrue(stats.getModuleNanos().containsKey(OuterModule.class));
+    assertTrue(stats.getModuleNanos().containsKey(InnerModule.class));
+    assertTrue(stats.getModuleNanos().get(OuterModule.class) >= 0);
+
+    assertTrue(stats.getBindingInitializationNanos().containsKey(Key.get(A.class)));
+    assertTrue(stats.getBindingInitializationNanos().containsKey(Key.get(B.class)));
+
+    assertTrue(stats.getEagerSingletonNanos().containsKey(Key.get(A.class)));
+    assertTrue(stats.getEagerSingletonNanos().containsKey(Key.get(String.class)));
+    assertTrue(stats.getReflectionNanos() > 0);
+  }
+
+  public void testChildInjectorsHaveTheirOwnStats() {
+    Injector parent = Guice.createInjector(new InnerModule());
+    Injector child = parent.createChildInjector(new OuterModule());
+    assertFalse(parent.getInstance(InjectorCreationStats.class).getModuleNanos()
+        .containsKey(OuterModule.class));
+    assertTrue(child.getInstance(InjectorCreationStats.class).getModuleNanos()
+        .containsKey(OuterModule.class));
+  }
+
+  public void testNotBoundUnlessEnabled() {
+    System.clearProperty("guice.creation.stats");
+    Injector injector = Guice.createInjector();
+    try {
+      injector.getInstance(InjectorCreationStats.class);
+      fail();
+    } catch (ConfigurationException expected) {
+    }
+  }
+
+  static class OuterModule extends AbstractModule {
+    protected void configure() {
+      install(new InnerModule());
+      bind(A.class);
+    }
+
+    @Provides @Singleton String provideString() {
+      return "string";
+    }
+  }
+
+  static class InnerModule extends AbstractModule {
+    protected void configure() {}
+  }
+
+  @Singleton
+  static class A {
+    @Inject B b;
+  }
+
+  static class B {}
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.util;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.matcher.Matchers;
+import com.google.inject.util.ProvisionHistograms.Histogram;
+import java.util.concurrent.CountDownLatch;
+import junit.framework.TestCase;
+
+public class ProvisionHistogramsTest extends TestCase {
+
+  public void testBuckets() {
+    assertEquals(0, Histogram.bucket(0));
+    assertEquals(0, Histogram.bucket(1));
+    assertEquals(1, Histogram.bucket(2));
+    assertEquals(1, Histogram.bucket(3));
+    assertEquals(10, Histogram.bucket(1024));
+    assertEquals(Histogram.BUCKETS - 1, Histogram.bucket(Long.MAX_VALUE));
+  }
+
+  public void testPercentiles() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getPercentileNanos(50));
+    for (int i = 0; i < 90; i++) {
+      histogram.record(100);
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.record(5000);
+    }
+    assertEquals(100, histogram.getCount());
+    assertEquals(90 * 100 + 10 * 5000, histogram.getTotalNanos());
+    assertEquals(127, histogram.getPercentileNanos(50));
+    assertEquals(127, histogram.getPercentileNanos(90));
+    assertEquals(8191, histogram.getPercentileNanos(99));
+  }
+
+  public void testConcurrentRecording() throws InterruptedException {
+    final Histogram histogram = new Histogram();
+    final CountDownLatch done = new CountDownLatch(4);
+    for (int t = 0; t < 4; t++) {
+      new Thread() {
+        @Override public void run() {
+          for (int i = 0; i < 10000; i++) {
+            histogram.record(i);
+          }
+          done.countDown();
+        }
+      }.start();
+    }
+    done.await();
+    assertEquals(40000, histogram.getCount());
+    assertEquals(4L * (9999 * 10000 / 2), histogram.getTotalNanos());
+  }
+
+  public void testListener() {
+    final ProvisionHistograms histograms = new ProvisionHistograms();
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindListener(Matchers.any(), histograms);
+      }
+    });
+    for (int i = 0; i < 3; i++) {
+      injector.getInstance(Foo.class);
+    }
+    assertEquals(3, histograms.getHistogram(Key.get(Foo.class)).getCount());
+    assertNull(histograms.getHistogram(Key.get(String.class)));
+    assertEquals(1, histograms.getHistograms().size());
+  }
+
+  static class Foo {}
+}
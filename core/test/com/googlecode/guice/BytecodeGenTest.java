@@ -19,8 +19,11 @@ package com.googlecode.guice;
 import com.google.inject.AbstractModule;
 import com.google.inject.Binder;
 import com.google.inject.Guice;
+import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Module;
+import com.google.inject.name.Named;
+import com.google.inject.name.Names;
 import static com.google.inject.matcher.Matchers.any;
 import com.googlecode.guice.PackageVisibilityTestModule.PublicUserOfPackagePrivate;
 import java.io.File;
@@ -288,6 +291,43 @@ public class BytecodeGenTest extends TestCase {
     }
   }
 
+  public void testInjectingFieldsAndConstructorsOfEveryVisibility() {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bindConstant().annotatedWith(Names.named("number")).to(5);
+        bind(String.class).toInstance("a");
+      }
+    });
+    PackagePrivateMembers instance = injector.getInstance(PackagePrivateMembers.class);
+    assertNotNull(instance.constructorHidden);
+    assertNotNull(instance.hidden);
+    assertEquals(5, instance.number);
+    assertEquals("a", instance.packagePrivateString);
+    assertEquals("a", instance.protectedString);
+    assertEquals("a", instance.publicString);
+    assertEquals("a", instance.privateString);
+
+    // injecting members of an existing instance sets the same fields
+    PackagePrivateMembers injected = new PackagePrivateMembers(null);
+    injector.injectMembers(injected);
+    assertEquals(5, injected.number);
+    assertEquals("a", injected.publicString);
+  }
+
+  static class PackagePrivateMembers {
+    final Hidden constructorHidden;
+    @Inject Hidden hidden;
+    @Inject @Named("number") int number;
+    @Inject String packagePrivateString;
+    @Inject protected String protectedString;
+    @Inject public String publicString;
+    @Inject private String privateString;
+
+    @Inject PackagePrivateMembers(Hidden constructorHidden) {
+      this.constructorHidden = constructorHidden;
+    }
+  }
+
   static class Hidden {
   }
 
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.indexer;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Writes an index of the members annotated with {@literal @}Inject in each compiled class to
+ * {@code META-INF/guice/inject.index}. When creating injection points, Guice only checks the
+ * indexed members of classes in the index, and skips listing the methods of classes that have no
+ * injectable methods.
+ *
+ * <p>To use it, put this jar on the compiler's classpath. Every class in the compilation is
+ * indexed, including those with no injectable members. Classes left out of the index, such as
+ * those that weren't recompiled by an incremental build, are scanned reflectively as usual. But
+ * an index is trusted for the classes it lists, so it must be deleted if they're recompiled
+ * without this processor.
+ *
+ * @since 3.0
+ */
+@SupportedAnnotationTypes("*")
+public final class InjectableMembersProcessor extends AbstractProcessor {
+
+  static final String RESOURCE_NAME = "META-INF/guice/inject.index";
+
+  private static final String GUICE_INJECT = "com.google.inject.Inject";
+  private static final String JSR330_INJECT = "javax.inject.Inject";
+
+  /** Each indexed class's injectable members, by binary name. */
+  private final Map<String, StringBuilder> index = new TreeMap<String, StringBuilder>();
+
+  @Override public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override public boolean process(
+      Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+    if (roundEnvironment.processingOver()) {
+      write();
+    } else {
+      for (Element element : roundEnvironment.getRootElements()) {
+        if (element instanceof TypeElement) {
+          index((TypeElement) element);
+        }
+      }
+    }
+    return false; // other processors may want the same annotations
+  }
+
+  private void index(TypeElement type) {
+    StringBuilder members = new StringBuilder();
+    for (Element member : type.getEnclosedElements()) {
+      ElementKind kind = member.getKind();
+      if (member instanceof TypeElement) {
+        index((TypeElement) member);
+      } else if (kind == ElementKind.FIELD && isInject(member)) {
+        members.append(" f ").append(member.getSimpleName()).append('\n');
+      } else if (kind == ElementKind.METHOD && isInject(member)) {
+        members.append(" m ").append(member.getSimpleName())
+            .append(signature(type, (ExecutableElement) member)).append('\n');
+      } else if (kind == ElementKind.CONSTRUCTOR && isInject(member)) {
+        members.append(" c ").append(signature(type, (ExecutableElement) member)).append('\n');
+      }
+    }
+    index.put(processingEnv.getElementUtils().getBinaryName(type).toString(), members);
+  }
+
+  private boolean isInject(Element element) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      String name = ((TypeElement) annotation.getAnnotationType().asElement())
+          .getQualifiedName().toString();
+      if (name.equals(GUICE_INJECT) || name.equals(JSR330_INJECT)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Returns the erased parameter types, as reflection reports them. */
+  private String signature(TypeElement type, ExecutableElement executable) {
+    StringBuilder result = new StringBuilder().append('(');
+    if (executable.getKind() == ElementKind.CONSTRUCTOR
+        && type.getNestingKind().isNested()
+        && !type.getModifiers().contains(Modifier.STATIC)
+        && type.getKind() == ElementKind.CLASS) {
+      // inner class constructors take their enclosing instance first
+      result.append(typeName(type.getEnclosingElement().asType())).append(',');
+    }
+    List<? extends VariableElement> parameters = executable.getParameters();
+    for (VariableElement parameter : parameters) {
+      result.append(typeName(parameter.asType())).append(',');
+    }
+    if (result.charAt(result.length() - 1) == ',') {
+      result.setLength(result.length() - 1);
+    }
+    return result.append(')').toString();
+  }
+
+  private String typeName(TypeMirror type) {
+    TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+    if (erased.getKind() == TypeKind.ARRAY) {
+      return typeName(((ArrayType) erased).getComponentType()) + "[]";
+    } else if (erased.getKind() == TypeKind.DECLARED) {
+      TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+      return processingEnv.getElementUtils().getBinaryName(element).toString();
+    } else {
+      return erased.toString(); // a primitive
+    }
+  }
+
+  private void write() {
+    if (index.isEmpty()) {
+      return;
+    }
+
+    try {
+      FileObject resource = processingEnv.getFiler()
+          .createResource(StandardLocation.CLASS_OUTPUT, "", RESOURCE_NAME);
+      Writer writer = new OutputStreamWriter(resource.openOutputStream(), "UTF-8");
+      try {
+        for (Map.Entry<String, StringBuilder> entry : index.entrySet()) {
+          writer.append(entry.getKey()).append('\n').append(entry.getValue());
+        }
+      } finally {
+        writer.close();
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+          "Unable to write " + RESOURCE_NAME + ": " + e);
+    }
+  }
+}
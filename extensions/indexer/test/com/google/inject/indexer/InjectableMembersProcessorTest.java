@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.indexer;
+
+import com.google.inject.ConfigurationException;
+import com.google.inject.internal.util.ImmutableSet;
+import com.google.inject.internal.util.Sets;
+import com.google.inject.spi.InjectionPoint;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Set;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import junit.framework.TestCase;
+
+public class InjectableMembersProcessorTest extends TestCase {
+
+  private static final String SOURCE = ""
+      + "package a;\n"
+      + "import com.google.inject.Inject;\n"
+      + "public class Foo extends Base {\n"
+      + "  @Inject String field;\n"
+      + "  String notInjected;\n"
+      + "  @javax.inject.Inject Foo(java.util.List<String> list, int[][] ints) {}\n"
+      + "  @Inject <T extends Number> void generic(T t, T... ts) {}\n"
+      + "  void notInjected(String s) {}\n"
+      + "  public class Inner {\n"
+      + "    @Inject Inner(String s) {}\n"
+      + "  }\n"
+      + "  public static class Nested {\n"
+      + "    @Inject Nested() {}\n"
+      + "  }\n"
+      + "}\n"
+      + "class Base {}\n";
+
+  private File directory;
+
+  @Override protected void setUp() throws Exception {
+    directory = File.createTempFile("indexer", "");
+    directory.delete();
+    directory.mkdir();
+  }
+
+  @Override protected void tearDown() throws Exception {
+    delete(directory);
+  }
+
+  public void testIndex() throws Exception {
+    compile();
+    assertEquals(""
+        + "a.Base\n"
+        + "a.Foo\n"
+        + " f field\n"
+        + " c (java.util.List,int[][])\n"
+        + " m generic(java.lang.Number,java.lang.Number[])\n"
+        + "a.Foo$Inner\n"
+        + " c (a.Foo,java.lang.String)\n"
+        + "a.Foo$Nested\n"
+        + " c ()\n",
+        read(new File(directory, InjectableMembersProcessor.RESOURCE_NAME)));
+  }
+
+  public void testIndexIsUsedForInjectionPoints() throws Exception {
+    compile();
+    ClassLoader classLoader = new URLClassLoader(new URL[] { directory.toURI().toURL() },
+        InjectableMembersProcessorTest.class.getClassLoader());
+    Class<?> foo = classLoader.loadClass("a.Foo");
+
+    assertEquals(2, InjectionPoint.forConstructorOf(foo).getDependencies().size());
+    Set<InjectionPoint> injectionPoints;
+    try {
+      InjectionPoint.forInstanceMethodsAndFields(foo);
+      fail();
+      return;
+    } catch (ConfigurationException expected) {
+      // the generic method is found, but its type variables can't be keys
+      assertTrue(expected.getMessage(), expected.getMessage().contains("at a.Foo.generic("));
+      injectionPoints = expected.getPartialValue();
+    }
+    Set<String> names = Sets.newHashSet();
+    for (InjectionPoint injectionPoint : injectionPoints) {
+      names.add(injectionPoint.getMember().getName());
+    }
+    assertEquals(ImmutableSet.of("field"), names);
+  }
+
+  private void compile() throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    File source = new File(directory, "Foo.java");
+    Writer writer = new FileWriter(source);
+    try {
+      writer.write(SOURCE);
+    } finally {
+      writer.close();
+    }
+
+    StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+    try {
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+          Arrays.asList("-d", directory.getPath(),
+              "-classpath", System.getProperty("java.class.path")),
+          null, fileManager.getJavaFileObjects(source));
+      task.setProcessors(Arrays.asList(new InjectableMembersProcessor()));
+      assertTrue(task.call());
+    } finally {
+      fileManager.close();
+    }
+  }
+
+  private String read(File file) throws IOException {
+    InputStream in = new FileInputStream(file);
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      for (int b; (b = in.read()) != -1; ) {
+        out.write(b);
+      }
+      return out.toString("UTF-8");
+    } finally {
+      in.close();
+    }
+  }
+
+  private void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+}
@@ -17,13 +17,50 @@
 package com.google.inject.tools.jmx;
 
 import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Scopes;
+import com.google.inject.spi.ConvertedConstantBinding;
+import com.google.inject.spi.ExposedBinding;
+import com.google.inject.spi.InstanceBinding;
+import com.google.inject.spi.LinkedKeyBinding;
+import com.google.inject.util.ProvisionHistograms.Histogram;
+import java.util.Date;
 
 class ManagedBinding implements ManagedBindingMBean {
 
   final Binding binding;
+  private final Binding<?> target;
+  private final ProvisionMetrics metrics;
 
-  ManagedBinding(Binding binding) {
+  private long lastSampleMillis = System.currentTimeMillis();
+  private long lastSampleCount;
+  private double provisionsPerSecond;
+
+  /**
+   * @param metrics the provision metrics of {@code injector}, or null if the injector doesn't
+   *     collect them
+   */
+  ManagedBinding(Binding<?> binding, Injector injector, ProvisionMetrics metrics) {
     this.binding = binding;
+    this.target = target(binding, injector);
+    this.metrics = metrics;
+    this.lastSampleCount = getProvisionCount();
+  }
+
+  /** Returns the binding that provisions the instances of {@code binding}. */
+  private static Binding<?> target(Binding<?> binding, Injector injector) {
+    while (true) {
+      if (binding instanceof LinkedKeyBinding) {
+        binding = injector.getBinding(((LinkedKeyBinding<?>) binding).getLinkedKey());
+      } else if (binding instanceof ExposedBinding) {
+        ExposedBinding<?> exposedBinding = (ExposedBinding<?>) binding;
+        injector = exposedBinding.getPrivateElements().getInjector();
+        binding = injector.getBinding(exposedBinding.getKey());
+      } else {
+        return binding;
+      }
+    }
   }
 
   public String getSource() {
@@ -37,4 +74,47 @@ class ManagedBinding implements ManagedBindingMBean {
   public String getProvider() {
     return binding.getProvider().toString();
   }
+
+  public long getProvisionCount() {
+    Histogram histogram = histogram();
+    return histogram != null ? histogram.getCount() : 0;
+  }
+
+  public synchronized double getProvisionsPerSecond() {
+    long now = System.currentTimeMillis();
+    if (now - lastSampleMillis >= 1000) {
+      long count = getProvisionCount();
+      provisionsPerSecond = (count - lastSampleCount) * 1000.0 / (now - lastSampleMillis);
+      lastSampleCount = count;
+      lastSampleMillis = now;
+    }
+    return provisionsPerSecond;
+  }
+
+  public long getMeanProvisionNanos() {
+    Histogram histogram = histogram();
+    long count = histogram != null ? histogram.getCount() : 0;
+    return count != 0 ? histogram.getTotalNanos() / count : 0;
+  }
+
+  public long getP99ProvisionNanos() {
+    Histogram histogram = histogram();
+    return histogram != null ? histogram.getPercentileNanos(99) : 0;
+  }
+
+  public boolean isSingletonInitialized() {
+    if (target instanceof InstanceBinding || target instanceof ConvertedConstantBinding) {
+      return true;
+    }
+    return Scopes.isSingleton(target) && getProvisionCount() > 0;
+  }
+
+  public Date getFirstProvisionTime() {
+    Long millis = metrics != null ? metrics.getFirstProvisionMillis(target.getKey()) : null;
+    return millis != null ? new Date(millis) : null;
+  }
+
+  private Histogram histogram() {
+    return metrics != null ? metrics.histograms.getHistogram(target.getKey()) : null;
+  }
 }
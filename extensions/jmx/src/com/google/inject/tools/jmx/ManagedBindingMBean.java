@@ -16,6 +16,8 @@
 
 package com.google.inject.tools.jmx;
 
+import java.util.Date;
+
 /**
  * JMX interface to bindings.
  *
@@ -37,4 +39,38 @@ public interface ManagedBindingMBean {
    * Gets the binding key.
    */
   String getKey();
+
+  /**
+   * Gets the number of instances this binding has provisioned. The provision counters are zero
+   * unless the injector was created with {@link Manager#provisionMetricsModule}. Linked bindings
+   * report the counters of the bindings they link to.
+   */
+  long getProvisionCount();
+
+  /**
+   * Gets the rate of provisions since the rate was previously read, or since the bindings were
+   * registered. The rate is recomputed at most once a second.
+   */
+  double getProvisionsPerSecond();
+
+  /**
+   * Gets the mean time to provision an instance, in nanoseconds.
+   */
+  long getMeanProvisionNanos();
+
+  /**
+   * Gets the time within which 99% of instances were provisioned, in nanoseconds. This is an
+   * upper bound that's accurate to within a factor of two.
+   */
+  long getP99ProvisionNanos();
+
+  /**
+   * Returns true if this is a singleton binding whose instance has been created.
+   */
+  boolean isSingletonInitialized();
+
+  /**
+   * Gets when this binding first provisioned an instance, or null if it hasn't.
+   */
+  Date getFirstProvisionTime();
 }
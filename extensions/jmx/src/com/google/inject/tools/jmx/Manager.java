@@ -16,11 +16,13 @@
 
 package com.google.inject.tools.jmx;
 
+import com.google.inject.AbstractModule;
 import com.google.inject.Binding;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.matcher.Matchers;
 import java.lang.annotation.Annotation;
 import java.lang.management.ManagementFactory;
 import javax.management.MBeanServer;
@@ -50,6 +52,12 @@ public class Manager {
    */
   public static void manage(MBeanServer server, String domain,
       Injector injector) {
+    Binding<ProvisionMetrics> metricsBinding
+        = injector.getExistingBinding(Key.get(ProvisionMetrics.class));
+    ProvisionMetrics metrics = metricsBinding != null
+        ? metricsBinding.getProvider().get()
+        : null;
+
     // Register each binding independently.
     for (Binding<?> binding : injector.getBindings().values()) {
       // Construct the name manually so we can ensure proper ordering of the
@@ -71,7 +79,7 @@ public class Manager {
       }
 
       try {
-        server.registerMBean(new ManagedBinding(binding),
+        server.registerMBean(new ManagedBinding(binding, injector, metrics),
             new ObjectName(name.toString()));
       }
       catch (MalformedObjectNameException e) {
@@ -84,6 +92,22 @@ public class Manager {
     }
   }
 
+  /**
+   * Returns a module that collects the provision counts and latencies that {@link #manage}
+   * exposes for each binding. Install it in the injector to be managed; without it, the bindings'
+   * provision metrics are zero. Collecting the metrics doesn't lock, but does time every
+   * provision.
+   */
+  public static Module provisionMetricsModule() {
+    return new AbstractModule() {
+      @Override protected void configure() {
+        ProvisionMetrics metrics = new ProvisionMetrics();
+        bind(ProvisionMetrics.class).toInstance(metrics);
+        bindListener(Matchers.any(), metrics);
+      }
+    };
+  }
+
   static String quote(String value) {
     // JMX seems to have a comma bug.
     return ObjectName.quote(value).replace(',', ';');
@@ -101,7 +125,7 @@ public class Manager {
     }
 
     Module module = (Module) Class.forName(args[0]).newInstance();
-    Injector injector = Guice.createInjector(module);
+    Injector injector = Guice.createInjector(module, provisionMetricsModule());
 
     manage(args[0], injector);
 
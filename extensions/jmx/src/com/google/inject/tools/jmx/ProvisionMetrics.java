@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.tools.jmx;
+
+import com.google.inject.Binding;
+import com.google.inject.Key;
+import com.google.inject.spi.ProvisionListener;
+import com.google.inject.util.ProvisionHistograms;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collects the provision metrics of an injector's bindings. Once a key has been provisioned,
+ * recording another provision only reads concurrent maps and updates striped counters.
+ */
+class ProvisionMetrics implements ProvisionListener {
+
+  final ProvisionHistograms histograms = new ProvisionHistograms();
+  private final ConcurrentMap<Key<?>, Long> firstProvisionMillis
+      = new ConcurrentHashMap<Key<?>, Long>();
+
+  public void onProvision(Binding<?> binding, long nanos) {
+    histograms.onProvision(binding, nanos);
+    Key<?> key = binding.getKey();
+    if (!firstProvisionMillis.containsKey(key)) {
+      firstProvisionMillis.putIfAbsent(key, System.currentTimeMillis() - nanos / 1000000);
+    }
+  }
+
+  /** Returns when {@code key} was first provisioned, or null if it hasn't been. */
+  Long getFirstProvisionMillis(Key<?> key) {
+    return firstProvisionMillis.get(key);
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.tools.jmx;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Singleton;
+import java.util.Date;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import junit.framework.TestCase;
+
+public class ManagerTest extends TestCase {
+
+  private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+
+  public void testProvisionMetrics() throws Exception {
+    Injector injector = Guice.createInjector(Manager.provisionMetricsModule(), new TestModule());
+    Manager.manage(server, "test", injector);
+
+    ObjectName foo = name(Foo.class);
+    ObjectName singleton = name(SingletonFoo.class);
+    assertEquals(0L, server.getAttribute(foo, "ProvisionCount"));
+    assertNull(server.getAttribute(foo, "FirstProvisionTime"));
+    assertEquals(false, server.getAttribute(singleton, "SingletonInitialized"));
+
+    long before = System.currentTimeMillis();
+    injector.getInstance(Foo.class);
+    injector.getInstance(Foo.class);
+    injector.getInstance(SingletonFoo.class);
+
+    // Foo is linked to FooImpl, so they report the same counters
+    assertEquals(2L, server.getAttribute(foo, "ProvisionCount"));
+    assertEquals(2L, server.getAttribute(name(FooImpl.class), "ProvisionCount"));
+    assertEquals(1L, server.getAttribute(singleton, "ProvisionCount"));
+    assertEquals(true, server.getAttribute(singleton, "SingletonInitialized"));
+    assertEquals(false, server.getAttribute(foo, "SingletonInitialized"));
+    assertTrue((Long) server.getAttribute(foo, "P99ProvisionNanos")
+        >= (Long) server.getAttribute(foo, "MeanProvisionNanos"));
+    Date firstProvisionTime = (Date) server.getAttribute(foo, "FirstProvisionTime");
+    assertTrue(firstProvisionTime.getTime() <= System.currentTimeMillis());
+    assertTrue(firstProvisionTime.getTime() >= before - 1000);
+  }
+
+  public void testWithoutProvisionMetrics() throws Exception {
+    Injector injector = Guice.createInjector(new TestModule());
+    Manager.manage(server, "test", injector);
+    injector.getInstance(Foo.class);
+
+    ObjectName foo = name(Foo.class);
+    assertEquals(0L, server.getAttribute(foo, "ProvisionCount"));
+    assertEquals(0.0, server.getAttribute(foo, "ProvisionsPerSecond"));
+    assertNull(server.getAttribute(foo, "FirstProvisionTime"));
+  }
+
+  private ObjectName name(Class<?> type) throws Exception {
+    return new ObjectName("test:type=" + Manager.quote(type.getName()));
+  }
+
+  interface Foo {}
+
+  static class FooImpl implements Foo {}
+
+  @Singleton
+  static class SingletonFoo {}
+
+  static class TestModule extends AbstractModule {
+    @Override protected void configure() {
+      bind(Foo.class).to(FooImpl.class);
+      bind(FooImpl.class);
+      bind(SingletonFoo.class);
+    }
+  }
+}
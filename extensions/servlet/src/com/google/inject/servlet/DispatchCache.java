@@ -0,0 +1,257 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.servlet;
+
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers which filters and servlet match the paths of recent requests, so that requests for the
+ * same path needn't look them up again. Once the cache is full, paths that haven't been requested
+ * for a while are evicted, as a clock sweep that approximates least recently used decides. Looking
+ * up a cached path takes no locks.
+ *
+ * <p>Paths that are long, or that haven't been requested recently, aren't cached. This keeps paths
+ * that are rarely requested twice, such as those with IDs in them, from evicting those that are
+ * requested all the time.
+ */
+final class DispatchCache {
+
+  /** Use "-Dguice.servlet.dispatch.cache.size=N" to cache up to N paths, or 0 for none. */
+  static final String SIZE_PROPERTY = "guice.servlet.dispatch.cache.size";
+
+  static final int DEFAULT_SIZE = 1024;
+
+  /** Longer paths aren't cached. */
+  static final int MAX_PATH_LENGTH = 256;
+
+  private static final int MAX_SEGMENTS = 16;
+
+  private final UriPatternIndex filterIndex;
+  private final UriPatternIndex servletIndex;
+  private final int maximumSize;
+  private final Segment[] segments;
+
+  /**
+   * The hashes of recently requested paths, each in the slot that its low bits pick. A path is
+   * only cached when its hash is already there. Paths that differ at all usually differ in their
+   * last characters, which {@link String#hashCode} puts in the low bits.
+   */
+  private final AtomicIntegerArray recentHashes;
+
+  private final StripedCounter hits = new StripedCounter();
+  private final StripedCounter misses = new StripedCounter();
+  private final StripedCounter bypasses = new StripedCounter();
+
+  DispatchCache(UriPatternIndex filterIndex, UriPatternIndex servletIndex, int maximumSize) {
+    this.filterIndex = filterIndex;
+    this.servletIndex = servletIndex;
+    this.maximumSize = Math.max(0, maximumSize);
+
+    int segmentCount = 1;
+    while (segmentCount < MAX_SEGMENTS && segmentCount * 2 <= this.maximumSize) {
+      segmentCount <<= 1;
+    }
+    segments = new Segment[this.maximumSize > 0 ? segmentCount : 0];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = new Segment(this.maximumSize / segmentCount);
+    }
+
+    int slots = 1;
+    while (slots < this.maximumSize * 2) {
+      slots <<= 1;
+    }
+    recentHashes = new AtomicIntegerArray(slots);
+  }
+
+  /** Returns the cache size set by the {@code guice.servlet.dispatch.cache.size} property. */
+  static int getConfiguredSize() {
+    return Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE);
+  }
+
+  /** Returns the filters and servlet that match {@code path}. */
+  Dispatch get(String path) {
+    if (segments.length == 0) {
+      return newDispatch(path);
+    }
+    if (path.length() > MAX_PATH_LENGTH) {
+      bypasses.increment();
+      return newDispatch(path);
+    }
+
+    int hash = path.hashCode();
+    Segment segment = segments[hash & (segments.length - 1)];
+    Dispatch dispatch = segment.get(path);
+    if (dispatch != null) {
+      hits.increment();
+      return dispatch;
+    }
+
+    dispatch = newDispatch(path);
+    int slot = hash & (recentHashes.length() - 1);
+    if (recentHashes.getAndSet(slot, hash) != hash) {
+      bypasses.increment();
+      return dispatch;
+    }
+
+    misses.increment();
+    segment.put(path, dispatch);
+    return dispatch;
+  }
+
+  private Dispatch newDispatch(String path) {
+    int servlet = servletIndex.firstMatching(path);
+    String servletPath = servlet < servletIndex.size()
+        ? servletIndex.get(servlet).extractPath(path)
+        : null;
+    return new Dispatch(path, filterIndex.matching(path), servlet, servletPath);
+  }
+
+  int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  DispatchCacheStats getStats() {
+    return new DispatchCacheStats(hits.sum(), misses.sum(), bypasses.sum(), size(), maximumSize);
+  }
+
+  /** The filters and servlet that match a path. */
+  static final class Dispatch {
+    final String path;
+
+    /** The indices of the matching filters, in increasing order. */
+    final int[] filters;
+
+    /** The index of the first matching servlet, or the number of servlets if none match. */
+    final int servlet;
+
+    /**
+     * The servlet path that the matching servlet's pattern extracts from {@code path}, or null if
+     * it extracts none. Regex patterns match the path again to extract it, so it's done only once.
+     */
+    final String servletPath;
+
+    Dispatch(String path, int[] filters, int servlet, String servletPath) {
+      this.path = path;
+      this.filters = filters;
+      this.servlet = servlet;
+      this.servletPath = servletPath;
+    }
+  }
+
+  /**
+   * Cached paths, and a clock that visits them in turn to find one to evict. Requests mark the
+   * paths they hit as referenced, and the clock spares referenced paths once, clearing their mark.
+   * Lookups only read the map and, when it isn't set already, set the mark.
+   */
+  private static class Segment {
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    /** The entries in the order that the clock visits them; guarded by this. */
+    private final Queue<Entry> clock = new LinkedList<Entry>();
+    private final int capacity;
+
+    Segment(int capacity) {
+      this.capacity = capacity;
+    }
+
+    Dispatch get(String path) {
+      Entry entry = entries.get(path);
+      if (entry == null) {
+        return null;
+      }
+      if (!entry.referenced) {
+        entry.referenced = true;
+      }
+      return entry.dispatch;
+    }
+
+    synchronized void put(String path, Dispatch dispatch) {
+      Entry entry = new Entry(path, dispatch);
+      if (entries.putIfAbsent(path, entry) != null) {
+        return;
+      }
+
+      clock.add(entry);
+      while (clock.size() > capacity) {
+        Entry next = clock.remove();
+        if (next.referenced) {
+          next.referenced = false;
+          clock.add(next);
+        } else {
+          entries.remove(next.path);
+        }
+      }
+    }
+
+    int size() {
+      return entries.size();
+    }
+  }
+
+  private static class Entry {
+    final String path;
+    final Dispatch dispatch;
+    /** Whether the path was requested since the clock last visited it. New paths count as such. */
+    volatile boolean referenced = true;
+
+    Entry(String path, Dispatch dispatch) {
+      this.path = path;
+      this.dispatch = dispatch;
+    }
+  }
+
+  /**
+   * A count that each thread increments in a cell of its own, so that requests on different
+   * threads don't contend on one. Reading it sums the cells.
+   */
+  private static class StripedCounter {
+    private static final int STRIPES;
+    static {
+      int stripes = 1;
+      while (stripes < Runtime.getRuntime().availableProcessors() && stripes < 64) {
+        stripes <<= 1;
+      }
+      STRIPES = stripes;
+    }
+
+    /** Cells are this many longs apart, so that each has a cache line of its own. */
+    private static final int SPACING = 8;
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * SPACING);
+
+    void increment() {
+      int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+      cells.getAndIncrement(stripe * SPACING);
+    }
+
+    long sum() {
+      long sum = 0;
+      for (int i = 0; i < cells.length(); i += SPACING) {
+        sum += cells.get(i);
+      }
+      return sum;
+    }
+  }
+}
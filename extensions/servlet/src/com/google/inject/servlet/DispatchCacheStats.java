@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.servlet;
+
+/**
+ * A snapshot of how well guice-servlet's cache of the filters and servlet that match each request
+ * path is working. Inject it to tune the cache's size, which is set with the {@code
+ * guice.servlet.dispatch.cache.size} system property:
+ *
+ * <ul>
+ *   <li>a <i>hit</i> is a request whose path was cached.
+ *   <li>a <i>miss</i> is a request whose path wasn't cached, and now is.
+ *   <li>a <i>bypass</i> is a request whose path wasn't cached, and won't be, because it's long or
+ *       hasn't been requested recently. Many bypasses mean that paths are evicted before they're
+ *       requested again, or that most paths are only requested once.
+ * </ul>
+ *
+ * <p>Nothing is counted if the cache is disabled.
+ *
+ * @since 3.0
+ */
+public final class DispatchCacheStats {
+  private final long hitCount;
+  private final long missCount;
+  private final long bypassCount;
+  private final int size;
+  private final int maximumSize;
+
+  DispatchCacheStats(long hitCount, long missCount, long bypassCount, int size, int maximumSize) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.bypassCount = bypassCount;
+    this.size = size;
+    this.maximumSize = maximumSize;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getBypassCount() {
+    return bypassCount;
+  }
+
+  /** Returns the number of requests that were looked up in the cache. */
+  public long getRequestCount() {
+    return hitCount + missCount + bypassCount;
+  }
+
+  /** Returns the fraction of requests that were hits, or 1.0 if there haven't been any. */
+  public double getHitRate() {
+    long requestCount = getRequestCount();
+    return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+  }
+
+  /** Returns the number of paths in the cache. */
+  public int getSize() {
+    return size;
+  }
+
+  /** Returns the most paths that the cache holds, which is 0 if it's disabled. */
+  public int getMaximumSize() {
+    return maximumSize;
+  }
+
+  @Override public String toString() {
+    return "hits=" + hitCount
+        + ", misses=" + missCount
+        + ", bypasses=" + bypassCount
+        + ", size=" + size + "/" + maximumSize;
+  }
+}
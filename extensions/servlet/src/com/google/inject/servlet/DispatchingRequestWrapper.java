@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.servlet;
+
+import static com.google.inject.servlet.ManagedServletPipeline.REQUEST_DISPATCHER_REQUEST;
+
+import java.util.regex.Pattern;
+import javax.servlet.RequestDispatcher;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+
+/**
+ * Wraps a request that guice-servlet dispatches. The managed filter pipeline wraps each request in
+ * one whose request dispatchers dispatch to the managed servlets. Each servlet that serves a request
+ * gets one of its own, whose servlet path and path info are those that the servlet's pattern maps,
+ * computed lazily and only once.
+ *
+ * <p>The mapping of a wrapper never changes, so the pipeline's wrapper, which filters see and
+ * injected requests return, always has the paths that the container gave the request. A request
+ * that a managed servlet serves is therefore wrapped twice: once by the pipeline, and once for the
+ * servlet.
+ */
+@SuppressWarnings("deprecation") // HttpServletRequestWrapper implements deprecated API
+class DispatchingRequestWrapper extends HttpServletRequestWrapper {
+  private static final Pattern MULTIPLE_SLASHES = Pattern.compile("[/]{2,}");
+
+  /** The pipeline whose servlets this dispatches to, or null to dispatch like the request. */
+  private final ManagedServletPipeline servletPipeline;
+
+  /** The pattern of the servlet that serves this request, or null to keep the request's paths. */
+  private final UriPatternMatcher patternMatcher;
+
+  /** The servlet and its servlet path that the pipeline found for the request, or null. */
+  private final DispatchCache.Dispatch dispatch;
+
+  private String path;
+  private boolean pathComputed = false;
+  //must use a boolean on the memo field, because null is a legal value (TODO no, it's not)
+
+  private boolean pathInfoComputed = false;
+  private String pathInfo;
+
+  DispatchingRequestWrapper(HttpServletRequest request, ManagedServletPipeline servletPipeline,
+      UriPatternMatcher patternMatcher, DispatchCache.Dispatch dispatch) {
+    super(request);
+    this.servletPipeline = servletPipeline;
+    this.patternMatcher = patternMatcher;
+    this.dispatch = dispatch;
+  }
+
+  private boolean isServing() {
+    return patternMatcher != null;
+  }
+
+  @Override
+  public RequestDispatcher getRequestDispatcher(String path) {
+    final RequestDispatcher dispatcher = (null != servletPipeline)
+        ? servletPipeline.getRequestDispatcher(path)
+        : null;
+
+    return (null != dispatcher) ? dispatcher : super.getRequestDispatcher(path);
+  }
+
+  @Override
+  public String getPathInfo() {
+    if (!isServing()) {
+      return super.getPathInfo();
+    }
+
+    if (!isPathInfoComputed()) {
+      int servletPathLength = getServletPath().length();
+      pathInfo = getRequestURI().substring(getContextPath().length());
+      if (pathInfo.indexOf("//") >= 0) {
+        pathInfo = MULTIPLE_SLASHES.matcher(pathInfo).replaceAll("/");
+      }
+      pathInfo = pathInfo.length() > servletPathLength
+          ? pathInfo.substring(servletPathLength)
+          : null;
+
+      // Corner case: when servlet path and request path match exactly (without trailing '/'),
+      // then pathinfo is null
+      if ("".equals(pathInfo) && servletPathLength != 0) {
+        pathInfo = null;
+      }
+
+      pathInfoComputed = true;
+    }
+
+    return pathInfo;
+  }
+
+  // NOTE(dhanji): These two are a bit of a hack to help ensure that request dipatcher-sent
+  // requests don't use the same path info that was memoized for the original request.
+  private boolean isPathInfoComputed() {
+    return pathInfoComputed
+        && !(null != getAttribute(REQUEST_DISPATCHER_REQUEST));
+  }
+
+  private boolean isPathComputed() {
+    return pathComputed
+        && !(null != getAttribute(REQUEST_DISPATCHER_REQUEST));
+  }
+
+  @Override
+  public String getServletPath() {
+    return isServing() ? computePath() : super.getServletPath();
+  }
+
+  @Override
+  public String getPathTranslated() {
+    if (!isServing()) {
+      return super.getPathTranslated();
+    }
+
+    final String info = getPathInfo();
+
+    return (null == info) ? null : getRealPath(info);
+  }
+
+  // Memoizer pattern.
+  private String computePath() {
+    if (!isPathComputed()) {
+      String servletPath = super.getServletPath();
+      path = dispatch != null && dispatch.path.equals(servletPath)
+          ? dispatch.servletPath
+          : patternMatcher.extractPath(servletPath);
+      pathComputed = true;
+
+      if (null == path) {
+        path = servletPath;
+      }
+    }
+
+    return path;
+  }
+}
@@ -40,33 +40,47 @@ import com.google.inject.servlet.GuiceFilter.Context;
  */
 class FilterChainInvocation implements FilterChain {
   private final FilterDefinition[] filterDefinitions;
+  private final DispatchCache dispatchCache;
   private final FilterChain proceedingChain;
   private final ManagedServletPipeline servletPipeline;
 
   //state variable tracks current link in filterchain
   private int index = -1;
 
-  public FilterChainInvocation(FilterDefinition[] filterDefinitions,
+  // the filters and servlet that match the path of the last link, which is usually the path of
+  // every link, unless a filter passes a request with another URI down the chain
+  private DispatchCache.Dispatch dispatch;
+  private int match;
+
+  // the URI and context path that the dispatch was found for, which requests usually return the
+  // same strings for each time
+  private String dispatchUri;
+  private String dispatchContextPath;
+
+  public FilterChainInvocation(FilterDefinition[] filterDefinitions, DispatchCache dispatchCache,
       ManagedServletPipeline servletPipeline, FilterChain proceedingChain) {
 
     this.filterDefinitions = filterDefinitions;
+    this.dispatchCache = dispatchCache;
     this.servletPipeline = servletPipeline;
     this.proceedingChain = proceedingChain;
   }
 
 	public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse) throws IOException, ServletException {
-		index++;
+		index = nextFilter(servletRequest);
 
 		GuiceFilter.getRequestResponseStack().push(servletRequest, servletResponse);
 		try {
-			// dispatch down the chain while there are more filters
+			// dispatch down the chain while there are more matching filters
 			if (index < filterDefinitions.length) {
-				filterDefinitions[index].doFilter(servletRequest, servletResponse, this);
+				filterDefinitions[index].getFilter().doFilter(servletRequest, servletResponse, this);
 			} else {
 
 				// we've reached the end of the filterchain, let's try to
 				// dispatch to a servlet
-				final boolean serviced = servletPipeline.service(servletRequest, servletResponse);
+				final boolean serviced = servletPipeline.hasServletsMapped()
+						&& servletPipeline.service(servletRequest, servletResponse,
+								dispatchFor(servletRequest));
 
 				// dispatch to the normal filter chain only if one of our
 				// servlets did not match
@@ -78,4 +92,39 @@ class FilterChainInvocation implements FilterChain {
 			GuiceFilter.getRequestResponseStack().pop();
 		}
 	}
+
+  /**
+   * Returns the index of the next filter that matches the request's path, or the number of
+   * filters if none of the rest match.
+   */
+  private int nextFilter(ServletRequest servletRequest) {
+    if (index + 1 >= filterDefinitions.length) {
+      return filterDefinitions.length;
+    }
+
+    int[] filters = dispatchFor(servletRequest).filters;
+    while (match < filters.length && filters[match] <= index) {
+      match++;
+    }
+    return match < filters.length ? filters[match] : filterDefinitions.length;
+  }
+
+  /** Returns the filters and servlet that match the request's path. */
+  private DispatchCache.Dispatch dispatchFor(ServletRequest servletRequest) {
+    HttpServletRequest request = (HttpServletRequest) servletRequest;
+    String uri = request.getRequestURI();
+    String contextPath = request.getContextPath();
+    if (dispatch != null && uri == dispatchUri && contextPath == dispatchContextPath) {
+      return dispatch;
+    }
+
+    String path = uri.substring(contextPath.length());
+    if (dispatch == null || !path.equals(dispatch.path)) {
+      dispatch = dispatchCache.get(path);
+      match = 0;
+    }
+    dispatchUri = uri;
+    dispatchContextPath = contextPath;
+    return dispatch;
+  }
 }
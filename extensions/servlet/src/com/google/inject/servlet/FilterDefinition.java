@@ -23,7 +23,6 @@ import com.google.inject.spi.BindingTargetVisitor;
 import com.google.inject.spi.ProviderInstanceBinding;
 import com.google.inject.spi.ProviderWithExtensionVisitor;
 
-import java.io.IOException;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -34,9 +33,6 @@ import javax.servlet.Filter;
 import javax.servlet.FilterConfig;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
-import javax.servlet.ServletRequest;
-import javax.servlet.ServletResponse;
-import javax.servlet.http.HttpServletRequest;
 
 /**
  * An internal representation of a filter definition against a particular URI pattern.
@@ -88,10 +84,6 @@ class FilterDefinition implements ProviderWithExtensionVisitor<FilterDefinition>
     }
   }
 
-  private boolean shouldFilter(String uri) {
-    return patternMatcher.matches(uri);
-  }
-
   public void init(final ServletContext servletContext, Injector injector,
       Set<Filter> initializedSoFar) throws ServletException {
 
@@ -152,25 +144,15 @@ class FilterDefinition implements ProviderWithExtensionVisitor<FilterDefinition>
     }
   }
 
-  public void doFilter(ServletRequest servletRequest,
-      ServletResponse servletResponse, FilterChainInvocation filterChainInvocation)
-      throws IOException, ServletException {
-
-    final HttpServletRequest request = (HttpServletRequest) servletRequest;
-    final String path = request.getRequestURI().substring(request.getContextPath().length());
-
-    if (shouldFilter(path)) {
-      filter.get()
-            .doFilter(servletRequest, servletResponse, filterChainInvocation);
-
-    } else {
-      //otherwise proceed down chain anyway
-      filterChainInvocation.doFilter(servletRequest, servletResponse);
-    }
-  }
-
-  //VisibleForTesting
+  /**
+   * Returns the filter, once {@link #init} has been called. The filter chain only calls it for
+   * requests whose path matches this definition's pattern.
+   */
   Filter getFilter() {
     return filter.get();
   }
+
+  UriPatternMatcher getPatternMatcher() {
+    return patternMatcher;
+  }
 }
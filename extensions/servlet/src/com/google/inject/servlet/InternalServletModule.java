@@ -91,6 +91,10 @@ final class InternalServletModule extends AbstractModule {
     bind(ServletContext.class).toProvider(BackwardsCompatibleServletContextProvider.class);
   }
 
+  @Provides DispatchCacheStats provideDispatchCacheStats(ManagedFilterPipeline filterPipeline) {
+    return filterPipeline.getDispatchCacheStats();
+  }
+
   @Provides @RequestScoped RequestResponseStack provideRequestResponseStack() {
     return GuiceFilter.getRequestResponseStack();
   }
@@ -29,13 +29,11 @@ import java.util.List;
 import java.util.Set;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
-import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletRequestWrapper;
 
 /**
  * Central routing/dispatch class handles lifecycle of managed filters, and delegates to the servlet
@@ -46,6 +44,7 @@ import javax.servlet.http.HttpServletRequestWrapper;
 @Singleton
 class ManagedFilterPipeline implements FilterPipeline{
   private final FilterDefinition[] filterDefinitions;
+  private final DispatchCache dispatchCache;
   private final ManagedServletPipeline servletPipeline;
   private final Provider<ServletContext> servletContext;
 
@@ -65,6 +64,13 @@ class ManagedFilterPipeline implements FilterPipeline{
     this.servletContext = servletContext;
 
     this.filterDefinitions = collectFilterDefinitions(injector);
+
+    List<UriPatternMatcher> patternMatchers = Lists.newArrayList();
+    for (FilterDefinition filterDefinition : filterDefinitions) {
+      patternMatchers.add(filterDefinition.getPatternMatcher());
+    }
+    this.dispatchCache = new DispatchCache(new UriPatternIndex(patternMatchers),
+        servletPipeline.getServletIndex(), DispatchCache.getConfiguredSize());
   }
 
   /**
@@ -115,7 +121,8 @@ class ManagedFilterPipeline implements FilterPipeline{
     }
 
     //obtain the servlet pipeline to dispatch against
-    new FilterChainInvocation(filterDefinitions, servletPipeline, proceedingFilterChain)
+    new FilterChainInvocation(filterDefinitions, dispatchCache, servletPipeline,
+        proceedingFilterChain)
         .doFilter(withDispatcher(request, servletPipeline), response);
 
   }
@@ -144,16 +151,11 @@ class ManagedFilterPipeline implements FilterPipeline{
       return servletRequest;
     }
 
-    //noinspection OverlyComplexAnonymousInnerClass
-    return new HttpServletRequestWrapper(request) {
-
-      @Override
-      public RequestDispatcher getRequestDispatcher(String path) {
-        final RequestDispatcher dispatcher = servletPipeline.getRequestDispatcher(path);
+    return new DispatchingRequestWrapper(request, servletPipeline, null, null);
+  }
 
-        return (null != dispatcher) ? dispatcher : super.getRequestDispatcher(path);
-      }
-    };
+  DispatchCacheStats getDispatchCacheStats() {
+    return dispatchCache.getStats();
   }
 
   public void destroyPipeline() {
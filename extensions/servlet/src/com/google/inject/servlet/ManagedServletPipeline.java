@@ -45,18 +45,29 @@ import javax.servlet.http.HttpServletRequestWrapper;
 @Singleton
 class ManagedServletPipeline {
   private final ServletDefinition[] servletDefinitions;
+  private final UriPatternIndex servletIndex;
   private static final TypeLiteral<ServletDefinition> SERVLET_DEFS =
       TypeLiteral.get(ServletDefinition.class);
 
   @Inject
   public ManagedServletPipeline(Injector injector) {
     this.servletDefinitions = collectServletDefinitions(injector);
+
+    List<UriPatternMatcher> patternMatchers = Lists.newArrayList();
+    for (ServletDefinition servletDefinition : servletDefinitions) {
+      patternMatchers.add(servletDefinition.getPatternMatcher());
+    }
+    this.servletIndex = new UriPatternIndex(patternMatchers);
   }
 
   boolean hasServletsMapped() {
     return servletDefinitions.length > 0;
   }
 
+  UriPatternIndex getServletIndex() {
+    return servletIndex;
+  }
+
   /**
    * Introspects the injector and collects all instances of bound {@code List<ServletDefinition>}
    * into a master list.
@@ -83,14 +94,15 @@ class ManagedServletPipeline {
     }
   }
 
-  public boolean service(ServletRequest request, ServletResponse response)
-      throws IOException, ServletException {
-
-    //stop at the first matching servlet and service
-    for (ServletDefinition servletDefinition : servletDefinitions) {
-      if (servletDefinition.service(request, response)) {
-        return true;
-      }
+  /**
+   * Services the request with the servlet that {@code dispatch} found for its path. Returns false
+   * if none matched.
+   */
+  boolean service(ServletRequest servletRequest, ServletResponse response,
+      DispatchCache.Dispatch dispatch) throws IOException, ServletException {
+    if (dispatch.servlet < servletDefinitions.length) {
+      servletDefinitions[dispatch.servlet].doService(servletRequest, response, dispatch);
+      return true;
     }
 
     //there was no match...
@@ -115,55 +127,55 @@ class ManagedServletPipeline {
     // TODO(dhanji): check servlet spec to see if the following is legal or not.
     // Need to strip query string if requested...
 
-    for (final ServletDefinition servletDefinition : servletDefinitions) {
-      if (servletDefinition.shouldServe(path)) {
-        return new RequestDispatcher() {
-          public void forward(ServletRequest servletRequest, ServletResponse servletResponse)
-              throws ServletException, IOException {
-            Preconditions.checkState(!servletResponse.isCommitted(),
-                "Response has been committed--you can only call forward before"
-                + " committing the response (hint: don't flush buffers)");
-
-            // clear buffer before forwarding
-            servletResponse.resetBuffer();
-
-            ServletRequest requestToProcess;
-            if (servletRequest instanceof HttpServletRequest) {
-               requestToProcess = new RequestDispatcherRequestWrapper(servletRequest, newRequestUri);
-            } else {
-              // This should never happen, but instead of throwing an exception
-              // we will allow a happy case pass thru for maximum tolerance to
-              // legacy (and internal) code.
-              requestToProcess = servletRequest;
-            }
-
-            servletRequest.setAttribute(REQUEST_DISPATCHER_REQUEST, Boolean.TRUE);
-
-            // now dispatch to the servlet
-            try {
-              servletDefinition.doService(requestToProcess, servletResponse);
-            } finally {
-              servletRequest.removeAttribute(REQUEST_DISPATCHER_REQUEST);
-            }
-          }
-
-          public void include(ServletRequest servletRequest, ServletResponse servletResponse)
-              throws ServletException, IOException {
-            servletRequest.setAttribute(REQUEST_DISPATCHER_REQUEST, Boolean.TRUE);
-
-            // route to the target servlet
-            try {
-              servletDefinition.doService(servletRequest, servletResponse);
-            } finally {
-              servletRequest.removeAttribute(REQUEST_DISPATCHER_REQUEST);
-            }
-          }
-        };
-      }
+    int index = servletIndex.firstMatching(path);
+    if (index == servletDefinitions.length) {
+      //no servlet is mapped to this path, so we can't process it
+      return null;
     }
 
-    //otherwise, can't process
-    return null;
+    final ServletDefinition servletDefinition = servletDefinitions[index];
+    return new RequestDispatcher() {
+      public void forward(ServletRequest servletRequest, ServletResponse servletResponse)
+          throws ServletException, IOException {
+        Preconditions.checkState(!servletResponse.isCommitted(),
+            "Response has been committed--you can only call forward before"
+            + " committing the response (hint: don't flush buffers)");
+
+        // clear buffer before forwarding
+        servletResponse.resetBuffer();
+
+        ServletRequest requestToProcess;
+        if (servletRequest instanceof HttpServletRequest) {
+           requestToProcess = new RequestDispatcherRequestWrapper(servletRequest, newRequestUri);
+        } else {
+          // This should never happen, but instead of throwing an exception
+          // we will allow a happy case pass thru for maximum tolerance to
+          // legacy (and internal) code.
+          requestToProcess = servletRequest;
+        }
+
+        servletRequest.setAttribute(REQUEST_DISPATCHER_REQUEST, Boolean.TRUE);
+
+        // now dispatch to the servlet
+        try {
+          servletDefinition.doService(requestToProcess, servletResponse);
+        } finally {
+          servletRequest.removeAttribute(REQUEST_DISPATCHER_REQUEST);
+        }
+      }
+
+      public void include(ServletRequest servletRequest, ServletResponse servletResponse)
+          throws ServletException, IOException {
+        servletRequest.setAttribute(REQUEST_DISPATCHER_REQUEST, Boolean.TRUE);
+
+        // route to the target servlet
+        try {
+          servletDefinition.doService(servletRequest, servletResponse);
+        } finally {
+          servletRequest.removeAttribute(REQUEST_DISPATCHER_REQUEST);
+        }
+      }
+    };
   }
 
   /**
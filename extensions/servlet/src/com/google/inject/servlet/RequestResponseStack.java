@@ -1,9 +1,6 @@
 package com.google.inject.servlet;
 
 
-import java.util.ArrayList;
-import java.util.List;
-
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
@@ -13,23 +10,51 @@ import javax.servlet.http.HttpServletResponse;
 
 public class RequestResponseStack {
 
-	private List<GuiceFilter.Context> _stack = new ArrayList<GuiceFilter.Context>();
+	// each link of a filter chain usually pushes the same context as the last, so each context is
+	// kept once, with the number of times it was pushed in a row
+	private GuiceFilter.Context[] _stack = new GuiceFilter.Context[4];
+	private int[] _counts = new int[4];
+	private int _size;
 
 
 	public void push(ServletRequest req, ServletResponse resp) {
+		GuiceFilter.Context top = _size > 0 ? _stack[_size-1] : null;
+		if (top != null && top.request == req && top.response == resp) {
+			_counts[_size-1]++;
+			return;
+		}
+
 		GuiceFilter.Context ctx = new GuiceFilter.Context((HttpServletRequest)req, (HttpServletResponse)resp);
 		push(ctx);
 	}
 	public void push(GuiceFilter.Context context) {
-		_stack.add(context);
+		if (_size > 0 && _stack[_size-1] == context) {
+			_counts[_size-1]++;
+			return;
+		}
+
+		if (_size == _stack.length) {
+			GuiceFilter.Context[] stack = new GuiceFilter.Context[_size * 2];
+			int[] counts = new int[_size * 2];
+			System.arraycopy(_stack, 0, stack, 0, _size);
+			System.arraycopy(_counts, 0, counts, 0, _size);
+			_stack = stack;
+			_counts = counts;
+		}
+		_stack[_size] = context;
+		_counts[_size] = 1;
+		_size++;
 	}
 
 	public void pop() {
-		_stack.remove(_stack.size()-1);
+		if (--_counts[_size-1] == 0) {
+			_stack[_size-1] = null;
+			_size--;
+		}
 	}
 
 	public GuiceFilter.Context currentContext() {
-		return _stack.get(_stack.size()-1);
+		return _stack[_size-1];
 	}
 
 }
@@ -37,9 +37,6 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletRequestWrapper;
-
-import static com.google.inject.servlet.ManagedServletPipeline.REQUEST_DISPATCHER_REQUEST;
 
 /**
  * An internal representation of a servlet definition mapped to a particular URI pattern. Also
@@ -92,10 +89,6 @@ class ServletDefinition implements ProviderWithExtensionVisitor<ServletDefinitio
     }
   }
 
-  boolean shouldServe(String uri) {
-    return patternMatcher.matches(uri);
-  }
-
   public void init(final ServletContext servletContext, Injector injector,
       Set<HttpServlet> initializedSoFar) throws ServletException {
 
@@ -155,111 +148,26 @@ class ServletDefinition implements ProviderWithExtensionVisitor<ServletDefinitio
     }
   }
 
-  /**
-   * Wrapper around the service chain to ensure a servlet is servicing what it must and provides it
-   * with a wrapped request.
-   *
-   * @return Returns true if this servlet triggered for the given request. Or false if
-   *          guice-servlet should continue dispatching down the servlet pipeline.
-   * 
-   * @throws IOException If thrown by underlying servlet
-   * @throws ServletException If thrown by underlying servlet
-   */
-  public boolean service(ServletRequest servletRequest,
-      ServletResponse servletResponse) throws IOException, ServletException {
-
-    final HttpServletRequest request = (HttpServletRequest) servletRequest;
-    final String path = request.getRequestURI().substring(request.getContextPath().length());
-
-    final boolean serve = shouldServe(path);
-
-    //invocations of the chain end at the first matched servlet
-    if (serve) {
-      doService(servletRequest, servletResponse);
-    }
-
-    //return false if no servlet matched (so we can proceed down to the web.xml servlets)
-    return serve;
-  }
-
   /**
    * Utility that delegates to the actual service method of the servlet wrapped with a contextual
    * request (i.e. with correctly computed path info).
    *
-   * We need to suppress deprecation coz we use HttpServletRequestWrapper, which implements
-   * deprecated API for backwards compatibility.
+   * The servlet gets a wrapper of its own, so that the paths of the request that filters hold
+   * don't change while it serves.
    */
   void doService(final ServletRequest servletRequest, ServletResponse servletResponse)
       throws ServletException, IOException {
+    doService(servletRequest, servletResponse, null);
+  }
 
-    HttpServletRequest request = new HttpServletRequestWrapper(
-        (HttpServletRequest) servletRequest) {
-      private String path;
-      private boolean pathComputed = false;
-      //must use a boolean on the memo field, because null is a legal value (TODO no, it's not)
-
-      private boolean pathInfoComputed = false;
-      private String pathInfo;
-
-      @Override
-      public String getPathInfo() {
-        if (!isPathInfoComputed()) {
-          int servletPathLength = getServletPath().length();
-          pathInfo = getRequestURI().substring(getContextPath().length()).replaceAll("[/]{2,}", "/");
-          pathInfo = pathInfo.length() > servletPathLength ? pathInfo.substring(servletPathLength) : null;
-
-          // Corner case: when servlet path and request path match exactly (without trailing '/'),
-          // then pathinfo is null
-          if ("".equals(pathInfo) && servletPathLength != 0) {
-            pathInfo = null;
-          }
-
-          pathInfoComputed = true;
-        }
-
-        return pathInfo;
-      }
-
-      // NOTE(dhanji): These two are a bit of a hack to help ensure that request dipatcher-sent
-      // requests don't use the same path info that was memoized for the original request.
-      private boolean isPathInfoComputed() {
-        return pathInfoComputed
-            && !(null != servletRequest.getAttribute(REQUEST_DISPATCHER_REQUEST));
-      }
-
-      private boolean isPathComputed() {
-        return pathComputed
-            && !(null != servletRequest.getAttribute(REQUEST_DISPATCHER_REQUEST));
-      }
-
-      @Override
-      public String getServletPath() {
-        return computePath();
-      }
-
-      @Override
-      public String getPathTranslated() {
-        final String info = getPathInfo();
-
-        return (null == info) ? null : getRealPath(info);
-      }
-
-      // Memoizer pattern.
-      private String computePath() {
-        if (!isPathComputed()) {
-          String servletPath = super.getServletPath();
-          path = patternMatcher.extractPath(servletPath);
-          pathComputed = true;
-
-          if (null == path) {
-            path = servletPath;
-          }
-        }
-
-        return path;
-      }
-    };
-
+  /**
+   * Services the request with the servlet path that {@code dispatch} extracted for its path, if
+   * it's the path the request is for, so that it needn't be extracted again.
+   */
+  void doService(ServletRequest servletRequest, ServletResponse servletResponse,
+      DispatchCache.Dispatch dispatch) throws ServletException, IOException {
+    HttpServletRequest request = new DispatchingRequestWrapper(
+        (HttpServletRequest) servletRequest, null, patternMatcher, dispatch);
     httpServlet.get().service(request, servletResponse);
   }
 
@@ -270,4 +178,8 @@ class ServletDefinition implements ProviderWithExtensionVisitor<ServletDefinitio
   String getPattern() {
     return pattern;
   }
+
+  UriPatternMatcher getPatternMatcher() {
+    return patternMatcher;
+  }
 }
@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.servlet;
+
+import com.google.inject.internal.util.Lists;
+import com.google.inject.internal.util.Maps;
+import com.google.inject.servlet.UriPatternType.RegexUriPatternMatcher;
+import com.google.inject.servlet.UriPatternType.ServletStyleUriPatternMatcher;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the URI patterns that match a path without trying each pattern in turn. Servlet-style
+ * patterns are compiled into a hash map of literal paths, a trie of prefixes ({@code /foo/*}) and a
+ * trie of reversed suffixes ({@code *.html}), so finding them takes time proportional to the length
+ * of the path rather than to the number of patterns. Regexes are indexed by the literal text
+ * they start with, if any, and only tried on paths that start with it. Other patterns are tried one
+ * by one.
+ *
+ * <p>Patterns are identified by their position in the list the index was built from, and matches
+ * are always found in that order.
+ */
+final class UriPatternIndex {
+  private static final int[] NONE = {};
+
+  private final int size;
+  private final Map<String, int[]> literals = Maps.newHashMap();
+
+  /** Patterns that match paths starting with a prefix, by the prefix's characters. */
+  private final Node prefixes = new Node();
+
+  /** Patterns that match paths ending with a suffix, by the suffix's characters in reverse. */
+  private final Node suffixes = new Node();
+
+  /** Regexes that may match paths starting with their literal prefix, by its characters. */
+  private final Node regexPrefixes = new Node();
+
+  /** Patterns that aren't indexed, and their positions. */
+  private final UriPatternMatcher[] unindexed;
+  private final int[] unindexedPositions;
+
+  private final UriPatternMatcher[] patternMatchers;
+
+  /** The most patterns that can match one path. */
+  private final int maxMatches;
+
+  UriPatternIndex(List<UriPatternMatcher> patternMatchers) {
+    size = patternMatchers.size();
+    this.patternMatchers = patternMatchers.toArray(new UriPatternMatcher[size]);
+    List<UriPatternMatcher> unindexed = Lists.newArrayList();
+    int[] unindexedPositions = NONE;
+
+    for (int position = 0; position < size; position++) {
+      UriPatternMatcher patternMatcher = patternMatchers.get(position);
+      String regexPrefix = patternMatcher instanceof RegexUriPatternMatcher
+          ? ((RegexUriPatternMatcher) patternMatcher).getLiteralPrefix()
+          : "";
+      if (regexPrefix.length() > 0) {
+        Node node = regexPrefixes;
+        for (int i = 0; i < regexPrefix.length(); i++) {
+          node = node.getOrAddChild(regexPrefix.charAt(i));
+        }
+        node.positions = append(node.positions, position);
+        continue;
+      }
+      if (!(patternMatcher instanceof ServletStyleUriPatternMatcher)) {
+        unindexed.add(patternMatcher);
+        unindexedPositions = append(unindexedPositions, position);
+        continue;
+      }
+
+      ServletStyleUriPatternMatcher servletStyle = (ServletStyleUriPatternMatcher) patternMatcher;
+      String pattern = servletStyle.getPattern();
+      switch (servletStyle.getKind()) {
+        case PREFIX: // "*.html" matches the paths that end with ".html"
+          Node node = suffixes;
+          for (int i = pattern.length() - 1; i >= 0; i--) {
+            node = node.getOrAddChild(pattern.charAt(i));
+          }
+          node.positions = append(node.positions, position);
+          break;
+        case SUFFIX: // "/foo/*" matches the paths that start with "/foo/"
+          node = prefixes;
+          for (int i = 0; i < pattern.length(); i++) {
+            node = node.getOrAddChild(pattern.charAt(i));
+          }
+          node.positions = append(node.positions, position);
+          break;
+        default:
+          int[] positions = literals.get(pattern);
+          literals.put(pattern, append(positions != null ? positions : NONE, position));
+      }
+    }
+
+    this.unindexed = unindexed.toArray(new UriPatternMatcher[unindexed.size()]);
+    this.unindexedPositions = unindexedPositions;
+
+    int maxLiterals = 0;
+    for (int[] positions : literals.values()) {
+      maxLiterals = Math.max(maxLiterals, positions.length);
+    }
+    maxMatches = maxLiterals + prefixes.maxMatches() + suffixes.maxMatches()
+        + regexPrefixes.maxMatches() + unindexedPositions.length;
+  }
+
+  /** Returns the number of patterns in this index. */
+  int size() {
+    return size;
+  }
+
+  /** Returns the pattern at {@code position}. */
+  UriPatternMatcher get(int position) {
+    return patternMatchers[position];
+  }
+
+  /** Returns the positions of the patterns that match {@code path}, in increasing order. */
+  int[] matching(String path) {
+    if (path == null || maxMatches == 0) {
+      return NONE;
+    }
+
+    int[] matches = new int[maxMatches];
+    int count = add(literals.get(path), matches, 0);
+
+    Node node = prefixes;
+    for (int i = 0; node != null; i++) {
+      count = add(node.positions, matches, count);
+      node = i < path.length() ? node.child(path.charAt(i)) : null;
+    }
+
+    node = suffixes;
+    for (int i = path.length() - 1; node != null; i--) {
+      count = add(node.positions, matches, count);
+      node = i >= 0 ? node.child(path.charAt(i)) : null;
+    }
+
+    node = regexPrefixes;
+    for (int i = 0; node != null; i++) {
+      for (int position : node.positions) {
+        if (patternMatchers[position].matches(path)) {
+          matches[count++] = position;
+        }
+      }
+      node = i < path.length() ? node.child(path.charAt(i)) : null;
+    }
+
+    for (int i = 0; i < unindexed.length; i++) {
+      if (unindexed[i].matches(path)) {
+        matches[count++] = unindexedPositions[i];
+      }
+    }
+
+    if (count == 0) {
+      return NONE;
+    }
+    int[] result = new int[count];
+    System.arraycopy(matches, 0, result, 0, count);
+    Arrays.sort(result);
+    return result;
+  }
+
+  /** Returns the position of the first pattern that matches {@code path}, or the size if none. */
+  int firstMatching(String path) {
+    if (path == null) {
+      return size;
+    }
+
+    int first = size;
+    int[] positions = literals.get(path);
+    if (positions != null) {
+      first = positions[0];
+    }
+
+    Node node = prefixes;
+    for (int i = 0; node != null; i++) {
+      if (node.positions.length > 0) {
+        first = Math.min(first, node.positions[0]);
+      }
+      node = i < path.length() ? node.child(path.charAt(i)) : null;
+    }
+
+    node = suffixes;
+    for (int i = path.length() - 1; node != null; i--) {
+      if (node.positions.length > 0) {
+        first = Math.min(first, node.positions[0]);
+      }
+      node = i >= 0 ? node.child(path.charAt(i)) : null;
+    }
+
+    // only try the regexes and other patterns that come before the first match so far
+    node = regexPrefixes;
+    for (int i = 0; node != null; i++) {
+      for (int position : node.positions) {
+        if (position >= first) {
+          break;
+        }
+        if (patternMatchers[position].matches(path)) {
+          first = position;
+          break;
+        }
+      }
+      node = i < path.length() ? node.child(path.charAt(i)) : null;
+    }
+
+    for (int i = 0; i < unindexed.length && unindexedPositions[i] < first; i++) {
+      if (unindexed[i].matches(path)) {
+        return unindexedPositions[i];
+      }
+    }
+    return first;
+  }
+
+  private static int add(int[] positions, int[] matches, int count) {
+    if (positions != null) {
+      System.arraycopy(positions, 0, matches, count, positions.length);
+      count += positions.length;
+    }
+    return count;
+  }
+
+  private static int[] append(int[] positions, int position) {
+    int[] result = new int[positions.length + 1];
+    System.arraycopy(positions, 0, result, 0, positions.length);
+    result[positions.length] = position;
+    return result;
+  }
+
+  /** A trie node, whose children are sorted by their characters. */
+  private static class Node {
+    int[] positions = NONE;
+    char[] keys = {};
+    Node[] children = {};
+
+    Node child(char c) {
+      int i = Arrays.binarySearch(keys, c);
+      return i >= 0 ? children[i] : null;
+    }
+
+    Node getOrAddChild(char c) {
+      int i = Arrays.binarySearch(keys, c);
+      if (i >= 0) {
+        return children[i];
+      }
+
+      int insertion = -(i + 1);
+      char[] newKeys = new char[keys.length + 1];
+      Node[] newChildren = new Node[children.length + 1];
+      System.arraycopy(keys, 0, newKeys, 0, insertion);
+      System.arraycopy(children, 0, newChildren, 0, insertion);
+      System.arraycopy(keys, insertion, newKeys, insertion + 1, keys.length - insertion);
+      System.arraycopy(children, insertion, newChildren, insertion + 1,
+          children.length - insertion);
+      Node child = new Node();
+      newKeys[insertion] = c;
+      newChildren[insertion] = child;
+      keys = newKeys;
+      children = newChildren;
+      return child;
+    }
+
+    /** Returns the most patterns that can match on a path from this node down. */
+    int maxMatches() {
+      int max = 0;
+      for (Node child : children) {
+        max = Math.max(max, child.maxMatches());
+      }
+      return positions.length + max;
+    }
+  }
+}
@@ -42,11 +42,12 @@ public enum UriPatternType {
    *
    * @author dhanji@gmail.com (Dhanji R. Prasanna)
    */
-  private static class ServletStyleUriPatternMatcher implements UriPatternMatcher {
+  static class ServletStyleUriPatternMatcher implements UriPatternMatcher {
     private final String pattern;
     private final Kind patternKind;
 
-    private static enum Kind { PREFIX, SUFFIX, LITERAL, }
+    /** PREFIX patterns start with a '*' and SUFFIX patterns end with one. */
+    static enum Kind { PREFIX, SUFFIX, LITERAL, }
 
     public ServletStyleUriPatternMatcher(String pattern) {
       if (pattern.startsWith("*")) {
@@ -97,6 +98,15 @@ public enum UriPatternType {
     public UriPatternType getPatternType() {
       return UriPatternType.SERVLET;
     }
+
+    /** Returns the pattern without its '*'. */
+    String getPattern() {
+      return pattern;
+    }
+
+    Kind getKind() {
+      return patternKind;
+    }
   }
 
   /**
@@ -104,11 +114,13 @@ public enum UriPatternType {
    *
    * @author dhanji@gmail.com (Dhanji R. Prasanna)
    */
-  private static class RegexUriPatternMatcher implements UriPatternMatcher {
+  static class RegexUriPatternMatcher implements UriPatternMatcher {
     private final Pattern pattern;
+    private final String literalPrefix;
 
     public RegexUriPatternMatcher(String pattern) {
       this.pattern = Pattern.compile(pattern);
+      this.literalPrefix = literalPrefix(pattern);
     }
 
     public boolean matches(String uri) {
@@ -130,7 +142,72 @@ public enum UriPatternType {
       }
       return null;
     }
-    
+
+    /** Returns the text that every matching URI starts with, which may be empty. */
+    String getLiteralPrefix() {
+      return literalPrefix;
+    }
+
+    /**
+     * Returns the literal text at the start of {@code regex}, up to its first construct that isn't
+     * a plain or escaped character. Returns an empty string if that isn't certain to start every
+     * match, such as when the regex is an alternation.
+     */
+    static String literalPrefix(String regex) {
+      if (regex.contains("\\Q") || isAlternation(regex)) {
+        return "";
+      }
+
+      StringBuilder prefix = new StringBuilder();
+      for (int i = 0; i < regex.length(); i++) {
+        char c = regex.charAt(i);
+        if (c == '\\') {
+          // escaped letters and digits are character classes, back references and the like
+          if (i + 1 == regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+            break;
+          }
+          c = regex.charAt(++i);
+        } else if (".[](){}*+?^$|".indexOf(c) >= 0) {
+          break;
+        }
+
+        // quantified characters may be missing
+        if (i + 1 < regex.length() && "*+?{".indexOf(regex.charAt(i + 1)) >= 0) {
+          break;
+        }
+        prefix.append(c);
+      }
+      return prefix.toString();
+    }
+
+    /**
+     * Returns true if {@code regex} may have alternatives outside of any group. Regexes with
+     * character classes may, as their brackets and parentheses aren't told apart.
+     */
+    private static boolean isAlternation(String regex) {
+      if (regex.indexOf('|') < 0) {
+        return false;
+      }
+      if (regex.indexOf('[') >= 0) {
+        return true;
+      }
+
+      int depth = 0;
+      for (int i = 0; i < regex.length(); i++) {
+        char c = regex.charAt(i);
+        if (c == '\\') {
+          i++;
+        } else if (c == '(') {
+          depth++;
+        } else if (c == ')') {
+          depth--;
+        } else if (c == '|' && depth == 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+
     public UriPatternType getPatternType() {
       return UriPatternType.REGEX;
     }
@@ -39,6 +39,9 @@ public class AllTests {
     suite.addTestSuite(ServletDefinitionTest.class);
     suite.addTestSuite(ServletDefinitionPathsTest.class);
     suite.addTestSuite(ServletPipelineRequestDispatcherTest.class);
+    suite.addTestSuite(UriPatternIndexTest.class);
+    suite.addTestSuite(DispatchCacheTest.class);
+    suite.addTestSuite(RequestResponseStackTest.class);
     suite.addTestSuite(ServletDispatchIntegrationTest.class);
     suite.addTestSuite(InvalidScopeBindingTest.class);
 
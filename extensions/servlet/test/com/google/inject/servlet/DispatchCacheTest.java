@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.servlet;
+
+import static com.google.inject.servlet.UriPatternType.REGEX;
+import static com.google.inject.servlet.UriPatternType.SERVLET;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.internal.util.ImmutableList;
+import com.google.inject.servlet.DispatchCache.Dispatch;
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/**
+ * Tests the cache of the filters and servlet that match each path.
+ */
+public class DispatchCacheTest extends TestCase {
+
+  private final UriPatternIndex filterIndex = new UriPatternIndex(ImmutableList.of(
+      UriPatternType.get(SERVLET, "/*"),
+      UriPatternType.get(SERVLET, "*.html"),
+      UriPatternType.get(SERVLET, "/a/*")));
+  private final UriPatternIndex servletIndex = new UriPatternIndex(ImmutableList.of(
+      UriPatternType.get(SERVLET, "/a/*"),
+      UriPatternType.get(SERVLET, "*.html")));
+
+  public void testCachesPathsRequestedAgain() {
+    DispatchCache cache = new DispatchCache(filterIndex, servletIndex, 16);
+
+    Dispatch first = cache.get("/a/index.html");
+    assertEquals("[0, 1, 2]", Arrays.toString(first.filters));
+    assertEquals(0, first.servlet);
+    assertStats(cache, 0, 0, 1, 0);
+
+    Dispatch second = cache.get("/a/index.html");
+    assertNotSame(first, second);
+    assertStats(cache, 0, 1, 1, 1);
+
+    assertSame(second, cache.get("/a/index.html"));
+    assertSame(second, cache.get("/a/index.html"));
+    assertStats(cache, 2, 1, 1, 1);
+
+    Dispatch other = cache.get("/b");
+    assertEquals("[0]", Arrays.toString(other.filters));
+    assertEquals(2, other.servlet);
+    assertStats(cache, 2, 1, 2, 1);
+  }
+
+  public void testEvictsLeastRecentlyUsedPaths() {
+    DispatchCache cache = new DispatchCache(filterIndex, servletIndex, 1);
+
+    cache.get("/a");
+    Dispatch a = cache.get("/a");
+    assertSame(a, cache.get("/a"));
+
+    cache.get("/b");
+    Dispatch b = cache.get("/b");
+    assertSame(b, cache.get("/b"));
+    assertEquals(1, cache.size());
+
+    assertNotSame(a, cache.get("/a"));
+  }
+
+  public void testBypassesLongPaths() {
+    DispatchCache cache = new DispatchCache(filterIndex, servletIndex, 16);
+    char[] chars = new char[DispatchCache.MAX_PATH_LENGTH + 1];
+    Arrays.fill(chars, 'a');
+    String path = "/" + new String(chars);
+
+    cache.get(path);
+    cache.get(path);
+    cache.get(path);
+    assertStats(cache, 0, 0, 3, 0);
+  }
+
+  public void testDisabledCacheCountsNothing() {
+    DispatchCache cache = new DispatchCache(filterIndex, servletIndex, 0);
+
+    Dispatch dispatch = cache.get("/a/index.html");
+    assertEquals("[0, 1, 2]", Arrays.toString(dispatch.filters));
+    assertEquals(0, dispatch.servlet);
+    assertNotSame(dispatch, cache.get("/a/index.html"));
+    assertStats(cache, 0, 0, 0, 0);
+    assertEquals(1.0, cache.getStats().getHitRate());
+  }
+
+  public void testCountsHitsFromEveryThread() throws InterruptedException {
+    final DispatchCache cache = new DispatchCache(filterIndex, servletIndex, 16);
+    cache.get("/a/index.html");
+    cache.get("/a/index.html");
+
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        @Override public void run() {
+          for (int j = 0; j < 1000; j++) {
+            cache.get("/a/index.html");
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertStats(cache, 4000, 1, 1, 1);
+  }
+
+  public void testKeepsServletPathOfMatchingServlet() {
+    UriPatternIndex servletIndex = new UriPatternIndex(ImmutableList.of(
+        UriPatternType.get(REGEX, "/users/(\\d+)"),
+        UriPatternType.get(SERVLET, "/a/*")));
+    DispatchCache cache = new DispatchCache(filterIndex, servletIndex, 16);
+
+    assertEquals("/users/", cache.get("/users/42").servletPath);
+    assertEquals("/a", cache.get("/a/b").servletPath);
+    assertNull(cache.get("/b").servletPath);
+  }
+
+  public void testStatsAreInjectable() {
+    Injector injector = Guice.createInjector(new ServletModule());
+    DispatchCacheStats stats = injector.getInstance(DispatchCacheStats.class);
+    assertEquals(0, stats.getRequestCount());
+    assertEquals(DispatchCache.getConfiguredSize(), stats.getMaximumSize());
+  }
+
+  private void assertStats(DispatchCache cache, long hits, long misses, long bypasses, int size) {
+    DispatchCacheStats stats = cache.getStats();
+    assertEquals(hits, stats.getHitCount());
+    assertEquals(misses, stats.getMissCount());
+    assertEquals(bypasses, stats.getBypassCount());
+    assertEquals(size, stats.getSize());
+  }
+}
@@ -1,15 +1,19 @@
 package com.google.inject.servlet;
 
+import com.google.inject.AbstractModule;
 import com.google.inject.Binding;
+import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.internal.util.Maps;
 import com.google.inject.internal.util.Sets;
 import com.google.inject.spi.BindingScopingVisitor;
+import com.google.inject.util.Providers;
 import java.io.IOException;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
 import javax.servlet.FilterConfig;
@@ -123,16 +127,7 @@ public class FilterDefinitionTest extends TestCase {
 
     assertTrue("Init did not fire", mockFilter.isInit());
 
-    final boolean proceed[] = new boolean[1];
-    filterDef.doFilter(request, null, new FilterChainInvocation(null, null, null) {
-      public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse)
-          throws IOException, ServletException {
-
-        proceed[0] = true;
-      }
-    });
-
-    assertTrue("Filter did not proceed down chain", proceed[0]);
+    assertTrue("Filter did not proceed down chain", dispatch(filterDef, mockFilter, request));
 
     filterDef.destroy(Sets.newSetFromMap(Maps.<Filter, Boolean>newIdentityHashMap()));
     assertTrue("Destroy did not fire", mockFilter.isDestroy());
@@ -184,15 +179,7 @@ public class FilterDefinitionTest extends TestCase {
 
     assertTrue("init did not fire", mockFilter.isInit());
 
-    final boolean proceed[] = new boolean[1];
-    filterDef.doFilter(request, null, new FilterChainInvocation(null, null, null) {
-      public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse)
-          throws IOException, ServletException {
-        proceed[0] = true;
-      }
-    });
-
-    assertTrue("filter did not suppress chain", !proceed[0]);
+    assertTrue("filter did not suppress chain", !dispatch(filterDef, mockFilter, request));
 
     filterDef.destroy(Sets.newSetFromMap(Maps.<Filter, Boolean>newIdentityHashMap()));
     assertTrue("destroy did not fire", mockFilter.isDestroy());
@@ -201,6 +188,36 @@ public class FilterDefinitionTest extends TestCase {
 
   }
 
+  /**
+   * Sends the request through a filter pipeline of just {@code filterDef}, whose filter is
+   * {@code filter}, and returns whether it reached the end of the chain.
+   */
+  private static boolean dispatch(final FilterDefinition filterDef, final Filter filter,
+      final HttpServletRequest request) {
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      protected void configure() {
+        bind(Filter.class).toInstance(filter);
+        bind(FilterDefinition.class).toInstance(filterDef);
+      }
+    });
+    final ManagedFilterPipeline pipeline = new ManagedFilterPipeline(injector,
+        new ManagedServletPipeline(injector),
+        Providers.of(createMock(ServletContext.class)));
+
+    final boolean proceed[] = new boolean[1];
+    GuiceFilter.withStack(request, null, new Callable<Void>() {
+      public Void call() throws IOException, ServletException {
+        pipeline.dispatch(request, null, new FilterChain() {
+          public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse) {
+            proceed[0] = true;
+          }
+        });
+        return null;
+      }
+    });
+    return proceed[0];
+  }
+
   private static class MockFilter implements Filter {
     private boolean init;
     private boolean destroy;
@@ -17,6 +17,7 @@ import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
 
 import junit.framework.TestCase;
@@ -213,6 +214,69 @@ public class FilterDispatchIntegrationTest extends TestCase {
     		inits == 1 && doFilters == 2 && destroys == 1);
   }
 
+  public final void testDispatchMatchesLaterFiltersAgainstChangedUri() throws ServletException,
+      IOException {
+    final Injector injector = Guice.createInjector(new ServletModule() {
+
+      @Override
+      protected void configureServlets() {
+        filter("/old/*").through(RewritingFilter.class);
+        filter("/new/*").through(TestFilter.class);
+        //this filter should never fire, as the URI no longer starts with /old/
+        filter("/old/*").through(Key.get(TestFilter.class));
+      }
+    });
+
+    final FilterPipeline pipeline = injector.getInstance(FilterPipeline.class);
+    pipeline.initPipeline(null);
+
+    //create ourselves a mock request with test URI
+    final HttpServletRequest requestMock = control.createMock(HttpServletRequest.class);
+
+    expect(requestMock.getRequestURI())
+            .andReturn("/old/index.html")
+            .anyTimes();
+    expect(requestMock.getContextPath())
+        .andReturn("")
+        .anyTimes();
+
+    // dispatch request
+    final FilterChain filterChain = control.createMock(FilterChain.class);
+    filterChain.doFilter(EasyMock.isA(HttpServletRequest.class),
+        (ServletResponse) EasyMock.isNull());
+    control.replay();
+    GuiceFilter.withStack(null, null, new Callable<Void>() {
+      @Override
+      public Void call() throws Exception {
+        pipeline.dispatch(requestMock, null, filterChain);
+        pipeline.destroyPipeline();
+        return null;
+      }
+    });
+    control.verify();
+
+    assertTrue("lifecycle states did not fire "
+            + "correct number of times-- inits: " + inits + "; dos: " + doFilters
+            + "; destroys: " + destroys,
+        inits == 1 && doFilters == 1 && destroys == 1);
+  }
+
+  @Singleton
+  public static class RewritingFilter implements Filter {
+    public void init(FilterConfig filterConfig) {}
+
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse,
+        FilterChain filterChain) throws IOException, ServletException {
+      filterChain.doFilter(new HttpServletRequestWrapper((HttpServletRequest) servletRequest) {
+        @Override public String getRequestURI() {
+          return "/new/index.html";
+        }
+      }, servletResponse);
+    }
+
+    public void destroy() {}
+  }
+
   @Singleton
   public static class TestFilter implements Filter {
     public void init(FilterConfig filterConfig) throws ServletException {
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.servlet;
+
+import static org.easymock.EasyMock.createMock;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import junit.framework.TestCase;
+
+/**
+ * Tests the stack of the requests and responses that filters pass down the chain.
+ */
+public class RequestResponseStackTest extends TestCase {
+
+  private final HttpServletRequest request = createMock(HttpServletRequest.class);
+  private final HttpServletResponse response = createMock(HttpServletResponse.class);
+  private final HttpServletRequest wrapper = createMock(HttpServletRequest.class);
+
+  public void testSameRequestAndResponseShareAContext() {
+    RequestResponseStack stack = new RequestResponseStack();
+    stack.push(request, response);
+    GuiceFilter.Context context = stack.currentContext();
+
+    stack.push(request, response);
+    stack.push(request, response);
+    assertSame(context, stack.currentContext());
+
+    stack.pop();
+    stack.pop();
+    assertSame(context, stack.currentContext());
+    assertSame(request, context.getRequest());
+    assertSame(response, context.getResponse());
+  }
+
+  public void testPopsInReverseOrder() {
+    RequestResponseStack stack = new RequestResponseStack();
+    for (int i = 0; i < 10; i++) {
+      stack.push(request, response);
+      stack.push(wrapper, response);
+    }
+
+    for (int i = 0; i < 10; i++) {
+      assertSame(wrapper, stack.currentContext().getRequest());
+      stack.pop();
+      assertSame(request, stack.currentContext().getRequest());
+      stack.pop();
+    }
+
+    try {
+      stack.currentContext();
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+}
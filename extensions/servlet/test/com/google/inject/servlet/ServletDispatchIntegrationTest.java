@@ -277,4 +277,77 @@ public class ServletDispatchIntegrationTest extends TestCase {
     assertEquals("Incorrect number of forwards", 1, ForwardedServlet.forwardedTo);
     verify(requestMock, responseMock);
   }
+
+  @Singleton
+  public static class PathRecordingFilter implements Filter {
+    static ServletRequest requestPassed;
+    static String servletPathAfter;
+
+    public void init(FilterConfig filterConfig) {}
+
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse,
+        FilterChain filterChain) throws IOException, ServletException {
+      requestPassed = servletRequest;
+      filterChain.doFilter(servletRequest, servletResponse);
+      servletPathAfter = ((HttpServletRequest) servletRequest).getServletPath();
+    }
+
+    public void destroy() {}
+  }
+
+  @Singleton
+  public static class PathRecordingServlet extends HttpServlet {
+    static String servletPath;
+    static String pathInfo;
+    static String filteredServletPath;
+    static String injectedServletPath;
+
+    public void service(ServletRequest servletRequest, ServletResponse servletResponse) {
+      HttpServletRequest request = (HttpServletRequest) servletRequest;
+      servletPath = request.getServletPath();
+      pathInfo = request.getPathInfo();
+      filteredServletPath
+          = ((HttpServletRequest) PathRecordingFilter.requestPassed).getServletPath();
+      injectedServletPath = GuiceFilter.getRequest().getServletPath();
+    }
+  }
+
+  public void testServletPathsDontChangeFilteredRequest() throws IOException, ServletException {
+    Guice.createInjector(new ServletModule() {
+      @Override
+      protected void configureServlets() {
+        filter("/*").through(PathRecordingFilter.class);
+        serve("/app/*").with(PathRecordingServlet.class);
+      }
+    });
+
+    final HttpServletRequest requestMock = createMock(HttpServletRequest.class);
+    expect(requestMock.getRequestURI())
+        .andReturn("/app/page")
+        .anyTimes();
+    expect(requestMock.getContextPath())
+        .andReturn("")
+        .anyTimes();
+    expect(requestMock.getServletPath())
+        .andReturn("/app/page")
+        .anyTimes();
+    expect(requestMock.getAttribute(REQUEST_DISPATCHER_REQUEST))
+        .andReturn(null)
+        .anyTimes();
+
+    replay(requestMock);
+
+    new GuiceFilter()
+        .doFilter(requestMock, createMock(HttpServletResponse.class),
+            createMock(FilterChain.class));
+
+    assertEquals("/app", PathRecordingServlet.servletPath);
+    assertEquals("/page", PathRecordingServlet.pathInfo);
+
+    // the request that the filter holds, and that's injected, keeps the container's paths
+    assertEquals("/app/page", PathRecordingServlet.filteredServletPath);
+    assertEquals("/app/page", PathRecordingServlet.injectedServletPath);
+    assertEquals("/app/page", PathRecordingFilter.servletPathAfter);
+    verify(requestMock);
+  }
 }
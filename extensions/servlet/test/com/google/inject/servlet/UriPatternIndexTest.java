@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2011 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.inject.servlet;
+
+import static com.google.inject.servlet.UriPatternType.REGEX;
+import static com.google.inject.servlet.UriPatternType.SERVLET;
+
+import com.google.inject.internal.util.Lists;
+import com.google.inject.servlet.UriPatternType.RegexUriPatternMatcher;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * Tests that indexed patterns match the same paths, in the same order, as trying each pattern.
+ */
+public class UriPatternIndexTest extends TestCase {
+
+  private final List<UriPatternMatcher> patternMatchers = Lists.newArrayList();
+
+  public void testMatchesInRegistrationOrder() {
+    add(SERVLET, "*.html");
+    add(SERVLET, "/index.html");
+    add(SERVLET, "/*");
+    add(REGEX, "/[a-z]*\\.html");
+    add(SERVLET, "/index/*");
+    add(SERVLET, "*");
+    add(SERVLET, "*.html");
+    add(SERVLET, "/index.html");
+    UriPatternIndex index = new UriPatternIndex(patternMatchers);
+
+    assertEquals(Arrays.toString(new int[] { 0, 1, 2, 3, 5, 6, 7 }),
+        Arrays.toString(index.matching("/index.html")));
+    assertEquals(0, index.firstMatching("/index.html"));
+    assertEquals(Arrays.toString(new int[] { 2, 4, 5 }),
+        Arrays.toString(index.matching("/index/page.jsp")));
+    assertEquals(2, index.firstMatching("/index/page.jsp"));
+    assertEquals(Arrays.toString(new int[] { 5 }), Arrays.toString(index.matching("index")));
+    assertEquals(5, index.firstMatching("index"));
+  }
+
+  public void testMatchesLikeEachPattern() {
+    String[] patterns = { "/", "/*", "*", "", "/a", "/a/*", "/a*", "/a/b/*", "*.a", "*a", "*/a",
+        "*.b", "/a/b", "/b/*", "a*", "**", "/a/**" };
+    String[] paths = { "", "/", "a", "/a", "/a/", "/a/b", "/a/b/", "/a/b/c.a", "/b", "/b/a",
+        "/ab", "/a.a", "a.b", "/a/*", "*", "/a*" };
+
+    for (String pattern : patterns) {
+      add(SERVLET, pattern);
+    }
+    add(REGEX, "/a.*");
+    for (String pattern : patterns) {
+      add(SERVLET, pattern);
+    }
+    assertMatchesLikeEachPattern(paths);
+  }
+
+  public void testRegexesMatchLikeEachPattern() {
+    String[] regexes = { "/a", "/a.*", "/a/(.*)", "/ab?", "/a|/b", "/a(/b|/c)", "/a\\.a",
+        "/a\\|b", "/a{2}", "/a*", "[/]a|/b", "\\Q/a\\E|/b", "(?i)/A.*", "/a(?i)B", "/\\w+",
+        ".*\\.a", "/b/(.*)", "/a/b/(c)\\.a" };
+    String[] paths = { "", "/", "/a", "/aa", "/ab", "/a/", "/a/b", "/a/c", "/a/b/c.a", "/a.a",
+        "/a|b", "/b", "/A", "/AB", "/b/a", "/aB" };
+
+    add(SERVLET, "/a/*");
+    for (String regex : regexes) {
+      add(REGEX, regex);
+    }
+    add(SERVLET, "*.a");
+    for (String regex : regexes) {
+      add(REGEX, regex);
+    }
+    assertMatchesLikeEachPattern(paths);
+  }
+
+  public void testLiteralPrefixesOfRegexes() {
+    assertEquals("/users/", RegexUriPatternMatcher.literalPrefix("/users/(\\d+)"));
+    assertEquals("/index.html", RegexUriPatternMatcher.literalPrefix("/index\\.html"));
+    assertEquals("/a/", RegexUriPatternMatcher.literalPrefix("/a/b?"));
+    assertEquals("/a", RegexUriPatternMatcher.literalPrefix("/a(/b|/c)"));
+    assertEquals("/a", RegexUriPatternMatcher.literalPrefix("/a\\d"));
+    assertEquals("", RegexUriPatternMatcher.literalPrefix("/a|/b"));
+    assertEquals("", RegexUriPatternMatcher.literalPrefix("/a[|]"));
+    assertEquals("", RegexUriPatternMatcher.literalPrefix("\\Q/a\\E"));
+    assertEquals("", RegexUriPatternMatcher.literalPrefix("(?i)/a"));
+    assertEquals("", RegexUriPatternMatcher.literalPrefix(".*\\.html"));
+  }
+
+  private void assertMatchesLikeEachPattern(String... paths) {
+    UriPatternIndex index = new UriPatternIndex(patternMatchers);
+    for (String path : paths) {
+      List<Integer> expected = Lists.newArrayList();
+      for (int i = 0; i < patternMatchers.size(); i++) {
+        if (patternMatchers.get(i).matches(path)) {
+          expected.add(i);
+        }
+      }
+      List<Integer> actual = Lists.newArrayList();
+      for (int position : index.matching(path)) {
+        actual.add(position);
+      }
+      assertEquals(path, expected, actual);
+      assertEquals(path, expected.isEmpty() ? patternMatchers.size() : expected.get(0),
+          index.firstMatching(path));
+    }
+  }
+
+  public void testNothingMatchesNull() {
+    add(SERVLET, "*");
+    add(REGEX, ".*");
+    UriPatternIndex index = new UriPatternIndex(patternMatchers);
+
+    assertEquals(0, index.matching(null).length);
+    assertEquals(2, index.firstMatching(null));
+  }
+
+  public void testEmptyIndex() {
+    UriPatternIndex index = new UriPatternIndex(patternMatchers);
+
+    assertEquals(0, index.matching("/index.html").length);
+    assertEquals(0, index.firstMatching("/index.html"));
+  }
+
+  private void add(UriPatternType type, String pattern) {
+    patternMatchers.add(UriPatternType.get(type, pattern));
+  }
+}